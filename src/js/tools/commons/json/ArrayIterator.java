@@ -0,0 +1,112 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy iterator over top level JSON array elements. Every element is parsed only when requested by {@link #next()},
+ * using {@link JsonReader#nextObject(Type)}, so that memory usage does not depend on array length. A top level JSON
+ * <code>null</code> is iterated as an empty array.
+ * <p>
+ * Since iterator interface does not allow checked exceptions, IO failures are reported wrapped in {@link JsonException}.
+ *
+ * @author Iulian Rotaru
+ * @param <T> array element type.
+ */
+final class ArrayIterator<T> implements Iterator<T>
+{
+  /** Iteration states. */
+  private static final int STATE_START = 0;
+  private static final int STATE_ITEMS = 1;
+  private static final int STATE_END = 2;
+
+  /** Pull parser positioned on top level JSON array. */
+  private final JsonReader reader;
+
+  /** Array elements type. */
+  private final Type elementType;
+
+  /** Iteration state: array start not yet read, inside array or array end consumed. */
+  private int state;
+
+  /**
+   * Create iterator for array elements of given type.
+   *
+   * @param reader pull parser for JSON stream,
+   * @param elementType array elements type.
+   */
+  ArrayIterator(JsonReader reader, Type elementType)
+  {
+    this.reader = reader;
+    this.elementType = elementType;
+    this.state = STATE_START;
+  }
+
+  /**
+   * Returns true if JSON array has more elements. First invocation consumes array start.
+   *
+   * @return true if there are more elements.
+   * @throws JsonException if JSON stream is not an array or reading from stream fails.
+   */
+  @Override
+  public boolean hasNext()
+  {
+    try {
+      if(state == STATE_START) {
+        if(reader.peek() == JsonToken.NULL) {
+          reader.nextNull();
+          state = STATE_END;
+          return false;
+        }
+        reader.beginArray();
+        state = STATE_ITEMS;
+      }
+      if(state == STATE_END) {
+        return false;
+      }
+      if(reader.hasNext()) {
+        return true;
+      }
+      reader.endArray();
+      state = STATE_END;
+      return false;
+    }
+    catch(IOException e) {
+      throw new JsonException(e);
+    }
+  }
+
+  /**
+   * Parse next array element.
+   *
+   * @return next array element, possible null.
+   * @throws NoSuchElementException if there are no more elements.
+   * @throws JsonException if parsing fails.
+   */
+  @Override
+  public T next()
+  {
+    if(!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      return reader.nextObject(elementType);
+    }
+    catch(IOException e) {
+      throw new JsonException(e);
+    }
+  }
+
+  /**
+   * Remove operation is not supported.
+   *
+   * @throws UnsupportedOperationException always since remove is not supported.
+   */
+  @Override
+  public void remove()
+  {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -8,19 +8,42 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Parser array value.
+ * Parser array value. Items for arrays of int, long and double - and short and byte, collected as int - are parsed
+ * without boxing into a growing primitive array; all other items are collected into a list and copied to the array
+ * instance at the end.
  * 
  * @author Iulian Rotaru
  * @since 1.0.2
  */
 final class ArrayValue extends Value
 {
-  /** Values parsed from JSON array. */
+  /** Component kinds, used to select items collector. */
+  private static final int KIND_OBJECT = 0;
+  private static final int KIND_INT = 1;
+  private static final int KIND_LONG = 2;
+  private static final int KIND_DOUBLE = 3;
+
+  /** Initial capacity for primitive items buffer. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Values parsed from JSON array, used only for {@link #KIND_OBJECT} component kind. */
   private List<Object> values;
 
   /** Array type can be array class or generic array type. */
   private Type type;
 
+  /** Array component kind. */
+  private final int kind;
+
+  /** Primitive items buffer, int, long or double array accordingly component kind. */
+  private Object buffer;
+
+  /** Number of items stored on primitive items buffer. */
+  private int size;
+
+  /** Primitive items buffer capacity. */
+  private int capacity = INITIAL_CAPACITY;
+
   /** Array instance. */
   private Object instance;
 
@@ -31,8 +54,24 @@ final class ArrayValue extends Value
    */
   ArrayValue(Type type)
   {
-    this.values = new ArrayList<Object>();
     this.type = type;
+    this.kind = kind(getType());
+    switch(kind) {
+    case KIND_INT:
+      this.buffer = new int[INITIAL_CAPACITY];
+      break;
+
+    case KIND_LONG:
+      this.buffer = new long[INITIAL_CAPACITY];
+      break;
+
+    case KIND_DOUBLE:
+      this.buffer = new double[INITIAL_CAPACITY];
+      break;
+
+    default:
+      this.values = new ArrayList<Object>();
+    }
   }
 
   /**
@@ -54,10 +93,32 @@ final class ArrayValue extends Value
         arrayClass = (Class<?>)((ParameterizedType)arrayType).getRawType();
       }
 
-      instance = Array.newInstance(arrayClass, values.size());
-      for(int i = 0; i < values.size(); i++) {
-        Object value = values.get(i);
-        Array.set(instance, i, Converter.toObject(value, arrayClass));
+      if(kind == KIND_OBJECT) {
+        instance = Array.newInstance(arrayClass, values.size());
+        for(int i = 0; i < values.size(); i++) {
+          Object value = values.get(i);
+          Array.set(instance, i, Converter.toObject(value, arrayClass));
+        }
+      }
+      else if(arrayClass == short.class) {
+        int[] ints = (int[])buffer;
+        short[] shorts = new short[size];
+        for(int i = 0; i < size; ++i) {
+          shorts[i] = (short)ints[i];
+        }
+        instance = shorts;
+      }
+      else if(arrayClass == byte.class) {
+        int[] ints = (int[])buffer;
+        byte[] bytes = new byte[size];
+        for(int i = 0; i < size; ++i) {
+          bytes[i] = (byte)ints[i];
+        }
+        instance = bytes;
+      }
+      else {
+        instance = Array.newInstance(arrayClass, size);
+        System.arraycopy(buffer, 0, instance, 0, size);
       }
     }
     return instance;
@@ -79,13 +140,85 @@ final class ArrayValue extends Value
   }
 
   /**
-   * Collect array parsed item from JSON characters stream.
+   * Collect array parsed item from JSON characters stream. Item is converted to array component type on the spot since
+   * parsed value is valid only till next token. Items of primitive arrays are character sequences from JSON stream or
+   * numbers already decoded, e.g. by {@link BinaryParser}.
    * 
    * @param value parsed array item.
+   * @throws JsonException if value is null and array component is primitive.
    */
   @Override
   public void set(Object value)
   {
-    values.add(Converter.toObject(value, type));
+    if(kind == KIND_OBJECT) {
+      values.add(Converter.toObject(value, getType()));
+      return;
+    }
+    if(!(value instanceof CharSequence) && !(value instanceof Number)) {
+      throw new JsonException("Invalid item |%s| for primitive array |%s|.", value, type);
+    }
+
+    if(size == capacity) {
+      capacity *= 2;
+      Object newBuffer = Array.newInstance(buffer.getClass().getComponentType(), capacity);
+      System.arraycopy(buffer, 0, newBuffer, 0, size);
+      buffer = newBuffer;
+    }
+    if(value instanceof Number) {
+      Number number = (Number)value;
+      switch(kind) {
+      case KIND_INT:
+        ((int[])buffer)[size++] = number.intValue();
+        break;
+
+      case KIND_LONG:
+        ((long[])buffer)[size++] = number.longValue();
+        break;
+
+      case KIND_DOUBLE:
+        ((double[])buffer)[size++] = number.doubleValue();
+        break;
+      }
+      return;
+    }
+
+    CharSequence sequence = (CharSequence)value;
+    switch(kind) {
+    case KIND_INT:
+      ((int[])buffer)[size++] = Converter.toInt(sequence);
+      break;
+
+    case KIND_LONG:
+      ((long[])buffer)[size++] = Converter.toLong(sequence);
+      break;
+
+    case KIND_DOUBLE:
+      ((double[])buffer)[size++] = Converter.toDouble(sequence);
+      break;
+    }
+  }
+
+  /**
+   * Get component kind for array component type. Primitive components with user registered converter are collected
+   * as objects.
+   * 
+   * @param componentType array component type.
+   * @return component kind.
+   */
+  private static int kind(Type componentType)
+  {
+    if(Converter.isRegistered(componentType)) {
+      return KIND_OBJECT;
+    }
+    if(componentType == int.class || componentType == short.class || componentType == byte.class) {
+      return KIND_INT;
+    }
+    if(componentType == long.class) {
+      return KIND_LONG;
+    }
+    if(componentType == double.class) {
+      return KIND_DOUBLE;
+    }
+    return KIND_OBJECT;
   }
 }
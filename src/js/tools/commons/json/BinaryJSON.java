@@ -0,0 +1,81 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Compact binary encoding for the same values model as {@link JSON}. Values are serialized and parsed with the same
+ * rules as JSON streams - the same objects fields, enumerations and registered scalar converters, the same binding to
+ * expected type - so that data transfer objects can be exchanged in both formats without changes. Binary stream is
+ * smaller and cheaper to parse: numbers are variable length integers or IEEE 754 bits, strings are length prefixed
+ * UTF-8 bytes and object field names are written once per stream then referenced by index; see {@link BinaryTag} for
+ * encoding details.
+ * <p>
+ * There are couple differences from JSON streams: dates keep milliseconds precision and characters are encoded as
+ * strings. Inband class name, see {@link Serializer}, is not supported.
+ * <p>
+ * Binary streams use {@link #CONTENT_TYPE} media type.
+ *
+ * @author Iulian Rotaru
+ */
+public final class BinaryJSON
+{
+  /** Media type for binary encoded streams. */
+  public static final String CONTENT_TYPE = "application/x-jslib-binary";
+
+  /** Prevent default constructor synthesis. */
+  private BinaryJSON()
+  {
+  }
+
+  /**
+   * Serialize value to binary stream and left it unclosed. This method has the same behavior as
+   * {@link JSON#stringify(java.io.Writer, Object)}, including circular dependencies tracking. After serialization
+   * completes <code>stream</code> is flushed.
+   *
+   * @param stream bytes stream to write value on,
+   * @param value value to serialize, null accepted.
+   * @throws IOException if IO write operation fails.
+   */
+  public static void stringify(OutputStream stream, Object value) throws IOException
+  {
+    new BinaryWriter(stream).serialize(value);
+  }
+
+  /**
+   * Serialize value to binary stream, with optional circular dependencies tracking, see
+   * {@link JSON#stringify(java.io.Writer, Object, boolean)}.
+   *
+   * @param stream bytes stream to write value on,
+   * @param value value to serialize, null accepted,
+   * @param trackCycles if false circular dependencies are not tracked.
+   * @throws IOException if IO write operation fails.
+   */
+  public static void stringify(OutputStream stream, Object value, boolean trackCycles) throws IOException
+  {
+    BinaryWriter writer = new BinaryWriter(stream);
+    if(!trackCycles) {
+      writer.disableCycleTracking();
+    }
+    writer.serialize(value);
+  }
+
+  /**
+   * Deserialize value of expected type from binary stream. This method has the same behavior as
+   * {@link JSON#parse(InputStream, Type)}. After parsing completion used <code>stream</code> remains opened.
+   *
+   * @param stream bytes stream to read from,
+   * @param type expected type.
+   * @param <T> type to auto cast on return, cast compatible with <code>type</code> argument.
+   * @return instance of expected type initialized from binary stream.
+   * @throws IOException if read operation fails or stream is truncated.
+   * @throws JsonException if binary stream is not valid or cannot be bound to expected type.
+   * @throws ClassCastException if given <code>type</code> cannot cast to expected type variable <code>T</code>.
+   */
+  public static <T> T parse(InputStream stream, Type type) throws IOException, JsonException, ClassCastException
+  {
+    return new BinaryParser(stream).parse(type);
+  }
+}
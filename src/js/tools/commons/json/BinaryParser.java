@@ -0,0 +1,448 @@
+package js.tools.commons.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import js.tools.commons.util.Types;
+
+/**
+ * Binary counterpart of {@link Parser}. Decodes tagged values written by {@link BinaryWriter} and binds them to
+ * requested type using the same value helpers as JSON parser, see {@link Parser#getValueInstance(Type)}; binding rules
+ * are the same as for JSON streams. Numbers, booleans and dates are decoded directly to requested type, without string
+ * conversion, if type is a built-in numeric, boolean or date type.
+ * <p>
+ * This class is not reusable and not thread safe; create a new parser for every value to parse. Bytes are read in bulk
+ * into an internal buffer and input stream is left opened.
+ *
+ * @author Iulian Rotaru
+ */
+final class BinaryParser
+{
+  /** Charset for strings payload. */
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /** Bytes buffer size. */
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Upper limit for collections and maps capacity computed from items count. Count comes from stream and is not
+   * trusted; larger collections grow as items are actually read.
+   */
+  private static final int MAX_SIZE_HINT = 4096;
+
+  /** Wrapped input stream. */
+  private final InputStream stream;
+
+  /** Bytes buffer. */
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  /** Index of the next byte to decode from {@link #buffer}. */
+  private int position;
+
+  /** Number of valid bytes from {@link #buffer}. */
+  private int limit;
+
+  /** String table, names in the order they occur on stream. */
+  private final List<String> names = new ArrayList<String>();
+
+  /**
+   * Create binary parser for given input stream.
+   *
+   * @param stream input stream.
+   */
+  BinaryParser(InputStream stream)
+  {
+    this.stream = stream;
+  }
+
+  /**
+   * Check encoding version and parse value of requested type.
+   *
+   * @param type expected type.
+   * @return newly created instance of requested type.
+   * @throws IOException if input stream read fails or stream is truncated.
+   * @throws JsonException if binary stream is not valid or cannot be bound to requested type.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T parse(Type type) throws IOException
+  {
+    try {
+      int version = readByte();
+      if(version != BinaryTag.VERSION) {
+        throw new JsonException("Not supported binary encoding version |%d|.", version);
+      }
+      return (T)read(readByte(), type);
+    }
+    catch(IOException e) {
+      throw e;
+    }
+    catch(JsonException e) {
+      throw e;
+    }
+    catch(RuntimeException e) {
+      throw new JsonException(e);
+    }
+  }
+
+  /**
+   * Read value with given tag and bind it to requested type.
+   *
+   * @param tag value tag,
+   * @param type expected type, null if value should be skipped.
+   * @return value instance.
+   * @throws IOException if input stream read fails.
+   */
+  private Object read(int tag, Type type) throws IOException
+  {
+    switch(tag) {
+    case BinaryTag.ARRAY:
+      return readArray(type);
+
+    case BinaryTag.OBJECT:
+      return readObject(type);
+
+    case BinaryTag.MAP:
+      return readMap(type);
+
+    default:
+      return readScalar(tag, type);
+    }
+  }
+
+  /**
+   * Read array items and collect them into array or collection value helper.
+   *
+   * @param type array or collection type.
+   * @return array or collection instance.
+   * @throws IOException if input stream read fails.
+   */
+  private Object readArray(Type type) throws IOException
+  {
+    int count = readCount();
+    Value value = Parser.getValueInstance(type, sizeHint(count));
+    for(int i = 0; i < count; ++i) {
+      value.set(read(readByte(), value.getType()));
+    }
+    return value.instance();
+  }
+
+  /**
+   * Read object fields and set them on object value helper. If requested type is a map field names are map keys.
+   *
+   * @param type object or map type.
+   * @return object instance.
+   * @throws IOException if input stream read fails.
+   */
+  private Object readObject(Type type) throws IOException
+  {
+    int count = readCount();
+    ObjectValue value = objectValue(type, count);
+    for(int i = 0; i < count; ++i) {
+      setName(value, readName());
+      value.setValue(read(readByte(), value.getValueType()));
+    }
+    return value.instance();
+  }
+
+  /**
+   * Read map entries and put them on map value helper. If requested type is an object, map keys should be strings and
+   * are used as field names.
+   *
+   * @param type map or object type.
+   * @return map instance.
+   * @throws IOException if input stream read fails.
+   */
+  private Object readMap(Type type) throws IOException
+  {
+    int count = readCount();
+    ObjectValue value = objectValue(type, count);
+    for(int i = 0; i < count; ++i) {
+      int tag = readByte();
+      if(value instanceof MapValue) {
+        MapValue mapValue = (MapValue)value;
+        mapValue.setKey(read(tag, mapValue.keyType()));
+      }
+      else {
+        if(tag != BinaryTag.NAME && tag != BinaryTag.STRING) {
+          throw new JsonException("Invalid key tag |%d| for object |%s|.", tag, type);
+        }
+        value.setFieldName(tag == BinaryTag.NAME ? readName() : readString());
+      }
+      value.setValue(read(readByte(), value.getValueType()));
+    }
+    return value.instance();
+  }
+
+  /**
+   * Get object value helper for requested type.
+   *
+   * @param type object or map type,
+   * @param count fields or entries count, used as capacity hint for maps.
+   * @return object value helper.
+   * @throws JsonException if requested type is not an object or map.
+   */
+  private static ObjectValue objectValue(Type type, int count)
+  {
+    Value value = Parser.getValueInstance(type, sizeHint(count));
+    if(!(value instanceof ObjectValue)) {
+      throw new JsonException("Invalid value helper |%s| for target type |%s|.", value.getClass(), type);
+    }
+    return (ObjectValue)value;
+  }
+
+  /**
+   * Get collection capacity hint for items count read from stream, limited to {@link #MAX_SIZE_HINT}.
+   *
+   * @param count items count.
+   * @return capacity hint.
+   */
+  private static int sizeHint(int count)
+  {
+    return Math.min(count, MAX_SIZE_HINT);
+  }
+
+  /**
+   * Set current working name on object value helper, as field name for objects and as key for maps.
+   *
+   * @param value object value helper,
+   * @param name field name or map key.
+   */
+  private static void setName(ObjectValue value, String name)
+  {
+    if(value instanceof MapValue) {
+      ((MapValue)value).setKey(name);
+    }
+    else {
+      value.setFieldName(name);
+    }
+  }
+
+  /**
+   * Read scalar value and convert it to requested type. If type is null returns decoded value as it is.
+   *
+   * @param tag scalar value tag,
+   * @param type expected type, possible null.
+   * @return value instance, possible null.
+   * @throws IOException if input stream read fails.
+   * @throws JsonException if tag is not valid.
+   */
+  private Object readScalar(int tag, Type type) throws IOException
+  {
+    switch(tag) {
+    case BinaryTag.NULL:
+      return null;
+
+    case BinaryTag.FALSE:
+      return toBoolean(false, type);
+
+    case BinaryTag.TRUE:
+      return toBoolean(true, type);
+
+    case BinaryTag.INT:
+      long longValue = readLong();
+      return type != null ? Converter.fromLong(longValue, type) : (Object)longValue;
+
+    case BinaryTag.FLOAT:
+      float floatValue = Float.intBitsToFloat((int)readBits(4));
+      return type != null ? Converter.fromFloat(floatValue, type) : (Object)floatValue;
+
+    case BinaryTag.DOUBLE:
+      double doubleValue = Double.longBitsToDouble(readBits(8));
+      return type != null ? Converter.fromDouble(doubleValue, type) : (Object)doubleValue;
+
+    case BinaryTag.NUMBER:
+    case BinaryTag.STRING:
+      return Converter.toObject(readString(), type);
+
+    case BinaryTag.NAME:
+      return Converter.toObject(readName(), type);
+
+    case BinaryTag.DATE:
+      long millis = readLong();
+      return type != null ? Converter.fromDate(millis, type) : new Date(millis);
+
+    default:
+      throw new JsonException("Invalid binary value tag |%d|.", tag);
+    }
+  }
+
+  /**
+   * Convert boolean value to requested type. Boolean types get the value as it is; other types are converted from
+   * <code>true</code> or <code>false</code> literal.
+   *
+   * @param value boolean value,
+   * @param type expected type, possible null.
+   * @return value instance.
+   */
+  private static Object toBoolean(boolean value, Type type)
+  {
+    if(type == null || (Types.isBoolean(type) && !Converter.isRegistered(type))) {
+      return value;
+    }
+    return Converter.toObject(value ? "true" : "false", type);
+  }
+
+  /**
+   * Read name reference and resolve it against string table. A new name is read from stream and added to table.
+   *
+   * @return name.
+   * @throws IOException if input stream read fails.
+   * @throws JsonException if name reference is not valid.
+   */
+  private String readName() throws IOException
+  {
+    int reference = readCount();
+    if(reference == 0) {
+      String name = readString();
+      names.add(name);
+      return name;
+    }
+    if(reference > names.size()) {
+      throw new JsonException("Invalid name reference |%d|. String table size is |%d|.", reference, names.size());
+    }
+    return names.get(reference - 1);
+  }
+
+  /**
+   * Read length prefixed UTF-8 string.
+   *
+   * @return string value.
+   * @throws IOException if input stream read fails.
+   */
+  private String readString() throws IOException
+  {
+    int length = readCount();
+    if(length <= buffer.length) {
+      fill(length);
+      String string = new String(buffer, position, length, UTF8);
+      position += length;
+      return string;
+    }
+
+    // length prefix is not trusted; large strings are collected in chunks so that memory grows only with bytes
+    // actually read and truncated stream fails before allocating declared length
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(buffer.length * 2);
+    for(int remaining = length; remaining > 0;) {
+      if(position == limit) {
+        fill(1);
+      }
+      int count = Math.min(remaining, limit - position);
+      bytes.write(buffer, position, count);
+      position += count;
+      remaining -= count;
+    }
+    return new String(bytes.toByteArray(), UTF8);
+  }
+
+  /**
+   * Read variable length unsigned integer used for counts and lengths.
+   *
+   * @return count value.
+   * @throws IOException if input stream read fails.
+   * @throws JsonException if count is negative or does not fit an int.
+   */
+  private int readCount() throws IOException
+  {
+    long count = readVarint();
+    if(count < 0 || count > Integer.MAX_VALUE) {
+      throw new JsonException("Invalid binary count |%d|.", count);
+    }
+    return (int)count;
+  }
+
+  /**
+   * Read zigzag encoded signed long value.
+   *
+   * @return signed value.
+   * @throws IOException if input stream read fails.
+   */
+  private long readLong() throws IOException
+  {
+    long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Read unsigned variable length integer, 7 bits per byte, least significant group first.
+   *
+   * @return value, as unsigned long.
+   * @throws IOException if input stream read fails.
+   * @throws JsonException if variable length integer is too long.
+   */
+  private long readVarint() throws IOException
+  {
+    long value = 0;
+    for(int shift = 0; shift < 64; shift += 7) {
+      int b = readByte();
+      value |= (long)(b & 0x7F) << shift;
+      if((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new JsonException("Invalid binary variable length integer.");
+  }
+
+  /**
+   * Read big endian bits of a floating point value.
+   *
+   * @param count bytes count, 4 or 8.
+   * @return bits value.
+   * @throws IOException if input stream read fails.
+   */
+  private long readBits(int count) throws IOException
+  {
+    fill(count);
+    long bits = 0;
+    for(int i = 0; i < count; ++i) {
+      bits = (bits << 8) | (buffer[position++] & 0xFF);
+    }
+    return bits;
+  }
+
+  /**
+   * Read a single byte, usually a value tag.
+   *
+   * @return byte value, unsigned.
+   * @throws IOException if input stream read fails.
+   */
+  private int readByte() throws IOException
+  {
+    if(position == limit) {
+      fill(1);
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Ensure requested bytes count is available on bytes buffer, reading from input stream as necessary. Bytes not yet
+   * decoded are moved to buffer start. Requested count should not exceed buffer size; buffer is never enlarged.
+   *
+   * @param count bytes count, at most buffer size.
+   * @throws IOException if input stream read fails.
+   * @throws EOFException if input stream ends before requested bytes count.
+   */
+  private void fill(int count) throws IOException
+  {
+    int available = limit - position;
+    if(available >= count) {
+      return;
+    }
+    System.arraycopy(buffer, position, buffer, 0, available);
+    position = 0;
+    limit = available;
+    while(limit < count) {
+      int read = stream.read(buffer, limit, buffer.length - limit);
+      if(read == -1) {
+        throw new EOFException("Binary stream ended before value completion.");
+      }
+      limit += read;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package js.tools.commons.json;
+
+/**
+ * Value tags for binary encoding, see {@link BinaryJSON}. Every value from binary stream starts with a tag byte that
+ * describes how value payload is encoded. Tags are package constants used by {@link BinaryWriter} and
+ * {@link BinaryParser}; this class has no instances.
+ * <p>
+ * Payload encoding, per tag:
+ * <ul>
+ * <li>{@link #NULL}, {@link #FALSE}, {@link #TRUE} - no payload,
+ * <li>{@link #INT} - zigzag encoded variable length integer,
+ * <li>{@link #FLOAT} - 4 bytes IEEE 754 bits, big endian,
+ * <li>{@link #DOUBLE} - 8 bytes IEEE 754 bits, big endian,
+ * <li>{@link #NUMBER} - length prefixed UTF-8 decimal string, for numbers that do not fit a long or a double,
+ * <li>{@link #STRING} - length prefixed UTF-8 string, length being bytes count,
+ * <li>{@link #DATE} - zigzag encoded variable length epoch milliseconds,
+ * <li>{@link #ARRAY} - variable length items count followed by items,
+ * <li>{@link #OBJECT} - variable length fields count followed by field name reference and field value pairs,
+ * <li>{@link #MAP} - variable length entries count followed by key and value pairs,
+ * <li>{@link #NAME} - string table reference, used for map string keys.
+ * </ul>
+ * <p>
+ * Lengths and counts are unsigned variable length integers with 7 bits per byte, least significant group first, and
+ * high bit set on all bytes but the last. A name reference is a variable length integer: zero means a new name follows,
+ * as length prefixed UTF-8 string, and is appended to string table; a positive value is the 1-based index of a name
+ * already present on string table.
+ *
+ * @author Iulian Rotaru
+ */
+final class BinaryTag
+{
+  /** Binary encoding version, the first byte of every binary stream. */
+  static final int VERSION = 1;
+
+  static final int NULL = 0;
+  static final int FALSE = 1;
+  static final int TRUE = 2;
+  static final int INT = 3;
+  static final int FLOAT = 4;
+  static final int DOUBLE = 5;
+  static final int NUMBER = 6;
+  static final int STRING = 7;
+  static final int DATE = 8;
+  static final int ARRAY = 9;
+  static final int OBJECT = 10;
+  static final int MAP = 11;
+  static final int NAME = 12;
+
+  /** Prevent default constructor synthesis. */
+  private BinaryTag()
+  {
+  }
+}
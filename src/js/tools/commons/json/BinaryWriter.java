@@ -0,0 +1,504 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import js.tools.commons.util.Types;
+
+/**
+ * Binary counterpart of {@link Serializer}. Values graph is traversed in the same order and with the same rules as JSON
+ * serializer - objects fields resolved by {@link ClassSerializer}, enumerations and scalars with registered converter
+ * written as strings, circular dependencies replaced by null - but values are encoded as tagged binary values, see
+ * {@link BinaryTag}. Object field names are written once per stream and referenced by string table index afterwards.
+ * <p>
+ * This class is not reusable and not thread safe; create a new writer for every value to serialize. Bytes are buffered
+ * internally and flushed to output stream when serialization completes; output stream is left opened.
+ *
+ * @author Iulian Rotaru
+ */
+final class BinaryWriter
+{
+  /** Bytes buffer size. */
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Maximum number of bytes for a variable length encoded long. */
+  private static final int MAX_VARINT_BYTES = 10;
+
+  /** Wrapped output stream. */
+  private final OutputStream stream;
+
+  /** Bytes buffer. */
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+
+  /** Number of bytes from {@link #buffer} not yet written to output stream. */
+  private int position;
+
+  /** String table, names already written to stream mapped to their index. */
+  private final Map<String, Integer> names = new HashMap<String, Integer>();
+
+  /** Aggregated values on current serialization path, see {@link Serializer}. Null if cycle tracking is disabled. */
+  private Set<Object> visitedValues = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+  /**
+   * Create binary writer for given output stream.
+   *
+   * @param stream output stream.
+   */
+  BinaryWriter(OutputStream stream)
+  {
+    this.stream = stream;
+  }
+
+  /**
+   * Disable circular dependencies tracking, see {@link Serializer#disableCycleTracking()}.
+   */
+  void disableCycleTracking()
+  {
+    visitedValues = null;
+  }
+
+  /**
+   * Write encoding version followed by given value then flush output stream.
+   *
+   * @param value primitive or aggregated value, null accepted.
+   * @throws IOException if output stream write fails.
+   */
+  void serialize(Object value) throws IOException
+  {
+    writeByte(BinaryTag.VERSION);
+    write(value);
+    stream.write(buffer, 0, position);
+    position = 0;
+    stream.flush();
+  }
+
+  /**
+   * Write tagged value. Dispatching logic mirrors {@link Serializer#serialize(Object)}.
+   *
+   * @param value primitive or aggregated value, null accepted.
+   * @throws IOException if output stream write fails.
+   */
+  private void write(Object value) throws IOException
+  {
+    if(value == null) {
+      writeByte(BinaryTag.NULL);
+      return;
+    }
+
+    if(value instanceof Boolean) {
+      writeByte((Boolean)value ? BinaryTag.TRUE : BinaryTag.FALSE);
+      return;
+    }
+
+    if(Types.isNumber(value)) {
+      writeNumber(value);
+      return;
+    }
+
+    if(value instanceof String) {
+      writeByte(BinaryTag.STRING);
+      writeString((String)value);
+      return;
+    }
+
+    if(value instanceof Date) {
+      writeByte(BinaryTag.DATE);
+      writeLong(((Date)value).getTime());
+      return;
+    }
+
+    if(value instanceof Enum) {
+      writeEnum((Enum<?>)value);
+      return;
+    }
+
+    if(value instanceof Character) {
+      writeByte(BinaryTag.STRING);
+      writeString(value.toString());
+      return;
+    }
+
+    ScalarConverter<Object> converter = Converter.getRegisteredConverter(value.getClass());
+    if(converter != null) {
+      writeByte(BinaryTag.STRING);
+      writeString(converter.asString(value));
+      return;
+    }
+
+    if(visitedValues != null && !visitedValues.add(value)) {
+      writeByte(BinaryTag.NULL);
+      return;
+    }
+
+    try {
+      if(value.getClass().isArray()) {
+        writeArray(value);
+        return;
+      }
+
+      if(value instanceof Collection) {
+        writeCollection((Collection<?>)value);
+        return;
+      }
+
+      if(value instanceof Map) {
+        writeMap((Map<?, ?>)value);
+        return;
+      }
+
+      writeObject(value);
+    }
+    finally {
+      if(visitedValues != null) {
+        visitedValues.remove(value);
+      }
+    }
+  }
+
+  /**
+   * Write tagged number. Integer types are written as variable length integers, floating point types as IEEE 754 bits
+   * and other numbers, e.g. big decimals, as decimal strings.
+   *
+   * @param value numeric value.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeNumber(Object value) throws IOException
+  {
+    if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      writeByte(BinaryTag.INT);
+      writeLong(((Number)value).longValue());
+      return;
+    }
+    if(value instanceof Double) {
+      writeDouble((Double)value);
+      return;
+    }
+    if(value instanceof Float) {
+      writeFloat((Float)value);
+      return;
+    }
+    writeByte(BinaryTag.NUMBER);
+    writeString(value.toString());
+  }
+
+  /**
+   * Write enumeration constant as string, using the same converter as {@link Serializer}.
+   *
+   * @param value enumeration constant.
+   * @throws IOException if output stream write fails.
+   */
+  @SuppressWarnings("unchecked")
+  private void writeEnum(Enum<?> value) throws IOException
+  {
+    ScalarConverter<Object> converter = (ScalarConverter<Object>)Converter.getConverter(value.getDeclaringClass());
+    writeByte(BinaryTag.STRING);
+    writeString(converter.asString(value));
+  }
+
+  /**
+   * Write array items count followed by tagged items. Primitive arrays items are written without boxing.
+   *
+   * @param value array instance.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeArray(Object value) throws IOException
+  {
+    writeByte(BinaryTag.ARRAY);
+    int length = Array.getLength(value);
+    writeVarint(length);
+
+    if(value instanceof Object[]) {
+      for(Object item : (Object[])value) {
+        write(item);
+      }
+    }
+    else if(value instanceof int[]) {
+      for(int item : (int[])value) {
+        writeByte(BinaryTag.INT);
+        writeLong(item);
+      }
+    }
+    else if(value instanceof long[]) {
+      for(long item : (long[])value) {
+        writeByte(BinaryTag.INT);
+        writeLong(item);
+      }
+    }
+    else if(value instanceof double[]) {
+      for(double item : (double[])value) {
+        writeDouble(item);
+      }
+    }
+    else if(value instanceof float[]) {
+      for(float item : (float[])value) {
+        writeFloat(item);
+      }
+    }
+    else if(value instanceof boolean[]) {
+      for(boolean item : (boolean[])value) {
+        writeByte(item ? BinaryTag.TRUE : BinaryTag.FALSE);
+      }
+    }
+    else {
+      // short, byte and char arrays
+      for(int i = 0; i < length; ++i) {
+        write(Array.get(value, i));
+      }
+    }
+  }
+
+  /**
+   * Write collection size followed by tagged items.
+   *
+   * @param collection collection instance.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeCollection(Collection<?> collection) throws IOException
+  {
+    writeByte(BinaryTag.ARRAY);
+    writeVarint(collection.size());
+    for(Object item : collection) {
+      write(item);
+    }
+  }
+
+  /**
+   * Write map size followed by key and value pairs. String keys are written as string table references.
+   *
+   * @param map map instance.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeMap(Map<?, ?> map) throws IOException
+  {
+    writeByte(BinaryTag.MAP);
+    writeVarint(map.size());
+    for(Map.Entry<?, ?> entry : map.entrySet()) {
+      Object key = entry.getKey();
+      if(key instanceof String) {
+        writeByte(BinaryTag.NAME);
+        writeName((String)key);
+      }
+      else {
+        write(key);
+      }
+      write(entry.getValue());
+    }
+  }
+
+  /**
+   * Write object fields count followed by field name reference and tagged field value pairs. Fields are resolved by
+   * {@link ClassSerializer} and primitive fields are read without boxing.
+   *
+   * @param value object instance.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeObject(Object value) throws IOException
+  {
+    ClassSerializer.FieldSerializer[] fields = ClassSerializer.get(value.getClass()).getFields();
+    writeByte(BinaryTag.OBJECT);
+    writeVarint(fields.length);
+
+    for(ClassSerializer.FieldSerializer field : fields) {
+      writeName(field.getName());
+      switch(field.getKind()) {
+      case ClassSerializer.KIND_BOOLEAN:
+        writeByte(field.getBoolean(value) ? BinaryTag.TRUE : BinaryTag.FALSE);
+        break;
+
+      case ClassSerializer.KIND_INT:
+        writeByte(BinaryTag.INT);
+        writeLong(field.getInt(value));
+        break;
+
+      case ClassSerializer.KIND_LONG:
+        writeByte(BinaryTag.INT);
+        writeLong(field.getLong(value));
+        break;
+
+      case ClassSerializer.KIND_FLOAT:
+        writeFloat(field.getFloat(value));
+        break;
+
+      case ClassSerializer.KIND_DOUBLE:
+        writeDouble(field.getDouble(value));
+        break;
+
+      default:
+        // string fields are handled by generic writer too
+        write(field.get(value));
+      }
+    }
+  }
+
+  /**
+   * Write name reference. Name is written in full on first occurrence and added to string table; next occurrences are
+   * written as string table index.
+   *
+   * @param name name to write.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeName(String name) throws IOException
+  {
+    Integer index = names.get(name);
+    if(index != null) {
+      writeVarint(index + 1);
+      return;
+    }
+    names.put(name, names.size());
+    writeVarint(0);
+    writeString(name);
+  }
+
+  /**
+   * Write tagged float value.
+   *
+   * @param value float value.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeFloat(float value) throws IOException
+  {
+    ensureCapacity(5);
+    buffer[position++] = BinaryTag.FLOAT;
+    int bits = Float.floatToIntBits(value);
+    for(int shift = 24; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte)(bits >>> shift);
+    }
+  }
+
+  /**
+   * Write tagged double value.
+   *
+   * @param value double value.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeDouble(double value) throws IOException
+  {
+    ensureCapacity(9);
+    buffer[position++] = BinaryTag.DOUBLE;
+    long bits = Double.doubleToLongBits(value);
+    for(int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte)(bits >>> shift);
+    }
+  }
+
+  /**
+   * Write signed long value, zigzag encoded so that small negative values have short encoding too.
+   *
+   * @param value signed value.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeLong(long value) throws IOException
+  {
+    writeVarint((value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Write unsigned variable length integer, 7 bits per byte, least significant group first.
+   *
+   * @param value value, treated as unsigned.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeVarint(long value) throws IOException
+  {
+    ensureCapacity(MAX_VARINT_BYTES);
+    while((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte)((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte)value;
+  }
+
+  /**
+   * Write string as UTF-8 bytes count followed by UTF-8 bytes. Characters are encoded directly into bytes buffer;
+   * unpaired surrogates are replaced by question mark, the same as standard UTF-8 encoder.
+   *
+   * @param string string to write.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeString(String string) throws IOException
+  {
+    int length = string.length();
+    int bytesCount = 0;
+    for(int i = 0; i < length; ++i) {
+      char c = string.charAt(i);
+      if(c < 0x80) {
+        ++bytesCount;
+      }
+      else if(c < 0x800) {
+        bytesCount += 2;
+      }
+      else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+        bytesCount += 4;
+        ++i;
+      }
+      else if(Character.isSurrogate(c)) {
+        ++bytesCount;
+      }
+      else {
+        bytesCount += 3;
+      }
+    }
+    writeVarint(bytesCount);
+
+    for(int i = 0; i < length; ++i) {
+      ensureCapacity(4);
+      char c = string.charAt(i);
+      if(c < 0x80) {
+        buffer[position++] = (byte)c;
+      }
+      else if(c < 0x800) {
+        buffer[position++] = (byte)(0xC0 | (c >> 6));
+        buffer[position++] = (byte)(0x80 | (c & 0x3F));
+      }
+      else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, string.charAt(++i));
+        buffer[position++] = (byte)(0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte)(0x80 | (codePoint & 0x3F));
+      }
+      else if(Character.isSurrogate(c)) {
+        buffer[position++] = '?';
+      }
+      else {
+        buffer[position++] = (byte)(0xE0 | (c >> 12));
+        buffer[position++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte)(0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  /**
+   * Write a single byte, usually a value tag.
+   *
+   * @param value byte value.
+   * @throws IOException if output stream write fails.
+   */
+  private void writeByte(int value) throws IOException
+  {
+    ensureCapacity(1);
+    buffer[position++] = (byte)value;
+  }
+
+  /**
+   * Ensure bytes buffer has room for requested bytes count, writing buffered bytes to output stream if necessary.
+   *
+   * @param count bytes count, less than buffer size.
+   * @throws IOException if output stream write fails.
+   */
+  private void ensureCapacity(int count) throws IOException
+  {
+    if(position + count > buffer.length) {
+      stream.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+}
@@ -1,14 +1,18 @@
 package js.tools.commons.json;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 
 /**
  * JSON stream character reader with unread and error reporter. This helper class is used by {@link Lexer} to traverse JSON
- * characters stream, one character at a time. CharReader takes care to update {@link ErrorReporter} while retrieve characters.
- * 
+ * characters stream. CharReader takes care to update {@link ErrorReporter} while retrieve characters.
+ * <p>
+ * Characters are read in bulk into an internal buffer window that is refilled when exhausted; wrapped reader is not
+ * required to be buffered. Besides one character at a time retrieval this class supplies scanners that search string and
+ * primitive value boundaries directly inside buffer window, see {@link #collectString(LexerValueBuilder)} and
+ * {@link #collectPrimitive(LexerValueBuilder, boolean)}.
+ *
  * @author Iulian Rotaru
  * @since 1.0.2
  */
@@ -16,49 +20,53 @@ final class CharReader implements Closeable {
 	/** Mark value for undefined character. */
 	private static final char UNDEFINED = 0;
 
+	/** Default size for characters buffer window. */
+	private static final int BUFFER_SIZE = 8192;
+
 	/** Wrapped JSON characters stream. */
 	private Reader reader;
 
-	/** Last unread character or undefined if {@link #unread(char)} was not called. */
-	private char unreadChar = UNDEFINED;
+	/** Characters buffer window. */
+	private final char[] buffer;
+
+	/** Index of the next character to read from {@link #buffer}. */
+	private int position;
+
+	/** Number of valid characters from {@link #buffer}. */
+	private int limit;
 
 	/** True if characters stream reached its end. */
 	private boolean eof;
 
+	/** Value builder currently viewing characters from {@link #buffer}, detached before buffer refill. */
+	private LexerValueBuilder attached;
+
 	/**
 	 * Construct character reader instance.
-	 * 
+	 *
 	 * @param reader wrapped JSON characters stream.
 	 */
 	CharReader(Reader reader) {
-		this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+		this.reader = reader;
+		this.buffer = new char[BUFFER_SIZE];
 	}
 
 	/**
 	 * Retrieve next character from JSON characters stream or undefined if EOF reached.
-	 * 
+	 *
 	 * @return next character or undefined if EOF reached.
 	 * @throws IOException if read operation fails.
 	 */
 	char next() throws IOException {
-		if (unreadChar != UNDEFINED) {
-			char c = unreadChar;
-			this.unreadChar = UNDEFINED;
-			return c;
-		}
-
-		int i = reader.read();
-		if (i == -1) {
-			eof = true;
+		if (position == limit && !fill()) {
 			return UNDEFINED;
 		}
-		char c = (char) i;
-		return c;
+		return buffer[position++];
 	}
 
 	/**
 	 * Retrieve next character throwing exception if EOF.
-	 * 
+	 *
 	 * @return next character from JSON characters stream.
 	 * @throws IOException if read operation fails.
 	 */
@@ -72,7 +80,7 @@ final class CharReader implements Closeable {
 
 	/**
 	 * Retrieve next not white space character.
-	 * 
+	 *
 	 * @return next not white space character.
 	 * @throws IOException if read operation fails.
 	 */
@@ -83,29 +91,103 @@ final class CharReader implements Closeable {
 		return c;
 	}
 
+	/**
+	 * Advance till first not white space character, leaving it unread. Characters are scanned directly into buffer window.
+	 *
+	 * @throws IOException if read operation fails.
+	 */
 	public void skipWhiteSpaces() throws IOException {
-		char c = 0;
-		do {
-			c = next();
-		} while (Character.isWhitespace(c));
-		if (c != UNDEFINED) {
-			unread(c);
+		for (;;) {
+			while (position < limit) {
+				if (!Character.isWhitespace(buffer[position])) {
+					return;
+				}
+				++position;
+			}
+			if (!fill()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Collect quoted string value into given builder. This method should be invoked after opening quotation mark was read;
+	 * it scans buffer window for closing quotation mark, taking care of escaped characters, and append found characters in
+	 * bulk. On return closing quotation mark is consumed.
+	 * <p>
+	 * Given builder may keep a view on buffer window; it is detached when buffer window is refilled.
+	 *
+	 * @param builder value builder to append string characters to.
+	 * @throws IOException if read operation fails.
+	 * @throws JsonException if stream ends before closing quotation mark.
+	 */
+	void collectString(LexerValueBuilder builder) throws IOException {
+		attached = builder;
+		boolean escape = false;
+		for (;;) {
+			if (position == limit && !fill()) {
+				throw new JsonException("Cannot retrieve required character because of premature stream end.");
+			}
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position];
+				if (escape) {
+					escape = false;
+				} else if (c == '\\') {
+					escape = true;
+				} else if (c == '"') {
+					builder.append(buffer, start, position - start);
+					++position;
+					return;
+				}
+				++position;
+			}
+			builder.append(buffer, start, position - start);
+		}
+	}
+
+	/**
+	 * Collect not quoted, primitive value characters into given builder. Scanning stops on white space, on stream end or,
+	 * if <code>delimiters</code> flag is true, on right brace, right square, colon and comma. Character that stops scanning
+	 * is left unread. Given builder may keep a view on buffer window, see {@link #collectString(LexerValueBuilder)}.
+	 *
+	 * @param builder value builder to append primitive value characters to,
+	 * @param delimiters if true JSON structural characters end primitive value.
+	 * @throws IOException if read operation fails.
+	 */
+	void collectPrimitive(LexerValueBuilder builder, boolean delimiters) throws IOException {
+		attached = builder;
+		for (;;) {
+			if (position == limit && !fill()) {
+				return;
+			}
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position];
+				if (Character.isWhitespace(c) || (delimiters && isDelimiter(c))) {
+					builder.append(buffer, start, position - start);
+					return;
+				}
+				++position;
+			}
+			builder.append(buffer, start, position - start);
 		}
 	}
 
 	/**
 	 * Put given character back to this character reader. Next {@link #next()} or {@link #require()} is guaranteed to return
-	 * this pushed back character.
-	 * 
+	 * this pushed back character. This method should be called only with the last character retrieved from this reader.
+	 *
 	 * @param c char to put back to reader.
 	 */
 	void unread(char c) {
-		unreadChar = c;
+		assert position > 0 && buffer[position - 1] == c;
+		--position;
 	}
 
 	/**
 	 * Test if character reader reaches EOF.
-	 * 
+	 *
 	 * @return true if this character reader reaches EOF.
 	 */
 	boolean eof() {
@@ -116,4 +198,43 @@ final class CharReader implements Closeable {
 	public void close() throws IOException {
 		reader.close();
 	}
+
+	/**
+	 * Refill buffer window from wrapped characters stream. Returns false and set {@link #eof} flag if stream has no more
+	 * characters. Value builder viewing buffer window, if any, is detached before buffer is overwritten.
+	 *
+	 * @return true if buffer window has characters available.
+	 * @throws IOException if read operation fails.
+	 */
+	private boolean fill() throws IOException {
+		if (attached != null) {
+			attached.detach();
+		}
+		if (eof) {
+			return false;
+		}
+		int count;
+		do {
+			count = reader.read(buffer, 0, buffer.length);
+		} while (count == 0);
+		if (count == -1) {
+			eof = true;
+			position = 0;
+			limit = 0;
+			return false;
+		}
+		position = 0;
+		limit = count;
+		return true;
+	}
+
+	/**
+	 * Test if character is a JSON structural character that ends a not quoted value.
+	 *
+	 * @param c character to test.
+	 * @return true if character ends a not quoted value.
+	 */
+	private static boolean isDelimiter(char c) {
+		return c == '}' || c == ']' || c == ':' || c == ',';
+	}
 }
@@ -0,0 +1,210 @@
+package js.tools.commons.json;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import js.tools.commons.BugError;
+import js.tools.commons.util.Strings;
+
+/**
+ * Binding plan for a parsed object class. Reflective lookups needed to bind JSON properties to object fields are
+ * resolved once per class and cached: field name to field binding, field generic type and the raw type used by
+ * {@link Converter}. Parsing the same class again does not perform any reflection lookup.
+ * <p>
+ * Property names from JSON stream are looked up directly, as character sequences, into an open addressing hash table
+ * of declared field names; no string is created for property names equal to field names. Other property names
+ * resolved to a field are cached, so that {@link Strings#toMemberName(String)} is not invoked more than once for a
+ * given property name. Property names without related field are not cached since they come from JSON stream and are
+ * not bounded; for the same reason properties cache size is limited to {@link #MAX_PROPERTIES}.
+ *
+ * @author Iulian Rotaru
+ */
+final class ClassBinding
+{
+  /** Binding plans cache, one per class. */
+  private static final ClassValue<ClassBinding> BINDINGS = new ClassValue<ClassBinding>()
+  {
+    @Override
+    protected ClassBinding computeValue(Class<?> clazz)
+    {
+      return new ClassBinding(clazz);
+    }
+  };
+
+  /**
+   * Get binding plan for requested class, creating it on first use.
+   *
+   * @param clazz object class.
+   * @return class binding plan.
+   */
+  static ClassBinding get(Class<?> clazz)
+  {
+    return BINDINGS.get(clazz);
+  }
+
+  /** Maximum number of property names cached per class. */
+  private static final int MAX_PROPERTIES = 256;
+
+  /** Field bindings for all fields declared by bound class, mapped by field name. */
+  private final Map<String, FieldBinding> fields;
+
+  /** Declared field names stored in open addressing hash table, indexed by field name hash code. */
+  private final String[] names;
+
+  /** Field bindings stored in the same slots as related field name from {@link #names}. */
+  private final FieldBinding[] bindings;
+
+  /** Field bindings resolved by JSON property name, limited to {@link #MAX_PROPERTIES} entries. */
+  private final ConcurrentMap<String, FieldBinding> properties;
+
+  /**
+   * Create binding plan for given class and resolve all its declared fields.
+   *
+   * @param clazz bound class.
+   */
+  private ClassBinding(Class<?> clazz)
+  {
+    Field[] declaredFields = clazz.getDeclaredFields();
+    this.fields = new HashMap<String, FieldBinding>(declaredFields.length * 2);
+    int capacity = Integer.highestOneBit(Math.max(declaredFields.length, 1) * 2) * 2;
+    this.names = new String[capacity];
+    this.bindings = new FieldBinding[capacity];
+    for(Field field : declaredFields) {
+      FieldBinding binding = new FieldBinding(field);
+      fields.put(field.getName(), binding);
+
+      int slot = field.getName().hashCode() & (capacity - 1);
+      while(names[slot] != null) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      names[slot] = field.getName();
+      bindings[slot] = binding;
+    }
+    this.properties = new ConcurrentHashMap<String, FieldBinding>(declaredFields.length * 2);
+  }
+
+  /**
+   * Get binding for the field related to named JSON property or null if bound class has no such field. Property name
+   * is first searched as it is into declared field names; if not found it is converted to member name as by
+   * {@link Strings#toMemberName(String)}.
+   * <p>
+   * Property name character sequence is not retained; it is safe to pass a lexer value that is valid only till next
+   * token.
+   *
+   * @param propertyName JSON property name, null accepted.
+   * @return field binding or null.
+   */
+  FieldBinding getField(CharSequence propertyName)
+  {
+    if(propertyName == null) {
+      return null;
+    }
+
+    int hashCode = 0;
+    int length = propertyName.length();
+    for(int i = 0; i < length; ++i) {
+      hashCode = 31 * hashCode + propertyName.charAt(i);
+    }
+    int mask = names.length - 1;
+    for(int slot = hashCode & mask; names[slot] != null; slot = (slot + 1) & mask) {
+      if(names[slot].contentEquals(propertyName)) {
+        return bindings[slot];
+      }
+    }
+    return getPropertyField(propertyName.toString());
+  }
+
+  /**
+   * Get binding for the field related to named JSON property, using properties cache. Only property names resolved to
+   * a field are cached and only while cache size is below {@link #MAX_PROPERTIES}.
+   *
+   * @param propertyName JSON property name.
+   * @return field binding or null.
+   */
+  private FieldBinding getPropertyField(String propertyName)
+  {
+    FieldBinding field = properties.get(propertyName);
+    if(field == null) {
+      field = fields.get(Strings.toMemberName(propertyName));
+      if(field != null && properties.size() < MAX_PROPERTIES) {
+        properties.putIfAbsent(propertyName, field);
+      }
+    }
+    return field;
+  }
+
+  /**
+   * Get the number of cached property names. Used by unit tests.
+   *
+   * @return properties cache size.
+   */
+  int getPropertiesCount()
+  {
+    return properties.size();
+  }
+
+  /**
+   * Binding for a single object field. Field accessibility is forced once, at binding creation.
+   *
+   * @author Iulian Rotaru
+   */
+  static final class FieldBinding
+  {
+    /** Reflective field, with accessibility forced. */
+    private final Field field;
+
+    /** Field raw type, used for value conversion. */
+    private final Class<?> type;
+
+    /** Field generic type, used to parse nested values. */
+    private final Type genericType;
+
+    /**
+     * Create binding for given field.
+     *
+     * @param field reflective field.
+     */
+    private FieldBinding(Field field)
+    {
+      field.setAccessible(true);
+      this.field = field;
+      this.type = field.getType();
+      this.genericType = field.getGenericType();
+    }
+
+    /**
+     * Get field generic type.
+     *
+     * @return field generic type.
+     * @see #genericType
+     */
+    Type getGenericType()
+    {
+      return genericType;
+    }
+
+    /**
+     * Convert value to field type and set it on given instance. Null value is ignored if field is primitive.
+     *
+     * @param instance object instance,
+     * @param value field value, null accepted.
+     * @throws IllegalArgumentException if value cannot be converted to field type.
+     */
+    void set(Object instance, Object value) throws IllegalArgumentException
+    {
+      if(value == null && type.isPrimitive()) {
+        return;
+      }
+      try {
+        field.set(instance, Converter.toObject(value, type));
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import js.tools.commons.BugError;
+
+/**
+ * Serialization plan for an object class, compiled once per class and cached. Fields to serialize are resolved in
+ * {@link Serializer} order - declared fields of the class followed by declared fields of superclasses from the same
+ * package, less static, transient and synthetic fields - with accessibility forced and JSON property prefix, that is,
+ * escaped <code>"name":</code>, prepared. Every field also has a kind that selects the field writer; primitive fields
+ * are read without boxing.
+ *
+ * @author Iulian Rotaru
+ */
+final class ClassSerializer
+{
+  /** Serialization plans cache, one per class. */
+  private static final ClassValue<ClassSerializer> SERIALIZERS = new ClassValue<ClassSerializer>()
+  {
+    @Override
+    protected ClassSerializer computeValue(Class<?> clazz)
+    {
+      return new ClassSerializer(clazz);
+    }
+  };
+
+  /**
+   * Get serialization plan for requested class, creating it on first use.
+   *
+   * @param clazz object class.
+   * @return class serialization plan.
+   */
+  static ClassSerializer get(Class<?> clazz)
+  {
+    return SERIALIZERS.get(clazz);
+  }
+
+  /** Field kinds, used to select field writer. */
+  static final int KIND_OBJECT = 0;
+  static final int KIND_STRING = 1;
+  static final int KIND_BOOLEAN = 2;
+  static final int KIND_INT = 3;
+  static final int KIND_LONG = 4;
+  static final int KIND_FLOAT = 5;
+  static final int KIND_DOUBLE = 6;
+
+  /** Field serializers in serialization order. */
+  private final FieldSerializer[] fields;
+
+  /**
+   * Compile serialization plan for given class.
+   *
+   * @param clazz object class.
+   */
+  private ClassSerializer(Class<?> clazz)
+  {
+    List<FieldSerializer> fields = new ArrayList<FieldSerializer>();
+    addFields(fields, clazz);
+
+    // include super classes fields as long as they are in the same package
+    Package classPackage = clazz.getPackage();
+    Class<?> superclass = clazz.getSuperclass();
+    while(superclass != null && classPackage != null && classPackage.equals(superclass.getPackage())) {
+      addFields(fields, superclass);
+      superclass = superclass.getSuperclass();
+    }
+    this.fields = fields.toArray(new FieldSerializer[fields.size()]);
+  }
+
+  /**
+   * Add serializers for serializable fields declared by given class.
+   *
+   * @param fields field serializers list,
+   * @param clazz class declaring fields.
+   */
+  private static void addFields(List<FieldSerializer> fields, Class<?> clazz)
+  {
+    for(Field field : clazz.getDeclaredFields()) {
+      if(field.isSynthetic()) {
+        // do not include synthetic fields like outer 'this' for anonymous inner classes
+        continue;
+      }
+      int m = field.getModifiers();
+      if(Modifier.isStatic(m) || Modifier.isTransient(m)) {
+        continue;
+      }
+      fields.add(new FieldSerializer(field));
+    }
+  }
+
+  /**
+   * Get field serializers in serialization order.
+   *
+   * @return field serializers.
+   * @see #fields
+   */
+  FieldSerializer[] getFields()
+  {
+    return fields;
+  }
+
+  /**
+   * Serializer for a single object field.
+   *
+   * @author Iulian Rotaru
+   */
+  static final class FieldSerializer
+  {
+    /** Reflective field, with accessibility forced. */
+    private final Field field;
+
+    /** Field name. */
+    private final String name;
+
+    /** Escaped field name, in quotation marks and followed by colon. */
+    private final char[] prefix;
+
+    /** Field kind, one of <code>KIND_</code> constants. */
+    private final int kind;
+
+    /**
+     * Create serializer for given field.
+     *
+     * @param field reflective field.
+     */
+    private FieldSerializer(Field field)
+    {
+      field.setAccessible(true);
+      this.field = field;
+      this.name = field.getName();
+      this.prefix = prefix(name);
+      this.kind = kind(field.getType());
+    }
+
+    /**
+     * Get field name.
+     *
+     * @return field name.
+     * @see #name
+     */
+    String getName()
+    {
+      return name;
+    }
+
+    /**
+     * Get property prefix, that is, escaped field name in quotation marks followed by colon.
+     *
+     * @return property prefix.
+     * @see #prefix
+     */
+    char[] getPrefix()
+    {
+      return prefix;
+    }
+
+    /**
+     * Get field kind.
+     *
+     * @return field kind.
+     * @see #kind
+     */
+    int getKind()
+    {
+      return kind;
+    }
+
+    /**
+     * Get field value from given instance. In a best effort manner, returns null if field getter fails.
+     *
+     * @param instance object instance.
+     * @return field value, possible null.
+     */
+    Object get(Object instance)
+    {
+      try {
+        return field.get(instance);
+      }
+      catch(IllegalArgumentException e) {
+        throw new BugError("Value object |%s| is not an instance.", instance.getClass());
+      }
+      catch(IllegalAccessException ignore) {
+        throw new RuntimeException("Field with accesibily set to true throws illegal access.");
+      }
+      catch(RuntimeException e) {
+        // best effort: on any error returns null
+      }
+      return null;
+    }
+
+    /**
+     * Get boolean field value from given instance.
+     *
+     * @param instance object instance.
+     * @return field value.
+     */
+    boolean getBoolean(Object instance)
+    {
+      try {
+        return field.getBoolean(instance);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+
+    /**
+     * Get byte, short or int field value from given instance.
+     *
+     * @param instance object instance.
+     * @return field value.
+     */
+    int getInt(Object instance)
+    {
+      try {
+        return field.getInt(instance);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+
+    /**
+     * Get long field value from given instance.
+     *
+     * @param instance object instance.
+     * @return field value.
+     */
+    long getLong(Object instance)
+    {
+      try {
+        return field.getLong(instance);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+
+    /**
+     * Get float field value from given instance.
+     *
+     * @param instance object instance.
+     * @return field value.
+     */
+    float getFloat(Object instance)
+    {
+      try {
+        return field.getFloat(instance);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+
+    /**
+     * Get double field value from given instance.
+     *
+     * @param instance object instance.
+     * @return field value.
+     */
+    double getDouble(Object instance)
+    {
+      try {
+        return field.getDouble(instance);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+    }
+
+    /**
+     * Escape field name and add quotation marks and colon.
+     *
+     * @param name field name.
+     * @return property prefix.
+     */
+    private static char[] prefix(String name)
+    {
+      StringWriter writer = new StringWriter();
+      try {
+        new Serializer(writer).writeString(name);
+      }
+      catch(IOException e) {
+        // string writer does not throw IO exceptions
+        throw new BugError(e);
+      }
+      writer.write(':');
+      return writer.toString().toCharArray();
+    }
+
+    /**
+     * Get field kind for given field type.
+     *
+     * @param type field type.
+     * @return field kind.
+     */
+    private static int kind(Class<?> type)
+    {
+      if(type == String.class) {
+        return KIND_STRING;
+      }
+      if(type == boolean.class) {
+        return KIND_BOOLEAN;
+      }
+      if(type == int.class || type == short.class || type == byte.class) {
+        return KIND_INT;
+      }
+      if(type == long.class) {
+        return KIND_LONG;
+      }
+      if(type == float.class) {
+        return KIND_FLOAT;
+      }
+      if(type == double.class) {
+        return KIND_DOUBLE;
+      }
+      return KIND_OBJECT;
+    }
+  }
+}
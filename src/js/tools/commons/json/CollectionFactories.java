@@ -0,0 +1,224 @@
+package js.tools.commons.json;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import js.tools.commons.BugError;
+import js.tools.commons.util.Params;
+
+/**
+ * Registry of collection and map factories used by JSON parser, mapped by declared class. There are built-in factories
+ * for standard collection and map interfaces - mapped to default implementations, e.g. <code>List</code> to
+ * <code>ArrayList</code> and <code>Map</code> to <code>HashMap</code> - and for common implementations, including
+ * <code>LinkedHashMap</code>, <code>ConcurrentHashMap</code>, <code>ArrayDeque</code>, <code>EnumMap</code> and
+ * <code>EnumSet</code>. Applications can register factories for other classes or replace built-in ones.
+ * <p>
+ * Built-in factories invoke implementation constructor through a method handle resolved once, when factory is created;
+ * if expected size is known and implementation has a capacity constructor, capacity is computed so that collection or
+ * map is not resized while parser adds items.
+ *
+ * @author Iulian Rotaru
+ */
+public final class CollectionFactories
+{
+  /** Collection and map factories mapped by declared class. */
+  private static final ConcurrentMap<Class<?>, CollectionFactory> FACTORIES = new ConcurrentHashMap<Class<?>, CollectionFactory>();
+  static {
+    CollectionFactory vector = new ConstructorFactory(Vector.class, false);
+    FACTORIES.put(Collection.class, vector);
+    FACTORIES.put(Vector.class, vector);
+    CollectionFactory arrayList = new ConstructorFactory(ArrayList.class, false);
+    FACTORIES.put(List.class, arrayList);
+    FACTORIES.put(ArrayList.class, arrayList);
+    FACTORIES.put(LinkedList.class, new ConstructorFactory(LinkedList.class, false));
+    CollectionFactory hashSet = new ConstructorFactory(HashSet.class, true);
+    FACTORIES.put(Set.class, hashSet);
+    FACTORIES.put(HashSet.class, hashSet);
+    FACTORIES.put(LinkedHashSet.class, new ConstructorFactory(LinkedHashSet.class, true));
+    CollectionFactory treeSet = new ConstructorFactory(TreeSet.class, false);
+    FACTORIES.put(SortedSet.class, treeSet);
+    FACTORIES.put(TreeSet.class, treeSet);
+    CollectionFactory arrayDeque = new ConstructorFactory(ArrayDeque.class, false);
+    FACTORIES.put(Queue.class, arrayDeque);
+    FACTORIES.put(Deque.class, arrayDeque);
+    FACTORIES.put(ArrayDeque.class, arrayDeque);
+    FACTORIES.put(EnumSet.class, new EnumSetFactory());
+
+    CollectionFactory hashMap = new ConstructorFactory(HashMap.class, true);
+    FACTORIES.put(Map.class, hashMap);
+    FACTORIES.put(HashMap.class, hashMap);
+    FACTORIES.put(LinkedHashMap.class, new ConstructorFactory(LinkedHashMap.class, true));
+    CollectionFactory treeMap = new ConstructorFactory(TreeMap.class, false);
+    FACTORIES.put(SortedMap.class, treeMap);
+    FACTORIES.put(TreeMap.class, treeMap);
+    FACTORIES.put(Hashtable.class, new ConstructorFactory(Hashtable.class, true));
+    FACTORIES.put(Properties.class, new ConstructorFactory(Properties.class, false));
+    // concurrent hash map capacity constructor takes care of load factor
+    CollectionFactory concurrentHashMap = new ConstructorFactory(ConcurrentHashMap.class, false);
+    FACTORIES.put(ConcurrentMap.class, concurrentHashMap);
+    FACTORIES.put(ConcurrentHashMap.class, concurrentHashMap);
+    FACTORIES.put(EnumMap.class, new EnumMapFactory());
+  }
+
+  /** Prevent default constructor synthesis. */
+  private CollectionFactories()
+  {
+  }
+
+  /**
+   * Register factory for collection or map class, replacing existing one, if any.
+   *
+   * @param clazz declared collection or map class, interface or implementation,
+   * @param factory collection factory.
+   * @throws IllegalArgumentException if <code>clazz</code> or <code>factory</code> is null or if class is neither
+   *           collection nor map.
+   */
+  public static void register(Class<?> clazz, CollectionFactory factory)
+  {
+    Params.notNull(clazz, "Collection class");
+    Params.notNull(factory, "Collection factory");
+    Params.isTrue(Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz), "Class is neither collection nor map.");
+    FACTORIES.put(clazz, factory);
+  }
+
+  /**
+   * Get factory for collection or map class.
+   *
+   * @param clazz declared collection or map class.
+   * @return collection factory or null if none registered.
+   */
+  public static CollectionFactory get(Class<?> clazz)
+  {
+    return FACTORIES.get(clazz);
+  }
+
+  /**
+   * Compute hash table capacity for expected size, with default load factor.
+   *
+   * @param expectedSize expected number of items.
+   * @return hash table capacity.
+   */
+  private static int hashCapacity(int expectedSize)
+  {
+    return expectedSize < 3 ? expectedSize + 1 : (int)(expectedSize / 0.75F + 1.0F);
+  }
+
+  /**
+   * Built-in factory for implementation classes with public default constructor and, optionally, capacity constructor.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class ConstructorFactory implements CollectionFactory
+  {
+    /** Default constructor handle, adapted to return object. */
+    private final MethodHandle defaultConstructor;
+
+    /** Capacity constructor handle, adapted to return object, or null if implementation has none. */
+    private final MethodHandle capacityConstructor;
+
+    /** Implementation is hash based and capacity should take care of load factor. */
+    private final boolean hashed;
+
+    /**
+     * Resolve constructors for implementation class.
+     *
+     * @param implementation implementation class,
+     * @param hashed implementation is hash based.
+     */
+    ConstructorFactory(Class<?> implementation, boolean hashed)
+    {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      try {
+        this.defaultConstructor = lookup.findConstructor(implementation, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+      }
+      catch(NoSuchMethodException | IllegalAccessException e) {
+        throw new BugError(e);
+      }
+      MethodHandle capacityConstructor = null;
+      try {
+        capacityConstructor = lookup.findConstructor(implementation, MethodType.methodType(void.class, int.class)).asType(MethodType.methodType(Object.class, int.class));
+      }
+      catch(NoSuchMethodException | IllegalAccessException e) {
+        // implementation has no capacity constructor; expected size is ignored
+      }
+      this.capacityConstructor = capacityConstructor;
+      this.hashed = hashed;
+    }
+
+    @Override
+    public Object newInstance(ParameterizedType type, int expectedSize)
+    {
+      try {
+        if(expectedSize > 0 && capacityConstructor != null) {
+          return (Object)capacityConstructor.invokeExact(hashed ? hashCapacity(expectedSize) : expectedSize);
+        }
+        return (Object)defaultConstructor.invokeExact();
+      }
+      catch(Throwable t) {
+        throw new BugError(t);
+      }
+    }
+  }
+
+  /**
+   * Built-in factory for enumeration sets. Enumeration class is the type argument of parameterized type.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class EnumSetFactory implements CollectionFactory
+  {
+    @SuppressWarnings(
+    {
+        "unchecked", "rawtypes"
+    })
+    @Override
+    public Object newInstance(ParameterizedType type, int expectedSize)
+    {
+      return EnumSet.noneOf((Class)type.getActualTypeArguments()[0]);
+    }
+  }
+
+  /**
+   * Built-in factory for enumeration maps. Enumeration class is the first type argument of parameterized type.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class EnumMapFactory implements CollectionFactory
+  {
+    @SuppressWarnings(
+    {
+        "unchecked", "rawtypes"
+    })
+    @Override
+    public Object newInstance(ParameterizedType type, int expectedSize)
+    {
+      return new EnumMap((Class)type.getActualTypeArguments()[0]);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package js.tools.commons.json;
+
+import java.lang.reflect.ParameterizedType;
+
+/**
+ * Factory for collections and maps created by JSON parser. A factory is registered for a collection or map class, be
+ * it interface or implementation, with {@link CollectionFactories#register(Class, CollectionFactory)}. Parser uses it
+ * for fields and values declared with that class.
+ * <p>
+ * Factory instances are shared and invoked concurrently; implementations should be thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+public interface CollectionFactory
+{
+  /**
+   * Create empty collection or map for given parameterized type. If expected size is known implementation should use
+   * it for initial capacity so that instance does not need resize while items are added.
+   *
+   * @param type collection or map parameterized type,
+   * @param expectedSize expected number of items or -1 if not known.
+   * @return collection or map instance.
+   */
+  Object newInstance(ParameterizedType type, int expectedSize);
+}
@@ -2,42 +2,19 @@ package js.tools.commons.json;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.Vector;
 
 import js.tools.commons.BugError;
-import js.tools.commons.util.Classes;
 
 /**
- * Parser collection value.
+ * Parser collection value. Collection instance is created by the factory registered for collection raw type, see
+ * {@link CollectionFactories}.
  * 
  * @author Iulian Rotaru
  * @since 1.0.2
  */
 final class CollectionValue extends Value
 {
-  /** Default implementations for collection interfaces. */
-  private static Map<Class<?>, Class<?>> COLLECTIONS = new HashMap<Class<?>, Class<?>>();
-  static {
-    Map<Class<?>, Class<?>> m = new HashMap<Class<?>, Class<?>>();
-    m.put(Collection.class, Vector.class);
-    m.put(List.class, ArrayList.class);
-    m.put(ArrayList.class, ArrayList.class);
-    m.put(Vector.class, Vector.class);
-    m.put(Set.class, HashSet.class);
-    m.put(HashSet.class, HashSet.class);
-    m.put(TreeSet.class, TreeSet.class);
-    COLLECTIONS = Collections.unmodifiableMap(m);
-  }
-
   /** Collection instance. */
   private Collection<Object> instance;
 
@@ -47,10 +24,11 @@ final class CollectionValue extends Value
   /**
    * Construct parser collection with elements of given type.
    * 
-   * @param type collection elements type.
+   * @param type collection elements type,
+   * @param expectedSize expected number of elements or -1 if not known.
    */
   @SuppressWarnings("unchecked")
-  CollectionValue(Type type)
+  CollectionValue(Type type, int expectedSize)
   {
     if(!(type instanceof ParameterizedType)) {
       throw new JsonException("This JSON parser mandates generic collections usage but got |%s|.", type);
@@ -61,12 +39,11 @@ final class CollectionValue extends Value
 
     this.type = parameterizedType.getActualTypeArguments()[0];
 
-    Class<?> implementation = COLLECTIONS.get(rawType);
-    if(implementation == null) {
+    CollectionFactory factory = CollectionFactories.get(rawType);
+    if(factory == null) {
       throw new BugError("No registered implementation for collection |%s|.", type);
     }
-    instance = (Collection<Object>)Classes.newInstance(implementation);
-
+    instance = (Collection<Object>)factory.newInstance(parameterizedType, expectedSize);
   }
 
   /**
@@ -10,57 +10,396 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import js.tools.commons.BugError;
+import js.tools.commons.util.Params;
 import js.tools.commons.util.Types;
 
 public class Converter
 {
+  /**
+   * Scalar converters per class. Built-in converter is resolved on first use of a class and user converter is stored
+   * when registered; user converter, if present, takes precedence. Converters are attached to class with a class value
+   * so that cache does not pin class loaders.
+   */
+  private static final ClassValue<ClassConverters> CONVERTERS = new ClassValue<ClassConverters>()
+  {
+    @Override
+    protected ClassConverters computeValue(Class<?> clazz)
+    {
+      return new ClassConverters(builtinConverter(clazz));
+    }
+  };
+
+  /** Number of user registered converters, used to skip registry lookup when there is none. */
+  private static final AtomicInteger REGISTERED_COUNT = new AtomicInteger();
+
+  /** Cache mark for types without scalar converter. Values of these types are converted to string. */
+  private static final ScalarConverter<Object> NO_CONVERTER = new ScalarConverter<Object>()
+  {
+    @Override
+    public Object asObject(CharSequence value, Type type)
+    {
+      return value.toString();
+    }
+
+    @Override
+    public String asString(Object value)
+    {
+      return value.toString();
+    }
+  };
+
+  /**
+   * Register scalar converter for given value class. Registered class is handled as a primitive by JSON parser and its
+   * instances are serialized as JSON strings, as returned by {@link ScalarConverter#asString(Object)}. If class has a
+   * built-in converter registered converter replaces it on parsing. On serialization booleans, numbers, strings and
+   * dates keep their built-in format whereas enumerations are serialized with registered converter. Registering a
+   * converter for an already registered class replaces it.
+   * 
+   * @param clazz value class,
+   * @param converter scalar converter.
+   * @param <T> value type.
+   * @throws IllegalArgumentException if <code>clazz</code> or <code>converter</code> is null.
+   * @see #unregister(Class)
+   */
+  public static <T> void register(Class<T> clazz, ScalarConverter<T> converter)
+  {
+    Params.notNull(clazz, "Value class");
+    Params.notNull(converter, "Scalar converter");
+    ClassConverters converters = CONVERTERS.get(clazz);
+    synchronized(converters) {
+      if(converters.user == null) {
+        REGISTERED_COUNT.incrementAndGet();
+      }
+      converters.user = converter;
+    }
+  }
+
+  /**
+   * Remove scalar converter registered for given value class. Class built-in converter, if any, is used again. Does
+   * nothing if there is no converter registered for given class.
+   * 
+   * @param clazz value class.
+   * @throws IllegalArgumentException if <code>clazz</code> is null.
+   * @see #register(Class, ScalarConverter)
+   */
+  public static void unregister(Class<?> clazz)
+  {
+    Params.notNull(clazz, "Value class");
+    ClassConverters converters = CONVERTERS.get(clazz);
+    synchronized(converters) {
+      if(converters.user != null) {
+        REGISTERED_COUNT.decrementAndGet();
+      }
+      converters.user = null;
+    }
+  }
+
+  /**
+   * Test if a scalar converter was registered for given type.
+   * 
+   * @param type type to test, null accepted.
+   * @return true if type has a user registered converter.
+   * @see #register(Class, ScalarConverter)
+   */
+  public static boolean isRegistered(Type type)
+  {
+    return type instanceof Class && REGISTERED_COUNT.get() != 0 && CONVERTERS.get((Class<?>)type).user != null;
+  }
+
+  /**
+   * Get user registered converter for given value class.
+   * 
+   * @param clazz value class.
+   * @return registered converter or null if none registered.
+   */
+  @SuppressWarnings("unchecked")
+  static ScalarConverter<Object> getRegisteredConverter(Class<?> clazz)
+  {
+    if(REGISTERED_COUNT.get() == 0) {
+      return null;
+    }
+    return (ScalarConverter<Object>)CONVERTERS.get(clazz).user;
+  }
+
+  /**
+   * Convert character sequence to an instance of requested type. If <code>object</code> is not a character sequence
+   * it is returned as it is. Conversion is delegated to scalar converter for requested type, cached per class; if type
+   * has no converter, be it built-in or registered, returns the string.
+   * <p>
+   * Character sequence is not retained; it is safe to pass a lexer value that is valid only till next token.
+   * 
+   * @param object character sequence or any other object, null accepted,
+   * @param type requested type.
+   * @return converted value, possible null.
+   */
   public static Object toObject(Object object, Type type)
   {
-    if(object == null || !(object instanceof String)) {
+    if(object == null || !(object instanceof CharSequence)) {
       return object;
     }
-    String value = (String)object;
+    CharSequence sequence = (CharSequence)object;
+    if(type == null) {
+      return sequence.toString();
+    }
+    return getConverter(type).asObject(sequence, type);
+  }
+
+  /**
+   * Convert integer value, already decoded from a binary stream, to an instance of requested type. Built-in numeric
+   * types are created directly, without string conversion, if value is in type range; for other types value is
+   * converted to its decimal string and processed by {@link #toObject(Object, Type)}, that is, with the same rules as
+   * for JSON numbers.
+   * 
+   * @param value integer value,
+   * @param type requested type, not null.
+   * @return converted value.
+   * @see BinaryParser
+   */
+  static Object fromLong(long value, Type type)
+  {
+    ScalarConverter<?> converter = getConverter(type);
+    if(converter instanceof NumberConverter) {
+      switch(((NumberConverter)converter).kind) {
+      case NUMBER_LONG:
+        return value;
+
+      case NUMBER_DOUBLE:
+        return (double)value;
+
+      case NUMBER_BIG_DECIMAL:
+        return BigDecimal.valueOf(value);
+
+      // short and byte are narrowed from int, the same as JSON numbers parsed by toInt
+      case NUMBER_INT:
+        if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+          return (int)value;
+        }
+        break;
+
+      case NUMBER_SHORT:
+        if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+          return (short)value;
+        }
+        break;
+
+      case NUMBER_BYTE:
+        if(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+          return (byte)value;
+        }
+        break;
+
+      case NUMBER_FLOAT:
+        if(value >= -MAX_EXACT_FLOAT && value <= MAX_EXACT_FLOAT) {
+          return (float)value;
+        }
+        break;
+      }
+    }
+    return converter.asObject(Long.toString(value), type);
+  }
+
+  /**
+   * Convert double value, already decoded from a binary stream, to an instance of requested type. Double types get the
+   * value as it is; for other types value is converted to string, see {@link #fromLong(long, Type)}.
+   * 
+   * @param value double value,
+   * @param type requested type, not null.
+   * @return converted value.
+   */
+  static Object fromDouble(double value, Type type)
+  {
+    ScalarConverter<?> converter = getConverter(type);
+    if(converter instanceof NumberConverter && ((NumberConverter)converter).kind == NUMBER_DOUBLE) {
+      return value;
+    }
+    return converter.asObject(Double.toString(value), type);
+  }
+
+  /**
+   * Convert float value, already decoded from a binary stream, to an instance of requested type. Float types get the
+   * value as it is; for other types value is converted to string, see {@link #fromLong(long, Type)}.
+   * 
+   * @param value float value,
+   * @param type requested type, not null.
+   * @return converted value.
+   */
+  static Object fromFloat(float value, Type type)
+  {
+    ScalarConverter<?> converter = getConverter(type);
+    if(converter instanceof NumberConverter && ((NumberConverter)converter).kind == NUMBER_FLOAT) {
+      return value;
+    }
+    return converter.asObject(Float.toString(value), type);
+  }
+
+  /**
+   * Convert date, given as epoch milliseconds decoded from a binary stream, to an instance of requested type. Built-in
+   * date types are created directly, preserving milliseconds; for other types date is converted to ISO-8601 string and
+   * processed by {@link #toObject(Object, Type)}.
+   * 
+   * @param millis epoch milliseconds,
+   * @param type requested type, not null.
+   * @return converted value.
+   * @throws JsonException if date is not supported by ISO-8601 formatter and requested type is not a date.
+   */
+  static Object fromDate(long millis, Type type)
+  {
+    ScalarConverter<?> converter = getConverter(type);
+    if(converter == DATE_CONVERTER) {
+      return newDate(millis, type);
+    }
+    if(!Iso8601.isSupported(millis)) {
+      throw new JsonException("Date |%d| cannot be converted to |%s|.", millis, type);
+    }
+    char[] buffer = new char[Iso8601.LENGTH];
+    Iso8601.format(millis, buffer, 0);
+    return converter.asObject(new String(buffer), type);
+  }
 
-    if(Types.isNumber(type)) {
-      return parseNumber(value, type);
+  /**
+   * Get scalar converter for requested type, be it user registered or built-in. Returned converter for types without
+   * scalar converter returns values as strings.
+   * 
+   * @param type requested type, not null.
+   * @return scalar converter, never null.
+   */
+  static ScalarConverter<?> getConverter(Type type)
+  {
+    if(!(type instanceof Class)) {
+      // generic types, e.g. parameterized collections, have no built-in converter and cannot be registered
+      return builtinConverter(type);
+    }
+    ClassConverters converters = CONVERTERS.get((Class<?>)type);
+    ScalarConverter<?> converter = converters.user;
+    return converter != null ? converter : converters.builtin;
+  }
+
+  /**
+   * Classify type and create its built-in converter. Returns {@link #NO_CONVERTER} if type has no built-in converter.
+   * 
+   * @param type requested type.
+   * @return built-in converter, never null.
+   */
+  private static ScalarConverter<?> builtinConverter(Type type)
+  {
+    int numberKind = numberKind(type);
+    if(numberKind != NUMBER_NONE) {
+      return new NumberConverter(numberKind);
     }
     if(Types.isBoolean(type)) {
-      return parseBoolean(value, type);
+      return BOOLEAN_CONVERTER;
+    }
+    if(Types.isDate(type)) {
+      return DATE_CONVERTER;
     }
     if(Types.isEnum(type)) {
-      return parseEnum(value, type);
+      return enumConverter((Class<?>)type);
     }
     if(Types.isCharacter(type)) {
-      return parseCharacter(value, type);
+      return CHARACTER_CONVERTER;
     }
-    if(Types.isDate(type)) {
+    return NO_CONVERTER;
+  }
+
+  /** Built-in converter for booleans. */
+  private static final ScalarConverter<Object> BOOLEAN_CONVERTER = new ScalarConverter<Object>()
+  {
+    @Override
+    public Object asObject(CharSequence value, Type type)
+    {
+      return parseBoolean(value, type);
+    }
+
+    @Override
+    public String asString(Object value)
+    {
+      return value.toString();
+    }
+  };
+
+  /** Built-in converter for dates, including SQL dates. */
+  private static final ScalarConverter<Object> DATE_CONVERTER = new ScalarConverter<Object>()
+  {
+    @Override
+    public Object asObject(CharSequence value, Type type)
+    {
       return parseDate(value, type);
     }
-    return value;
+
+    @Override
+    public String asString(Object value)
+    {
+      return value.toString();
+    }
+  };
+
+  /**
+   * Create built-in converter for enumeration class, with default options.
+   * 
+   * @param type enumeration class.
+   * @return enumeration converter.
+   */
+  @SuppressWarnings(
+  {
+      "unchecked", "rawtypes"
+  })
+  private static ScalarConverter<?> enumConverter(Class<?> type)
+  {
+    return new EnumConverter((Class)type);
   }
 
-  private static Object parseDate(String string, Type type)
+  /** Built-in converter for characters. */
+  private static final ScalarConverter<Object> CHARACTER_CONVERTER = new ScalarConverter<Object>()
   {
-    if(string.isEmpty()) {
-      return null;
+    @Override
+    public Object asObject(CharSequence value, Type type)
+    {
+      return parseCharacter(value.toString(), type);
     }
 
-    DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-    df.setTimeZone(TimeZone.getTimeZone("UTC"));
+    @Override
+    public String asString(Object value)
+    {
+      return value.toString();
+    }
+  };
 
-    ParsePosition parsePosition = new ParsePosition(0);
-    Date date = df.parse(string, parsePosition);
-    if(date == null) {
-      throw new JsonException("Cannot parse ISO8601 date from |%s| at position |%d|.", string, parsePosition.getErrorIndex());
+  /**
+   * Parse ISO-8601 date from character sequence and create instance of requested date type. Date is parsed by
+   * {@link Iso8601} parser that is thread safe and does not create objects; if date string has a format not supported
+   * by it, delegates {@link #parseLegacyDate(String)}.
+   * 
+   * @param sequence date character sequence,
+   * @param type date type.
+   * @return date instance or null if character sequence is empty.
+   */
+  private static Object parseDate(CharSequence sequence, Type type)
+  {
+    if(sequence.length() == 0) {
+      return null;
     }
 
-    Calendar calendar = Calendar.getInstance();
-    calendar.setTime(date);
-    calendar.set(Calendar.MILLISECOND, 0);
-    long time = calendar.getTimeInMillis();
+    long time = Iso8601.parse(sequence);
+    if(time == Iso8601.INVALID) {
+      time = parseLegacyDate(sequence.toString());
+    }
 
+    return newDate(time, type);
+  }
+
+  /**
+   * Create instance of requested date type.
+   * 
+   * @param time epoch milliseconds,
+   * @param type date type.
+   * @return date instance.
+   * @throws BugError if type is not a supported date type.
+   */
+  private static Object newDate(long time, Type type)
+  {
     if(type == Date.class) {
       return new Date(time);
     }
@@ -77,6 +416,32 @@ public class Converter
     throw new BugError("Unsupported date type |%s|.", type);
   }
 
+  /**
+   * Lenient, format based, date parser used for dates not supported by {@link Iso8601}, e.g. dates before Gregorian
+   * calendar adoption. Parsed date is interpreted in UTC, milliseconds are set to zero and trailing characters, if any,
+   * are ignored.
+   * 
+   * @param string date string.
+   * @return epoch milliseconds.
+   * @throws JsonException if date string cannot be parsed.
+   */
+  private static long parseLegacyDate(String string)
+  {
+    DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+    df.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+    ParsePosition parsePosition = new ParsePosition(0);
+    Date date = df.parse(string, parsePosition);
+    if(date == null) {
+      throw new JsonException("Cannot parse ISO8601 date from |%s| at position |%d|.", string, parsePosition.getErrorIndex());
+    }
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(date);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTimeInMillis();
+  }
+
   private static Object parseCharacter(String string, Type type)
   {
     // at this point value type is guaranteed to be char or Character
@@ -86,56 +451,396 @@ public class Converter
     return string.charAt(0);
   }
 
-  @SuppressWarnings(
-  {
-      "unchecked", "rawtypes"
-  })
-  private static Object parseEnum(String string, Type type)
-  {
-    if(string.isEmpty()) {
-      return null;
-    }
-    // at this point value type is guaranteed to be enumeration
-    return Enum.valueOf((Class)type, string);
-  }
-
-  private static Object parseBoolean(String string, Type type)
+  private static Object parseBoolean(CharSequence sequence, Type type)
   {
     // at this point value type is a boolean or a boxing boolean
-    string = string.toLowerCase();
-    if(string.equals("true")) {
+    if(equalsIgnoreCase(sequence, "true")) {
       return true;
     }
-    if(string.equals("yes")) {
+    if(equalsIgnoreCase(sequence, "yes")) {
       return true;
     }
-    if(string.equals("1")) {
+    if(equalsIgnoreCase(sequence, "1")) {
       return true;
     }
-    if(string.equals("on")) {
+    if(equalsIgnoreCase(sequence, "on")) {
       return true;
     }
     return false;
   }
 
-  private static Object parseNumber(String string, Type type)
+  /**
+   * Compare character sequence with lower case literal, ignoring sequence characters case.
+   * 
+   * @param sequence character sequence,
+   * @param literal lower case literal.
+   * @return true if character sequence equals literal, ignoring case.
+   */
+  private static boolean equalsIgnoreCase(CharSequence sequence, String literal)
+  {
+    if(sequence.length() != literal.length()) {
+      return false;
+    }
+    for(int i = 0; i < literal.length(); ++i) {
+      if(Character.toLowerCase(sequence.charAt(i)) != literal.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Numeric kinds, resolved once per type and used to select number parser. */
+  private static final int NUMBER_NONE = 0;
+  private static final int NUMBER_INT = 1;
+  private static final int NUMBER_LONG = 2;
+  private static final int NUMBER_DOUBLE = 3;
+  private static final int NUMBER_FLOAT = 4;
+  private static final int NUMBER_SHORT = 5;
+  private static final int NUMBER_BYTE = 6;
+  private static final int NUMBER_BIG_DECIMAL = 7;
+  private static final int NUMBER_ABSTRACT = 8;
+
+  /**
+   * Get numeric kind for given type.
+   * 
+   * @param type requested type.
+   * @return numeric kind or {@link #NUMBER_NONE} if type is not numeric.
+   */
+  private static int numberKind(Type type)
+  {
+    if(type == int.class || type == Integer.class) {
+      return NUMBER_INT;
+    }
+    if(type == long.class || type == Long.class) {
+      return NUMBER_LONG;
+    }
+    if(type == double.class || type == Double.class) {
+      return NUMBER_DOUBLE;
+    }
+    if(type == float.class || type == Float.class) {
+      return NUMBER_FLOAT;
+    }
+    if(type == short.class || type == Short.class) {
+      return NUMBER_SHORT;
+    }
+    if(type == byte.class || type == Byte.class) {
+      return NUMBER_BYTE;
+    }
+    if(type == BigDecimal.class) {
+      return NUMBER_BIG_DECIMAL;
+    }
+    if(type == Number.class) {
+      return NUMBER_ABSTRACT;
+    }
+    return NUMBER_NONE;
+  }
+
+  /**
+   * Built-in converter for numeric types. There is a converter instance per numeric type, bound to type numeric kind.
+   * 
+   * @author Iulian Rotaru
+   */
+  private static final class NumberConverter implements ScalarConverter<Object>
+  {
+    /** Numeric kind of the type this converter is bound to. */
+    private final int kind;
+
+    /**
+     * Create number converter for numeric kind.
+     * 
+     * @param kind numeric kind.
+     */
+    NumberConverter(int kind)
+    {
+      this.kind = kind;
+    }
+
+    @Override
+    public Object asObject(CharSequence value, Type type)
+    {
+      return parseNumber(value, kind, type);
+    }
+
+    @Override
+    public String asString(Object value)
+    {
+      return value.toString();
+    }
+  }
+
+  /** Maximum number of digits for integer fast path, guaranteed to fit a long without overflow. */
+  private static final int MAX_FAST_DIGITS = 18;
+
+  /** Value returned by {@link #parseInteger(CharSequence)} for character sequences not supported by fast path. */
+  private static final long NOT_INTEGER = Long.MIN_VALUE;
+
+  /** Largest float integer value with all lower integers exactly representable, 2^24. */
+  private static final long MAX_EXACT_FLOAT = 1L << 24;
+
+  /**
+   * Parse number from character sequence, without creating a string for common cases. Plain decimal integers, see
+   * {@link #parseInteger(CharSequence)}, are parsed in place for integer types and float; doubles are parsed by
+   * {@link #parseDouble(CharSequence)} fast path and big decimals are created exact, from string. All other values are
+   * parsed from string.
+   * 
+   * @param sequence numeric character sequence,
+   * @param kind numeric kind,
+   * @param type numeric type, for error reporting.
+   * @return number instance.
+   */
+  private static Object parseNumber(CharSequence sequence, int kind, Type type)
+  {
+    switch(kind) {
+    case NUMBER_DOUBLE:
+      return toDouble(sequence);
+
+    case NUMBER_BIG_DECIMAL:
+      return parseBigDecimal(sequence.toString());
+
+    case NUMBER_LONG:
+      return toLong(sequence);
+
+    case NUMBER_INT:
+      return toInt(sequence);
+
+    case NUMBER_SHORT:
+      return (short)toInt(sequence);
+
+    case NUMBER_BYTE:
+      return (byte)toInt(sequence);
+
+    case NUMBER_FLOAT:
+      long number = parseInteger(sequence);
+      // negative zero is not representable on long
+      if(number != NOT_INTEGER && number >= -MAX_EXACT_FLOAT && number <= MAX_EXACT_FLOAT && !(number == 0 && sequence.charAt(0) == '-')) {
+        return (float)number;
+      }
+      break;
+    }
+    return parseNumber(sequence.toString(), kind, type);
+  }
+
+  /**
+   * Parse int value from character sequence, without boxing. Plain decimal integers in int range are parsed in place;
+   * other values are parsed from string, with the same rules as {@link #toObject(Object, Type)} for int type.
+   * 
+   * @param sequence numeric character sequence.
+   * @return int value.
+   */
+  static int toInt(CharSequence sequence)
+  {
+    long number = parseInteger(sequence);
+    if(number != NOT_INTEGER && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+      return (int)number;
+    }
+    return ((Number)parseNumber(sequence.toString(), NUMBER_INT, int.class)).intValue();
+  }
+
+  /**
+   * Parse long value from character sequence, without boxing. Plain decimal integers are parsed in place; other values
+   * are parsed from string, with the same rules as {@link #toObject(Object, Type)} for long type.
+   * 
+   * @param sequence numeric character sequence.
+   * @return long value.
+   */
+  static long toLong(CharSequence sequence)
+  {
+    long number = parseInteger(sequence);
+    if(number != NOT_INTEGER) {
+      return number;
+    }
+    return ((Number)parseNumber(sequence.toString(), NUMBER_LONG, long.class)).longValue();
+  }
+
+  /**
+   * Parse double value from character sequence, without boxing. Uses {@link #parseDouble(CharSequence)} fast path and
+   * falls back to string parsing, with the same rules as {@link #toObject(Object, Type)} for double type.
+   * 
+   * @param sequence numeric character sequence.
+   * @return double value.
+   */
+  static double toDouble(CharSequence sequence)
+  {
+    double value = parseDouble(sequence);
+    if(value == value) {
+      return value;
+    }
+    return ((Number)parseNumber(sequence.toString(), NUMBER_DOUBLE, double.class)).doubleValue();
+  }
+
+  /**
+   * Fast path for integers parsing, directly from character sequence. Accepts optional minus sign followed by at most
+   * {@link #MAX_FAST_DIGITS} digits. Returns {@link #NOT_INTEGER} for anything else and caller should use string
+   * parsing.
+   * 
+   * @param sequence numeric character sequence.
+   * @return parsed value or {@link #NOT_INTEGER}.
+   */
+  private static long parseInteger(CharSequence sequence)
+  {
+    int length = sequence.length();
+    boolean negative = length > 0 && sequence.charAt(0) == '-';
+    int index = negative ? 1 : 0;
+    if(index == length || length - index > MAX_FAST_DIGITS) {
+      return NOT_INTEGER;
+    }
+    long number = 0;
+    for(; index < length; ++index) {
+      char c = sequence.charAt(index);
+      if(c < '0' || c > '9') {
+        return NOT_INTEGER;
+      }
+      number = number * 10 + (c - '0');
+    }
+    return negative ? -number : number;
+  }
+
+  /** Maximum number of significant digits for double fast path, guaranteed to fit a long without overflow. */
+  private static final int MAX_DOUBLE_DIGITS = 18;
+
+  /** Largest mantissa exactly representable on double, 2^53. */
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  /** Powers of ten exactly representable on double. */
+  private static final double[] POWERS_OF_TEN =
+  {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * Fast path for double parsing, directly from character sequence. Accepts JSON numbers - optional minus sign, integer
+   * part, optional fraction and optional exponent - with decimal mantissa and power of ten both exactly representable
+   * on double; in this case a single multiplication or division is correctly rounded and result is the same as
+   * {@link Double#parseDouble(String)}, see Clinger's fast path. Returns {@link Double#NaN} for anything else, e.g.
+   * more than {@link #MAX_DOUBLE_DIGITS} significant digits, large exponents, hexadecimal or not numeric values, and
+   * caller should use standard parser.
+   * 
+   * @param sequence numeric character sequence.
+   * @return parsed value or not a number if character sequence is not supported by fast path.
+   */
+  private static double parseDouble(CharSequence sequence)
+  {
+    int length = sequence.length();
+    int index = 0;
+    boolean negative = false;
+    if(index < length && sequence.charAt(index) == '-') {
+      negative = true;
+      ++index;
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    int start = index;
+    for(; index < length; ++index) {
+      char c = sequence.charAt(index);
+      if(c < '0' || c > '9') {
+        break;
+      }
+      mantissa = mantissa * 10 + (c - '0');
+      if(mantissa != 0 && ++digits > MAX_DOUBLE_DIGITS) {
+        return Double.NaN;
+      }
+    }
+    if(index == start) {
+      return Double.NaN;
+    }
+
+    if(index < length && sequence.charAt(index) == '.') {
+      start = ++index;
+      for(; index < length; ++index) {
+        char c = sequence.charAt(index);
+        if(c < '0' || c > '9') {
+          break;
+        }
+        mantissa = mantissa * 10 + (c - '0');
+        --exponent;
+        if(mantissa != 0 && ++digits > MAX_DOUBLE_DIGITS) {
+          return Double.NaN;
+        }
+      }
+      if(index == start) {
+        return Double.NaN;
+      }
+    }
+
+    if(index < length && (sequence.charAt(index) == 'e' || sequence.charAt(index) == 'E')) {
+      ++index;
+      boolean negativeExponent = false;
+      if(index < length && (sequence.charAt(index) == '-' || sequence.charAt(index) == '+')) {
+        negativeExponent = sequence.charAt(index) == '-';
+        ++index;
+      }
+      start = index;
+      int explicitExponent = 0;
+      for(; index < length; ++index) {
+        char c = sequence.charAt(index);
+        if(c < '0' || c > '9' || explicitExponent > 1000) {
+          break;
+        }
+        explicitExponent = explicitExponent * 10 + (c - '0');
+      }
+      if(index == start) {
+        return Double.NaN;
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    if(index != length) {
+      return Double.NaN;
+    }
+
+    double value;
+    if(mantissa == 0) {
+      value = 0;
+    }
+    else if(mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+      return Double.NaN;
+    }
+    else if(exponent < 0) {
+      value = mantissa / POWERS_OF_TEN[-exponent];
+    }
+    else {
+      value = mantissa * POWERS_OF_TEN[exponent];
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Create big decimal from numeric string. Decimal value is exact, as written in string, that is, is not affected by
+   * conversion to binary floating point.
+   * 
+   * @param string numeric string value.
+   * @return big decimal instance.
+   */
+  private static BigDecimal parseBigDecimal(String string)
+  {
+    if(string.isEmpty()) {
+      return BigDecimal.ZERO;
+    }
+    if(string.length() > 2 && string.charAt(0) == '0' && string.charAt(1) == 'x') {
+      return BigDecimal.valueOf(Long.parseLong(string.substring(2), 16));
+    }
+    return new BigDecimal(string);
+  }
+
+  private static Object parseNumber(String string, int kind, Type type)
   {
     Number number = string.isEmpty() ? 0 : parseNumber(string);
 
-    // hopefully int and double are most used numeric types and test them first
-    if(Types.equalsAny(type, int.class, Integer.class)) {
+    switch(kind) {
+    case NUMBER_INT:
       return number.intValue();
-    }
-    if(Types.equalsAny(type, double.class, Double.class)) {
+
+    case NUMBER_DOUBLE:
       return number.doubleValue();
-    }
-    if(Types.equalsAny(type, byte.class, Byte.class)) {
+
+    case NUMBER_BYTE:
       return number.byteValue();
-    }
-    if(Types.equalsAny(type, short.class, Short.class)) {
+
+    case NUMBER_SHORT:
       return number.shortValue();
-    }
-    if(Types.equalsAny(type, long.class, Long.class)) {
+
+    case NUMBER_LONG:
       // because converting between doubles and longs may result in loss of precision we need
       // special treatment for longs. @see ConverterUnitTest.testConversionPrecision
       if(string.length() > 0 && string.indexOf('.') == -1) {
@@ -146,12 +851,10 @@ public class Converter
         return Long.parseLong(string);
       }
       return number.longValue();
-    }
-    if(Types.equalsAny(type, float.class, Float.class)) {
+
+    case NUMBER_FLOAT:
       return number.floatValue();
-    }
-    if(Types.equalsAny(type, BigDecimal.class)) {
-      return new BigDecimal(number.doubleValue());
+
     }
     throw new BugError("Unsupported numeric value |%s|.", type);
   }
@@ -169,4 +872,23 @@ public class Converter
     }
     return Double.parseDouble(string);
   }
+
+  /**
+   * Scalar converters attached to a class: built-in converter, resolved once, and user registered converter, if any.
+   * 
+   * @author Iulian Rotaru
+   */
+  private static final class ClassConverters
+  {
+    /** Built-in converter, {@link #NO_CONVERTER} if class has none. */
+    final ScalarConverter<?> builtin;
+
+    /** User registered converter, null if none registered. */
+    volatile ScalarConverter<?> user;
+
+    ClassConverters(ScalarConverter<?> builtin)
+    {
+      this.builtin = builtin;
+    }
+  }
 }
@@ -0,0 +1,258 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+
+import js.tools.commons.BugError;
+import js.tools.commons.util.Params;
+
+/**
+ * Scalar converter for enumerations, resolved once per enumeration class. Parsing looks up constant names, directly
+ * from JSON character sequence, into an open addressing hash table, that is, without creating name string and without
+ * {@link Enum#valueOf(Class, String)}. Serialization writes pre-escaped JSON literals, one per constant.
+ * <p>
+ * By default constants are written by name and names are case sensitive, the same as standard enumeration names. Two
+ * options are supported, both selected at construction:
+ * <ul>
+ * <li>case insensitive names - names from JSON stream are matched ignoring case; if two constants names differ only by
+ * case first declared wins,
+ * <li>ordinal encoding - constants are written as JSON numbers, that is, constant ordinal; parser accepts both ordinals
+ * and names.
+ * </ul>
+ * <p>
+ * Built-in converter, with default options, is used for enumerations without a registered converter. To change options
+ * for an enumeration register a configured instance:
+ *
+ * <pre>
+ * Converter.register(State.class, new EnumConverter&lt;State&gt;(State.class, true, true));
+ * </pre>
+ *
+ * This class is immutable and thread safe.
+ *
+ * @author Iulian Rotaru
+ * @param <T> enumeration type.
+ */
+public final class EnumConverter<T extends Enum<T>> implements ScalarConverter<T>
+{
+  /** Enumeration class. */
+  private final Class<T> type;
+
+  /** Match names from JSON stream ignoring case. */
+  private final boolean ignoreCase;
+
+  /** Encode constants as ordinals instead of names. */
+  private final boolean ordinal;
+
+  /** Enumeration constants, in declaration order. */
+  private final T[] constants;
+
+  /** Constants names stored in open addressing hash table, indexed by name hash code. */
+  private final String[] names;
+
+  /** Constants stored in the same slots as related name from {@link #names}. */
+  private final T[] slots;
+
+  /** Pre-escaped JSON literals, indexed by constant ordinal. */
+  private final char[][] literals;
+
+  /**
+   * Create converter with default options: case sensitive names and constants encoded by name.
+   *
+   * @param type enumeration class.
+   * @throws IllegalArgumentException if <code>type</code> is null or not an enumeration.
+   */
+  public EnumConverter(Class<T> type)
+  {
+    this(type, false, false);
+  }
+
+  /**
+   * Create converter with given options.
+   *
+   * @param type enumeration class,
+   * @param ignoreCase match names from JSON stream ignoring case,
+   * @param ordinal encode constants as ordinals instead of names.
+   * @throws IllegalArgumentException if <code>type</code> is null or not an enumeration.
+   */
+  @SuppressWarnings("unchecked")
+  public EnumConverter(Class<T> type, boolean ignoreCase, boolean ordinal)
+  {
+    Params.notNull(type, "Enumeration class");
+    Params.isTrue(type.isEnum(), "Type is not an enumeration.");
+    this.type = type;
+    this.ignoreCase = ignoreCase;
+    this.ordinal = ordinal;
+    this.constants = type.getEnumConstants();
+
+    int capacity = Integer.highestOneBit(Math.max(constants.length, 1) * 2) * 2;
+    this.names = new String[capacity];
+    this.slots = (T[])new Enum<?>[capacity];
+    this.literals = new char[constants.length][];
+    for(T constant : constants) {
+      String name = constant.name();
+      literals[constant.ordinal()] = ordinal ? Integer.toString(constant.ordinal()).toCharArray() : literal(name);
+      if(find(name) != null) {
+        // constant names differ only by case and converter ignores case
+        continue;
+      }
+      int slot = hashCode(name) & (capacity - 1);
+      while(names[slot] != null) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      names[slot] = name;
+      slots[slot] = constant;
+    }
+  }
+
+  /**
+   * Get enumeration constant for given JSON value. Empty value is converted to null. If ordinal encoding is enabled
+   * value with only digits is an ordinal.
+   *
+   * @param value constant name or ordinal,
+   * @param type enumeration type, ignored.
+   * @return enumeration constant or null if value is empty.
+   * @throws IllegalArgumentException if there is no constant for given value.
+   */
+  @Override
+  public T asObject(CharSequence value, Type type)
+  {
+    if(value.length() == 0) {
+      return null;
+    }
+    T constant = find(value);
+    if(constant != null) {
+      return constant;
+    }
+    if(ordinal) {
+      int index = ordinal(value);
+      if(index >= 0 && index < constants.length) {
+        return constants[index];
+      }
+    }
+    throw new IllegalArgumentException("No enum constant " + this.type.getCanonicalName() + "." + value);
+  }
+
+  /**
+   * Get constant name or, if ordinal encoding is enabled, constant ordinal.
+   *
+   * @param value enumeration constant.
+   * @return constant name or ordinal.
+   */
+  @Override
+  public String asString(T value)
+  {
+    return ordinal ? Integer.toString(value.ordinal()) : value.name();
+  }
+
+  /**
+   * Get JSON literal for enumeration constant, ready to write on JSON stream: constant name escaped and in quotation
+   * marks or constant ordinal. Returned array is shared and should not be modified.
+   *
+   * @param value enumeration constant.
+   * @return JSON literal.
+   */
+  char[] getLiteral(Enum<?> value)
+  {
+    return literals[value.ordinal()];
+  }
+
+  /**
+   * Look up constant by name into names hash table.
+   *
+   * @param name constant name.
+   * @return enumeration constant or null if not found.
+   */
+  private T find(CharSequence name)
+  {
+    int mask = names.length - 1;
+    for(int slot = hashCode(name) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+      if(equals(names[slot], name)) {
+        return slots[slot];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compute name hash code, case insensitive if this converter ignores case.
+   *
+   * @param name constant name.
+   * @return name hash code.
+   */
+  private int hashCode(CharSequence name)
+  {
+    int hashCode = 0;
+    int length = name.length();
+    for(int i = 0; i < length; ++i) {
+      char c = name.charAt(i);
+      hashCode = 31 * hashCode + (ignoreCase ? Character.toUpperCase(c) : c);
+    }
+    return hashCode;
+  }
+
+  /**
+   * Test if constant name equals given character sequence, ignoring case if this converter ignores case.
+   *
+   * @param name constant name,
+   * @param sequence character sequence.
+   * @return true if name and character sequence are equal.
+   */
+  private boolean equals(String name, CharSequence sequence)
+  {
+    int length = name.length();
+    if(length != sequence.length()) {
+      return false;
+    }
+    for(int i = 0; i < length; ++i) {
+      char c1 = name.charAt(i);
+      char c2 = sequence.charAt(i);
+      if(c1 != c2 && (!ignoreCase || Character.toUpperCase(c1) != Character.toUpperCase(c2))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse ordinal from character sequence.
+   *
+   * @param value character sequence.
+   * @return ordinal or -1 if character sequence is not a small decimal number.
+   */
+  private static int ordinal(CharSequence value)
+  {
+    int length = value.length();
+    if(length > 9) {
+      return -1;
+    }
+    int index = 0;
+    for(int i = 0; i < length; ++i) {
+      char c = value.charAt(i);
+      if(c < '0' || c > '9') {
+        return -1;
+      }
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+
+  /**
+   * Escape constant name and add quotation marks.
+   *
+   * @param name constant name.
+   * @return JSON literal.
+   */
+  private static char[] literal(String name)
+  {
+    StringWriter writer = new StringWriter();
+    try {
+      new Serializer(writer).writeString(name);
+    }
+    catch(IOException e) {
+      // string writer does not throw IO exceptions
+      throw new BugError(e);
+    }
+    return writer.toString().toCharArray();
+  }
+}
@@ -0,0 +1,101 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffered writer that flushes target writer every time buffered characters reach a given threshold. Unlike
+ * {@link java.io.BufferedWriter}, that only writes buffer to target, this class flushes target too so that data produced
+ * incrementally is actually sent, e.g. on HTTP chunked streams, as soon as threshold is reached.
+ *
+ * @author Iulian Rotaru
+ */
+final class FlushingWriter extends Writer
+{
+  /** Target characters stream. */
+  private final Writer target;
+
+  /** Characters buffer, with capacity equal to flush threshold. */
+  private final char[] buffer;
+
+  /** Number of characters from {@link #buffer}. */
+  private int count;
+
+  /**
+   * Create flushing writer for given target.
+   *
+   * @param target target characters stream,
+   * @param threshold number of buffered characters that triggers flush.
+   */
+  FlushingWriter(Writer target, int threshold)
+  {
+    this.target = target;
+    this.buffer = new char[threshold];
+  }
+
+  @Override
+  public void write(int c) throws IOException
+  {
+    if(count == buffer.length) {
+      flushBuffer();
+    }
+    buffer[count++] = (char)c;
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int length) throws IOException
+  {
+    while(length > 0) {
+      if(count == buffer.length) {
+        flushBuffer();
+      }
+      int chunk = Math.min(length, buffer.length - count);
+      System.arraycopy(chars, offset, buffer, count, chunk);
+      count += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  @Override
+  public void write(String string, int offset, int length) throws IOException
+  {
+    while(length > 0) {
+      if(count == buffer.length) {
+        flushBuffer();
+      }
+      int chunk = Math.min(length, buffer.length - count);
+      string.getChars(offset, offset + chunk, buffer, count);
+      count += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException
+  {
+    flushBuffer();
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    flushBuffer();
+    target.close();
+  }
+
+  /**
+   * Write buffered characters to target and flush it.
+   *
+   * @throws IOException if target write fails.
+   */
+  private void flushBuffer() throws IOException
+  {
+    if(count > 0) {
+      target.write(buffer, 0, count);
+      count = 0;
+    }
+    target.flush();
+  }
+}
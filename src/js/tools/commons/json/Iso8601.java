@@ -0,0 +1,267 @@
+package js.tools.commons.json;
+
+/**
+ * ISO-8601 date formatting from epoch milliseconds and parsing to epoch milliseconds, without calendar or formatter
+ * instances. This class has no state and is safe to use from multiple threads.
+ * <p>
+ * Date is written in UTC, with seconds precision, as <code>yyyy-MM-ddTHH:mm:ssZ</code>, the same format produced by
+ * {@link Serializer} legacy, calendar based, writer. Parser accepts <code>yyyy-MM-ddTHH:mm:ss</code> optionally
+ * followed by fraction of second and by zone designator - <code>Z</code>, <code>+HH:mm</code>, <code>+HHmm</code> or
+ * <code>+HH</code>; missing zone designator means UTC. Fraction of second is truncated to milliseconds.
+ * <p>
+ * Conversion from days count to civil date uses proleptic Gregorian calendar. Standard Java calendar switches to Julian
+ * calendar before {@link #GREGORIAN_CUTOVER} and this class does not support dates before it; caller should use
+ * calendar based logic for them. Years with more than four digits are not supported either.
+ *
+ * @author Iulian Rotaru
+ */
+final class Iso8601
+{
+  /** Gregorian calendar adoption, October 15, 1582 UTC, in epoch milliseconds. */
+  static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+  /** Start of year 10000 UTC, in epoch milliseconds. Supported years have four digits. */
+  static final long YEAR_10000 = 253402300800000L;
+
+  /** Formatted date length. */
+  static final int LENGTH = 20;
+
+  /** Value returned by {@link #parse(CharSequence)} for not supported date strings. */
+  static final long INVALID = Long.MIN_VALUE;
+
+  /** First year supported by parser; years before are affected by Julian calendar. */
+  private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+  /** Milliseconds per day. */
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  /** Days from 0000-03-01 to 1970-01-01, in proleptic Gregorian calendar. */
+  private static final long DAYS_0000_TO_1970 = 719468L;
+
+  /** Days per 400 years Gregorian cycle. */
+  private static final long DAYS_PER_CYCLE = 146097L;
+
+  /** Prevent default constructor synthesis. */
+  private Iso8601()
+  {
+  }
+
+  /**
+   * Test if date given as epoch milliseconds can be formatted by {@link #format(long, char[], int)}.
+   *
+   * @param millis epoch milliseconds.
+   * @return true if date is supported.
+   */
+  static boolean isSupported(long millis)
+  {
+    return millis >= GREGORIAN_CUTOVER && millis < YEAR_10000;
+  }
+
+  /**
+   * Format date given as epoch milliseconds into characters buffer. Buffer should have at least {@link #LENGTH}
+   * characters available from <code>offset</code>. Date should be supported, see {@link #isSupported(long)}.
+   *
+   * @param millis epoch milliseconds,
+   * @param buffer characters buffer,
+   * @param offset buffer index where to start writing.
+   * @return buffer index after last written character.
+   */
+  static int format(long millis, char[] buffer, int offset)
+  {
+    assert isSupported(millis);
+    long days = millis / MILLIS_PER_DAY;
+    long millisOfDay = millis % MILLIS_PER_DAY;
+    if(millisOfDay < 0) {
+      --days;
+      millisOfDay += MILLIS_PER_DAY;
+    }
+    int secondsOfDay = (int)(millisOfDay / 1000);
+
+    // civil date from days count algorithm by Howard Hinnant; years start on March 1st
+    // supported dates are after Gregorian cutover so that shifted days count is never negative
+    long shiftedDays = days + DAYS_0000_TO_1970;
+    long era = shiftedDays / DAYS_PER_CYCLE;
+    int dayOfEra = (int)(shiftedDays - era * DAYS_PER_CYCLE);
+    int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    int shiftedMonth = (5 * dayOfYear + 2) / 153;
+    int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+    int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+    int year = (int)(yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+    int index = write4(buffer, offset, year);
+    buffer[index++] = '-';
+    index = write2(buffer, index, month);
+    buffer[index++] = '-';
+    index = write2(buffer, index, day);
+    buffer[index++] = 'T';
+    index = write2(buffer, index, secondsOfDay / 3600);
+    buffer[index++] = ':';
+    index = write2(buffer, index, secondsOfDay / 60 % 60);
+    buffer[index++] = ':';
+    index = write2(buffer, index, secondsOfDay % 60);
+    buffer[index++] = 'Z';
+    return index;
+  }
+
+  /**
+   * Parse ISO-8601 date string to epoch milliseconds. Returns {@link #INVALID} if date string is not strictly conformant
+   * to supported format, see class description, or if year is before 1583; caller should use a more lenient parser for
+   * them.
+   *
+   * @param string date string.
+   * @return epoch milliseconds or {@link #INVALID}.
+   */
+  static long parse(CharSequence string)
+  {
+    int length = string.length();
+    if(length < 19 || string.charAt(4) != '-' || string.charAt(7) != '-' || string.charAt(10) != 'T' || string.charAt(13) != ':' || string.charAt(16) != ':') {
+      return INVALID;
+    }
+    int year = digits(string, 0, 4);
+    int month = digits(string, 5, 2);
+    int day = digits(string, 8, 2);
+    int hour = digits(string, 11, 2);
+    int minute = digits(string, 14, 2);
+    int second = digits(string, 17, 2);
+    if(year < FIRST_GREGORIAN_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      return INVALID;
+    }
+
+    int index = 19;
+    int millis = 0;
+    if(index < length && string.charAt(index) == '.') {
+      int start = ++index;
+      int scale = 100;
+      for(; index < length; ++index) {
+        char c = string.charAt(index);
+        if(c < '0' || c > '9') {
+          break;
+        }
+        millis += (c - '0') * scale;
+        scale /= 10;
+      }
+      if(index == start) {
+        return INVALID;
+      }
+    }
+
+    int offset = 0;
+    if(index < length) {
+      char c = string.charAt(index++);
+      if(c == '+' || c == '-') {
+        int offsetHours = digits(string, index, 2);
+        index += 2;
+        int offsetMinutes = 0;
+        if(index < length) {
+          if(string.charAt(index) == ':') {
+            ++index;
+          }
+          offsetMinutes = digits(string, index, 2);
+          index += 2;
+        }
+        if(offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59) {
+          return INVALID;
+        }
+        offset = (offsetHours * 60 + offsetMinutes) * 60000;
+        if(c == '-') {
+          offset = -offset;
+        }
+      }
+      else if(c != 'Z') {
+        return INVALID;
+      }
+      if(index != length) {
+        return INVALID;
+      }
+    }
+
+    // days from civil date, inverse of the algorithm used by format; years start on March 1st
+    int shiftedYear = month <= 2 ? year - 1 : year;
+    int era = shiftedYear / 400;
+    int yearOfEra = shiftedYear - era * 400;
+    int shiftedMonth = month > 2 ? month - 3 : month + 9;
+    int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    long days = era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+
+    return days * MILLIS_PER_DAY + ((hour * 60 + minute) * 60 + second) * 1000L + millis - offset;
+  }
+
+  /**
+   * Parse fixed count decimal digits.
+   *
+   * @param string source string,
+   * @param index index of the first digit,
+   * @param count digits count.
+   * @return parsed number or -1 if string has not enough characters or a character is not a digit.
+   */
+  private static int digits(CharSequence string, int index, int count)
+  {
+    if(index + count > string.length()) {
+      return -1;
+    }
+    int value = 0;
+    for(int i = index; i < index + count; ++i) {
+      char c = string.charAt(i);
+      if(c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Get the number of days of a month, taking care of leap years.
+   *
+   * @param year year,
+   * @param month month, 1 based.
+   * @return days count.
+   */
+  private static int daysInMonth(int year, int month)
+  {
+    switch(month) {
+    case 2:
+      return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+
+    case 4:
+    case 6:
+    case 9:
+    case 11:
+      return 30;
+
+    default:
+      return 31;
+    }
+  }
+
+  /**
+   * Write two digits, zero padded, number.
+   *
+   * @param buffer characters buffer,
+   * @param index buffer index,
+   * @param value number less than 100.
+   * @return buffer index after written digits.
+   */
+  private static int write2(char[] buffer, int index, int value)
+  {
+    buffer[index] = (char)('0' + value / 10);
+    buffer[index + 1] = (char)('0' + value % 10);
+    return index + 2;
+  }
+
+  /**
+   * Write four digits, zero padded, number.
+   *
+   * @param buffer characters buffer,
+   * @param index buffer index,
+   * @param value number less than 10000.
+   * @return buffer index after written digits.
+   */
+  private static int write4(char[] buffer, int index, int value)
+  {
+    write2(buffer, index, value / 100);
+    return write2(buffer, index + 2, value % 100);
+  }
+}
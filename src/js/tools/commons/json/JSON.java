@@ -1,9 +1,15 @@
 package js.tools.commons.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class JSON
 {
@@ -31,6 +37,26 @@ public final class JSON
     serializer.serialize(writer, value);
   }
 
+  /**
+   * Serialize value to JSON character stream, with optional circular dependencies tracking. This method has the same
+   * behavior as {@link #stringify(Writer, Object)} when <code>trackCycles</code> is true. Disabling tracking is an
+   * optimization for trusted, acyclic values graph, like data transfer objects; it is caller responsibility to ensure
+   * there are no circular dependencies, otherwise serialization does not end.
+   * 
+   * @param writer character stream to write value on,
+   * @param value value to serialize, null accepted,
+   * @param trackCycles if false circular dependencies are not tracked.
+   * @throws IOException if IO write operation fails.
+   */
+  public static void stringify(Writer writer, Object value, boolean trackCycles) throws IOException
+  {
+    Serializer serializer = new Serializer();
+    if(!trackCycles) {
+      serializer.disableCycleTracking();
+    }
+    serializer.serialize(writer, value);
+  }
+
   /**
    * Deserialize value of expected type. After parsing completion used <code>reader</code> remains opened.
    * <p>
@@ -54,4 +80,85 @@ public final class JSON
     Parser parser = new Parser();
     return parser.parse(reader, type);
   }
+
+  /**
+   * Deserialize value of expected type from UTF-8 bytes stream. This method has the same behavior as
+   * {@link #parse(Reader, Type)} but bypasses standard charset decoder: bytes are decoded directly into parser buffer,
+   * with a fast path for ASCII bytes. After parsing completion used <code>stream</code> remains opened.
+   * 
+   * @param stream UTF-8 bytes stream to read from,
+   * @param type expected type.
+   * @param <T> type to auto cast on return, cast compatible with <code>type</code> argument.
+   * @return instance of expected type initialized from JSON bytes stream.
+   * @throws IOException if read operation fails.
+   * @throws JsonException if parsing process fails perhaps due to syntax violation on input.
+   * @throws ClassCastException if given <code>type</code> cannot cast to expected type variable <code>T</code>.
+   */
+  public static <T> T parse(InputStream stream, Type type) throws IOException, JsonException, ClassCastException
+  {
+    Parser parser = new Parser();
+    return parser.parse(stream, type);
+  }
+
+  /**
+   * Iterate top level JSON array elements, binding one element at a time. Returned iterator parses every element on
+   * {@link Iterator#next()}, reusing the same parser logic as {@link #parse(Reader, Type)}; no element is buffered so
+   * memory usage is independent of array length. After iteration completion used <code>reader</code> remains opened.
+   * <p>
+   * Iterator methods do not throw checked exceptions; IO failures are reported as {@link JsonException}.
+   * 
+   * @param reader character stream to read from, positioned on a JSON array,
+   * @param elementType array elements type.
+   * @param <T> type of array elements, cast compatible with <code>elementType</code> argument.
+   * @return lazy iterator over array elements.
+   */
+  public static <T> Iterator<T> iterate(Reader reader, Type elementType)
+  {
+    return new ArrayIterator<T>(new JsonReader(reader), elementType);
+  }
+
+  /**
+   * Iterate top level JSON array elements from UTF-8 bytes stream. This method has the same behavior as
+   * {@link #iterate(Reader, Type)} but bypasses standard charset decoder.
+   * 
+   * @param stream UTF-8 bytes stream to read from, positioned on a JSON array,
+   * @param elementType array elements type.
+   * @param <T> type of array elements, cast compatible with <code>elementType</code> argument.
+   * @return lazy iterator over array elements.
+   */
+  public static <T> Iterator<T> iterate(InputStream stream, Type elementType)
+  {
+    return new ArrayIterator<T>(new JsonReader(stream), elementType);
+  }
+
+  /**
+   * Sequential stream over top level JSON array elements. Stream is backed by {@link #iterate(Reader, Type)} iterator
+   * and is lazy: an element is parsed only when stream pipeline pulls it. After stream completion used
+   * <code>reader</code> remains opened.
+   * 
+   * @param reader character stream to read from, positioned on a JSON array,
+   * @param elementType array elements type.
+   * @param <T> type of array elements, cast compatible with <code>elementType</code> argument.
+   * @return lazy stream of array elements.
+   */
+  public static <T> Stream<T> stream(Reader reader, Type elementType)
+  {
+    Iterator<T> iterator = iterate(reader, elementType);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * Sequential stream over top level JSON array elements from UTF-8 bytes stream. This method has the same behavior as
+   * {@link #stream(Reader, Type)} but bypasses standard charset decoder.
+   * 
+   * @param stream UTF-8 bytes stream to read from, positioned on a JSON array,
+   * @param elementType array elements type.
+   * @param <T> type of array elements, cast compatible with <code>elementType</code> argument.
+   * @return lazy stream of array elements.
+   */
+  public static <T> Stream<T> stream(InputStream stream, Type elementType)
+  {
+    Iterator<T> iterator = iterate(stream, elementType);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+  }
 }
@@ -0,0 +1,402 @@
+package js.tools.commons.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+/**
+ * Streaming JSON pull parser. Allows caller to walk JSON stream token by token, selecting values of interest and skipping
+ * the rest without materializing them. Values are read in place, from lexer buffer, and no object graph is created
+ * unless explicitly requested via {@link #nextObject(Type)}, that delegates {@link Parser} for current value.
+ *
+ * <pre>
+ * JsonReader reader = new JsonReader(stream);
+ * reader.beginArray();
+ * while(reader.hasNext()) {
+ *   reader.beginObject();
+ *   while(reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     if(name.equals("id")) {
+ *       ids.add(reader.nextLong());
+ *     }
+ *     else {
+ *       reader.skipValue();
+ *     }
+ *   }
+ *   reader.endObject();
+ * }
+ * reader.endArray();
+ * </pre>
+ * <p>
+ * This class is not thread safe and is designed to be used on a single JSON stream. As with {@link JSON} parsing, JSON
+ * <code>null</code> literal is recognized in both quoted and not quoted forms.
+ *
+ * @author Iulian Rotaru
+ */
+public final class JsonReader implements Closeable
+{
+  /** Morphological parser supplying tokens. */
+  private final Lexer lexer;
+
+  /** Token fetched from lexer but not yet consumed or {@link Token#NONE} if none. */
+  private int peeked = Token.NONE;
+
+  /**
+   * Create pull parser for JSON characters stream.
+   *
+   * @param reader JSON characters stream.
+   */
+  public JsonReader(Reader reader)
+  {
+    this.lexer = new Lexer(reader);
+  }
+
+  /**
+   * Create pull parser for JSON UTF-8 bytes stream. Bytes are decoded by {@link Utf8Reader}, bypassing standard charset
+   * decoder.
+   *
+   * @param stream JSON UTF-8 bytes stream.
+   */
+  public JsonReader(InputStream stream)
+  {
+    this(new Utf8Reader(stream));
+  }
+
+  /**
+   * Get the kind of the next item from JSON stream, without consuming it.
+   *
+   * @return next item kind.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if JSON stream syntax is not valid.
+   */
+  public JsonToken peek() throws IOException
+  {
+    switch(fetch()) {
+    case Token.LEFT_BRACE:
+      return JsonToken.BEGIN_OBJECT;
+
+    case Token.RIGHT_BRACE:
+      return JsonToken.END_OBJECT;
+
+    case Token.LEFT_SQUARE:
+      return JsonToken.BEGIN_ARRAY;
+
+    case Token.RIGHT_SQUARE:
+      return JsonToken.END_ARRAY;
+
+    case Token.NAME:
+      return JsonToken.NAME;
+
+    case Token.EOF:
+      return JsonToken.END_DOCUMENT;
+
+    default:
+      CharSequence value = lexer.value();
+      if(value == null) {
+        return JsonToken.NULL;
+      }
+      if(lexer.isQuoted()) {
+        return JsonToken.STRING;
+      }
+      if(value.length() > 0 && (value.charAt(0) == 't' || value.charAt(0) == 'f')) {
+        return JsonToken.BOOLEAN;
+      }
+      return JsonToken.NUMBER;
+    }
+  }
+
+  /**
+   * Test if current object or array has more items.
+   *
+   * @return true if current object or array has more items.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if JSON stream syntax is not valid.
+   */
+  public boolean hasNext() throws IOException
+  {
+    int token = fetch();
+    return token != Token.RIGHT_BRACE && token != Token.RIGHT_SQUARE && token != Token.EOF;
+  }
+
+  /**
+   * Consume object start.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not object start.
+   */
+  public void beginObject() throws IOException
+  {
+    consume(Token.LEFT_BRACE);
+  }
+
+  /**
+   * Consume object end.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not object end.
+   */
+  public void endObject() throws IOException
+  {
+    consume(Token.RIGHT_BRACE);
+  }
+
+  /**
+   * Consume array start.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not array start.
+   */
+  public void beginArray() throws IOException
+  {
+    consume(Token.LEFT_SQUARE);
+  }
+
+  /**
+   * Consume array end.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not array end.
+   */
+  public void endArray() throws IOException
+  {
+    consume(Token.RIGHT_SQUARE);
+  }
+
+  /**
+   * Consume object property name and return it.
+   *
+   * @return object property name.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a property name.
+   */
+  public String nextName() throws IOException
+  {
+    consume(Token.NAME);
+    return lexer.string();
+  }
+
+  /**
+   * Consume primitive value and return it as string. Numbers and booleans are returned as they are on JSON stream.
+   *
+   * @return string value, null for JSON <code>null</code>.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a primitive value.
+   */
+  public String nextString() throws IOException
+  {
+    consumeValue();
+    return lexer.string();
+  }
+
+  /**
+   * Consume numeric value and return it as integer.
+   *
+   * @return integer value.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a numeric value.
+   */
+  public int nextInt() throws IOException
+  {
+    return (Integer)nextPrimitive(int.class);
+  }
+
+  /**
+   * Consume numeric value and return it as long integer.
+   *
+   * @return long integer value.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a numeric value.
+   */
+  public long nextLong() throws IOException
+  {
+    return (Long)nextPrimitive(long.class);
+  }
+
+  /**
+   * Consume numeric value and return it as double.
+   *
+   * @return double value.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a numeric value.
+   */
+  public double nextDouble() throws IOException
+  {
+    return (Double)nextPrimitive(double.class);
+  }
+
+  /**
+   * Consume boolean value. Boolean conversion is relaxed, as performed by {@link Converter}.
+   *
+   * @return boolean value.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a primitive value.
+   */
+  public boolean nextBoolean() throws IOException
+  {
+    return (Boolean)nextPrimitive(boolean.class);
+  }
+
+  /**
+   * Consume JSON <code>null</code> literal.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not <code>null</code> literal.
+   */
+  public void nextNull() throws IOException
+  {
+    consumeValue();
+    if(lexer.value() != null) {
+      throw new JsonException("Expected NULL but got |%s|.", lexer.value());
+    }
+  }
+
+  /**
+   * Consume next value, of any kind, and return it as instance of requested type. This method delegates {@link Parser}
+   * for the next value, be it primitive, object or array.
+   *
+   * @param type expected type.
+   * @param <T> type to auto cast on return, cast compatible with <code>type</code> argument.
+   * @return instance of expected type, possible null.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a value or parsing fails.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T nextObject(Type type) throws IOException
+  {
+    int token = fetch();
+    if(token == Token.LEFT_BRACE || token == Token.LEFT_SQUARE) {
+      // parser reads the whole value, starting with already fetched token
+      peeked = Token.NONE;
+      lexer.unread(token);
+      Parser parser = new Parser();
+      return parser.parse(lexer, type);
+    }
+    consumeValue();
+    return (T)Converter.toObject(lexer.value(), type);
+  }
+
+  /**
+   * Skip next value. If next value is an object or array skip it entirely, including nested values. If next item is a
+   * property name skip both name and its value.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if there is no value to skip.
+   */
+  public void skipValue() throws IOException
+  {
+    if(fetch() == Token.NAME) {
+      peeked = Token.NONE;
+    }
+    int depth = 0;
+    do {
+      int token = fetch();
+      peeked = Token.NONE;
+      switch(token) {
+      case Token.LEFT_BRACE:
+      case Token.LEFT_SQUARE:
+        ++depth;
+        break;
+
+      case Token.RIGHT_BRACE:
+      case Token.RIGHT_SQUARE:
+        if(depth == 0) {
+          throw new JsonException("Expected value but got %s.", Token.name(token));
+        }
+        --depth;
+        break;
+
+      case Token.EOF:
+        throw new JsonException("Expected value but got premature stream end.");
+
+      default:
+        // primitive value or, if inside object, property name
+      }
+    } while(depth != 0);
+  }
+
+  /**
+   * Close underlying JSON stream.
+   *
+   * @throws IOException if closing JSON stream fails.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    lexer.close();
+  }
+
+  /**
+   * Fetch next significant token from lexer, if not already fetched. Colon and comma tokens are consumed silently.
+   *
+   * @return next token ordinal.
+   * @throws IOException if reading from JSON stream fails.
+   */
+  private int fetch() throws IOException
+  {
+    if(peeked == Token.NONE) {
+      int token;
+      do {
+        token = lexer.next();
+      } while(token == Token.COLON || token == Token.COMMA);
+      peeked = token;
+    }
+    return peeked;
+  }
+
+  /**
+   * Consume next token asserting it is of expected type.
+   *
+   * @param expected expected token ordinal.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next token is not expected one.
+   */
+  private void consume(int expected) throws IOException
+  {
+    int token = fetch();
+    if(token != expected) {
+      throw new JsonException("Expected %s but got %s.", Token.name(expected), Token.name(token));
+    }
+    peeked = Token.NONE;
+  }
+
+  /**
+   * Consume next token asserting it is a primitive value, that is, a token with value other than property name.
+   * Consumed value is accessible via lexer till next token fetch.
+   *
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next token is not a primitive value.
+   */
+  private void consumeValue() throws IOException
+  {
+    int token = fetch();
+    if(token != Token.VALUE && token != Token.ITEM) {
+      throw new JsonException("Expected VALUE but got %s.", Token.name(token));
+    }
+    peeked = Token.NONE;
+  }
+
+  /**
+   * Consume primitive value and convert it to requested primitive type.
+   *
+   * @param type primitive type.
+   * @return boxed primitive value.
+   * @throws IOException if reading from JSON stream fails.
+   * @throws JsonException if next item is not a primitive value or is <code>null</code>.
+   */
+  private Object nextPrimitive(Class<?> type) throws IOException
+  {
+    consumeValue();
+    CharSequence value = lexer.value();
+    if(value == null) {
+      throw new JsonException("Expected %s but got NULL.", type);
+    }
+    try {
+      return Converter.toObject(value, type);
+    }
+    catch(NumberFormatException e) {
+      throw new JsonException("Invalid %s value |%s|.", type, value);
+    }
+  }
+}
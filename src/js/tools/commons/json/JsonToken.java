@@ -0,0 +1,30 @@
+package js.tools.commons.json;
+
+/**
+ * Kind of the next item from a JSON stream, as reported by {@link JsonReader#peek()}.
+ *
+ * @author Iulian Rotaru
+ */
+public enum JsonToken
+{
+  /** Object start, that is, left brace. */
+  BEGIN_OBJECT,
+  /** Object end, that is, right brace. */
+  END_OBJECT,
+  /** Array start, that is, left square bracket. */
+  BEGIN_ARRAY,
+  /** Array end, that is, right square bracket. */
+  END_ARRAY,
+  /** Object property name. */
+  NAME,
+  /** Quoted string value. */
+  STRING,
+  /** Not quoted numeric value. */
+  NUMBER,
+  /** Not quoted <code>true</code> or <code>false</code> literal. */
+  BOOLEAN,
+  /** JSON <code>null</code> literal. */
+  NULL,
+  /** JSON stream end. */
+  END_DOCUMENT
+}
@@ -0,0 +1,354 @@
+package js.tools.commons.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import js.tools.commons.util.Params;
+
+/**
+ * Streaming JSON writer. Allows caller to push JSON structure incrementally, without building the whole value in
+ * memory, e.g. serialize query results row by row. Values are serialized by {@link Serializer} so that strings escaping
+ * and dates format are the same as {@link JSON#stringify(Writer, Object)}; any value accepted by serializer, including
+ * objects, arrays and maps, can be written with {@link #value(Object)}.
+ *
+ * <pre>
+ * JsonWriter writer = new JsonWriter(httpWriter, 16384);
+ * writer.beginArray();
+ * while(resultSet.next()) {
+ *   writer.beginObject();
+ *   writer.name("id").value(resultSet.getLong(1));
+ *   writer.name("name").value(resultSet.getString(2));
+ *   writer.endObject();
+ * }
+ * writer.endArray();
+ * writer.flush();
+ * </pre>
+ * <p>
+ * Written characters are buffered and target writer is flushed every time buffered characters count reaches flush
+ * threshold; this way first bytes are sent as soon as threshold is reached, not after the whole value is generated.
+ * This class is not thread safe.
+ *
+ * @author Iulian Rotaru
+ */
+public final class JsonWriter implements Closeable, Flushable
+{
+  /** Default flush threshold, in characters. */
+  public static final int DEFAULT_FLUSH_THRESHOLD = 8192;
+
+  /** Writer states, stored on {@link #stack}. */
+  private static final int EMPTY_DOCUMENT = 1;
+  private static final int NONEMPTY_DOCUMENT = 2;
+  private static final int EMPTY_OBJECT = 3;
+  private static final int NONEMPTY_OBJECT = 4;
+  private static final int DANGLING_NAME = 5;
+  private static final int EMPTY_ARRAY = 6;
+  private static final int NONEMPTY_ARRAY = 7;
+
+  /** Buffered writer that flushes target when flush threshold is reached. */
+  private final Writer writer;
+
+  /** Serializer for names and values, bound to {@link #writer}. */
+  private final Serializer serializer;
+
+  /** States stack for nested objects and arrays; top of the stack is current state. */
+  private int[] stack = new int[32];
+
+  /** Number of states from {@link #stack}. */
+  private int stackSize;
+
+  /**
+   * Create streaming writer with {@link #DEFAULT_FLUSH_THRESHOLD}.
+   *
+   * @param writer target characters stream.
+   */
+  public JsonWriter(Writer writer)
+  {
+    this(writer, DEFAULT_FLUSH_THRESHOLD);
+  }
+
+  /**
+   * Create streaming writer with given flush threshold.
+   *
+   * @param writer target characters stream,
+   * @param flushThreshold number of buffered characters that triggers target writer flush.
+   * @throws IllegalArgumentException if <code>writer</code> is null or flush threshold is not positive.
+   */
+  public JsonWriter(Writer writer, int flushThreshold) throws IllegalArgumentException
+  {
+    Params.notNull(writer, "Writer");
+    Params.isTrue(flushThreshold > 0, "Flush threshold should be positive.");
+    this.writer = new FlushingWriter(writer, flushThreshold);
+    this.serializer = new Serializer(this.writer);
+    this.stack[stackSize++] = EMPTY_DOCUMENT;
+  }
+
+  /**
+   * Write object start.
+   *
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if object is not allowed in current state.
+   */
+  public JsonWriter beginObject() throws IOException
+  {
+    beforeValue();
+    push(EMPTY_OBJECT);
+    writer.write('{');
+    return this;
+  }
+
+  /**
+   * Write object end.
+   *
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if there is no object to close.
+   */
+  public JsonWriter endObject() throws IOException
+  {
+    pop(EMPTY_OBJECT, NONEMPTY_OBJECT);
+    writer.write('}');
+    return this;
+  }
+
+  /**
+   * Write array start.
+   *
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if array is not allowed in current state.
+   */
+  public JsonWriter beginArray() throws IOException
+  {
+    beforeValue();
+    push(EMPTY_ARRAY);
+    writer.write('[');
+    return this;
+  }
+
+  /**
+   * Write array end.
+   *
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if there is no array to close.
+   */
+  public JsonWriter endArray() throws IOException
+  {
+    pop(EMPTY_ARRAY, NONEMPTY_ARRAY);
+    writer.write(']');
+    return this;
+  }
+
+  /**
+   * Write object property name. Should be followed by a value.
+   *
+   * @param name property name.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws IllegalArgumentException if <code>name</code> is null.
+   * @throws JsonException if not inside an object or previous name has no value.
+   */
+  public JsonWriter name(String name) throws IOException
+  {
+    Params.notNull(name, "Property name");
+    int state = stack[stackSize - 1];
+    if(state == NONEMPTY_OBJECT) {
+      writer.write(',');
+    }
+    else if(state != EMPTY_OBJECT) {
+      throw new JsonException("Property name |%s| outside object or after another name.", name);
+    }
+    stack[stackSize - 1] = DANGLING_NAME;
+    serializer.writeString(name);
+    writer.write(':');
+    return this;
+  }
+
+  /**
+   * Write string value.
+   *
+   * @param value string value, null accepted.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter value(String value) throws IOException
+  {
+    beforeValue();
+    if(value == null) {
+      writer.write("null");
+    }
+    else {
+      serializer.writeString(value);
+    }
+    return this;
+  }
+
+  /**
+   * Write boolean value.
+   *
+   * @param value boolean value.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter value(boolean value) throws IOException
+  {
+    beforeValue();
+    writer.write(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Write long integer value.
+   *
+   * @param value long integer value.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter value(long value) throws IOException
+  {
+    beforeValue();
+    serializer.writeLong(value);
+    return this;
+  }
+
+  /**
+   * Write double value.
+   *
+   * @param value double value.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter value(double value) throws IOException
+  {
+    beforeValue();
+    serializer.writeDouble(value);
+    return this;
+  }
+
+  /**
+   * Write JSON <code>null</code> literal.
+   *
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter nullValue() throws IOException
+  {
+    beforeValue();
+    writer.write("null");
+    return this;
+  }
+
+  /**
+   * Serialize value of any type supported by {@link JSON#stringify(Writer, Object)}: primitives, strings, dates, enums,
+   * arrays, collections, maps and objects.
+   *
+   * @param value value to serialize, null accepted.
+   * @return this writer.
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  public JsonWriter value(Object value) throws IOException
+  {
+    beforeValue();
+    serializer.serialize(value);
+    return this;
+  }
+
+  /**
+   * Write buffered characters to target writer and flush it.
+   *
+   * @throws IOException if IO write operation fails.
+   */
+  @Override
+  public void flush() throws IOException
+  {
+    writer.flush();
+  }
+
+  /**
+   * Flush buffered characters and close target writer.
+   *
+   * @throws IOException if IO operation fails.
+   * @throws JsonException if there are unclosed objects or arrays.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    writer.close();
+    if(stackSize > 1 || stack[0] != NONEMPTY_DOCUMENT) {
+      throw new JsonException("Incomplete JSON document.");
+    }
+  }
+
+  /**
+   * Update current state before writing a value and write value separator, if the case.
+   *
+   * @throws IOException if IO write operation fails.
+   * @throws JsonException if value is not allowed in current state.
+   */
+  private void beforeValue() throws IOException
+  {
+    switch(stack[stackSize - 1]) {
+    case EMPTY_DOCUMENT:
+      stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+      break;
+
+    case EMPTY_ARRAY:
+      stack[stackSize - 1] = NONEMPTY_ARRAY;
+      break;
+
+    case NONEMPTY_ARRAY:
+      writer.write(',');
+      break;
+
+    case DANGLING_NAME:
+      stack[stackSize - 1] = NONEMPTY_OBJECT;
+      break;
+
+    case NONEMPTY_DOCUMENT:
+      throw new JsonException("JSON document should have a single top level value.");
+
+    default:
+      throw new JsonException("Object value without property name.");
+    }
+  }
+
+  /**
+   * Enter nested object or array.
+   *
+   * @param state nested object or array initial state.
+   */
+  private void push(int state)
+  {
+    if(stackSize == stack.length) {
+      int[] newStack = new int[stack.length * 2];
+      System.arraycopy(stack, 0, newStack, 0, stackSize);
+      stack = newStack;
+    }
+    stack[stackSize++] = state;
+  }
+
+  /**
+   * Exit nested object or array, asserting current state is one of given states.
+   *
+   * @param emptyState empty object or array state,
+   * @param nonemptyState non empty object or array state.
+   * @throws JsonException if current state is not an object, respective array.
+   */
+  private void pop(int emptyState, int nonemptyState)
+  {
+    int state = stack[stackSize - 1];
+    if(state != emptyState && state != nonemptyState) {
+      throw new JsonException("Nesting problem. Closing %s while current state is %d.", emptyState == EMPTY_OBJECT ? "object" : "array", state);
+    }
+    --stackSize;
+  }
+}
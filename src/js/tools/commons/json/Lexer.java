@@ -2,16 +2,20 @@ package js.tools.commons.json;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Stack;
 
 /**
  * Morphological parser. This class deals with words, aka. tokens; reads from characters stream and return specific
- * {@link Token} instances. It is the first stage from deserialization process. On the second, resulting tokens are
- * syntactically analyzed by the {@link Parser}.
+ * tokens. It is the first stage from deserialization process. On the second, resulting tokens are syntactically
+ * analyzed by the {@link Parser}.
+ * <p>
+ * Lexer is a reusable cursor: {@link #next()} advances to the next token and returns its {@link Token} ordinal while
+ * current token value is exposed by {@link #value()} as a character sequence. Value character sequence is a view on
+ * characters reader buffer whenever possible and is valid only till next {@link #next()} invocation; caller should use
+ * {@link #string()} if value should outlive current token. No objects are allocated per token.
  * <p>
  * This class takes care of string escaping, although not by itself but delegating {@link LexerValueBuilder} - used by
  * {@link #collect(char)} helper method.
- * 
+ *
  * @author Iulian Rotaru
  * @since 1.1
  */
@@ -24,24 +28,37 @@ final class Lexer {
 	private static final Token TOKEN_COLON = new Token(Token.COLON);
 	private static final Token TOKEN_COMMA = new Token(Token.COMMA);
 
+	/** Lexer automata states. */
+	private static final int STATE_PRIMITIVE = 1;
+	private static final int STATE_NAME = 2;
+	private static final int STATE_VALUE = 3;
+	private static final int STATE_ITEM = 4;
+	private static final int STATE_EOF = 5;
+
 	/** Character reader instance created outside lexer. */
 	private CharReader reader;
 
 	/** Lexer automata current state. It it initialized for primitives values processing. */
-	private State state = State.PRIMITIVE;
+	private int state = STATE_PRIMITIVE;
 
 	/** Stack for current processing token before entering inner objects and arrays. */
-	private Stack<State> statesStack = new Stack<State>();
+	private int[] statesStack = new int[32];
+
+	/** Number of states stored on {@link #statesStack}. */
+	private int statesCount;
 
-	/** Stack of unreaded tokens. */
-	private Stack<Token> unreadTokens = new Stack<Token>();
+	/** Unread token or {@link Token#NONE} if none. Only tokens without value can be put back. */
+	private int unreadToken = Token.NONE;
 
 	/** Token value builder. */
 	private LexerValueBuilder builder = new LexerValueBuilder();
 
+	/** True if current token value was enclosed in quotation marks. */
+	private boolean quoted;
+
 	/**
 	 * Package private constructor.
-	 * 
+	 *
 	 * @param reader input characters stream.
 	 */
 	Lexer(Reader reader) {
@@ -49,182 +66,236 @@ final class Lexer {
 	}
 
 	/**
-	 * Read next token from characters stream.
-	 * 
-	 * @return next token from characters stream.
+	 * Advance to next token from characters stream and return its ordinal. If returned token has a value it is
+	 * accessible via {@link #value()} or {@link #string()} till next invocation of this method.
+	 *
+	 * @return next token ordinal.
 	 * @throws IOException if reading from input characters stream fails.
-	 * @throws JsonParserException if characters stream morphological structure is violated.
+	 * @throws JsonException if characters stream morphological structure is violated.
 	 */
-	Token read() throws IOException, JsonException {
-		if (state == State.EOF) {
+	int next() throws IOException, JsonException {
+		if (state == STATE_EOF) {
 			throw new JsonException("Attempt to read tokens after stream end.");
 		}
-		if (!unreadTokens.isEmpty()) {
-			return unreadTokens.pop();
+		if (unreadToken != Token.NONE) {
+			int token = unreadToken;
+			unreadToken = Token.NONE;
+			return token;
 		}
 
 		// excerpt for json.org: Whitespace can be inserted between any pair of tokens.
 		char c = nextNonWhiteSpace();
 
 		if (reader.eof()) {
-			state = State.EOF;
-			return TOKEN_EOF;
+			state = STATE_EOF;
+			return Token.EOF;
 		}
 
 		switch (c) {
 		case '{':
-			statesStack.push(state);
-			state = State.NAME;
-			return TOKEN_LEFT_BRACE;
+			pushState();
+			state = STATE_NAME;
+			return Token.LEFT_BRACE;
 
 		case '}':
-			state = statesStack.pop();
-			return TOKEN_RIGHT_BRACE;
+			popState();
+			return Token.RIGHT_BRACE;
 
 		case '[':
-			statesStack.push(state);
-			state = State.ITEM;
-			return TOKEN_LEFT_SQUARE;
+			pushState();
+			state = STATE_ITEM;
+			return Token.LEFT_SQUARE;
 
 		case ']':
-			state = statesStack.pop();
-			return TOKEN_RIGHT_SQUARE;
+			popState();
+			return Token.RIGHT_SQUARE;
 
 		case ':':
-			state = State.VALUE;
-			return TOKEN_COLON;
+			state = STATE_VALUE;
+			return Token.COLON;
 
 		case ',':
-			state = state == State.VALUE ? State.NAME : State.ITEM;
-			return TOKEN_COMMA;
+			state = state == STATE_VALUE ? STATE_NAME : STATE_ITEM;
+			return Token.COMMA;
 
 		default:
-			String string = collect(c);
-			Token token = null;
+			collect(c);
 			switch (state) {
-			case NAME:
-				token = new Token(Token.NAME, string);
-				return token;
+			case STATE_NAME:
+				return Token.NAME;
 
-			case PRIMITIVE:
-			case VALUE:
-				token = new Token(Token.VALUE, string);
-				return token;
+			case STATE_PRIMITIVE:
+			case STATE_VALUE:
+				return Token.VALUE;
 
-			case ITEM:
-				token = new Token(Token.ITEM, string);
-				return token;
+			case STATE_ITEM:
+				return Token.ITEM;
 
 			default:
-				throw new JsonException("Invalid lexer state |%s| when collecting string.", this.state);
+				throw new JsonException("Invalid lexer state |%d| when collecting string.", this.state);
 			}
 		}
 	}
 
 	/**
-	 * Put back the token on characters stream. Actually token is pushed to {@link #unreadTokens} stack but overall lexer
-	 * behavior is like pushing back to reader.
-	 * 
-	 * @param token token to put back.
+	 * Read next token from characters stream. This method creates a token instance for every value token; it is kept for
+	 * convenience but parsing logic should use {@link #next()}.
+	 *
+	 * @return next token from characters stream.
+	 * @throws IOException if reading from input characters stream fails.
+	 * @throws JsonException if characters stream morphological structure is violated.
+	 */
+	Token read() throws IOException, JsonException {
+		int token = next();
+		switch (token) {
+		case Token.EOF:
+			return TOKEN_EOF;
+		case Token.LEFT_BRACE:
+			return TOKEN_LEFT_BRACE;
+		case Token.RIGHT_BRACE:
+			return TOKEN_RIGHT_BRACE;
+		case Token.LEFT_SQUARE:
+			return TOKEN_LEFT_SQUARE;
+		case Token.RIGHT_SQUARE:
+			return TOKEN_RIGHT_SQUARE;
+		case Token.COLON:
+			return TOKEN_COLON;
+		case Token.COMMA:
+			return TOKEN_COMMA;
+		default:
+			return new Token(token, string());
+		}
+	}
+
+	/**
+	 * Get current token value or null if token value is JSON <code>null</code>. Returned character sequence is valid only
+	 * till next invocation of {@link #next()}.
+	 *
+	 * @return current token value, possible null.
+	 */
+	CharSequence value() {
+		return builder.isNull() ? null : builder;
+	}
+
+	/**
+	 * Get current token value as string or null if token value is JSON <code>null</code>.
+	 *
+	 * @return current token value as string, possible null.
 	 */
-	void unread(Token token) {
-		unreadTokens.push(token);
+	String string() {
+		return builder.isNull() ? null : builder.toString();
+	}
+
+	/**
+	 * Test if current token value was enclosed in quotation marks on JSON stream.
+	 *
+	 * @return true if current token value is quoted.
+	 */
+	boolean isQuoted() {
+		return quoted;
+	}
+
+	/**
+	 * Put back the token on characters stream. Only a single token can be put back and it should be a token without value;
+	 * overall lexer behavior is like pushing back to reader.
+	 *
+	 * @param token ordinal of the token to put back.
+	 */
+	void unread(int token) {
+		assert unreadToken == Token.NONE;
+		assert token != Token.NAME && token != Token.VALUE && token != Token.ITEM;
+		unreadToken = token;
 	}
 
 	/**
 	 * Predicate to test if input characters stream is ended.
-	 * 
+	 *
 	 * @return true if wrapped characters stream is ended.
 	 */
 	boolean eof() {
 		return reader.eof();
 	}
 
+	/**
+	 * Close underlying characters stream.
+	 *
+	 * @throws IOException if closing characters stream fails.
+	 */
+	void close() throws IOException {
+		reader.close();
+	}
+
+	/** Save current state before entering inner object or array. */
+	private void pushState() {
+		if (statesCount == statesStack.length) {
+			int[] states = new int[statesStack.length * 2];
+			System.arraycopy(statesStack, 0, states, 0, statesCount);
+			statesStack = states;
+		}
+		statesStack[statesCount++] = state;
+	}
+
+	/** Restore state saved by {@link #pushState()} on inner object or array end. */
+	private void popState() {
+		if (statesCount == 0) {
+			throw new JsonException("Unbalanced closing brace or square.");
+		}
+		state = statesStack[--statesCount];
+	}
+
 	/**
 	 * Get next no white space character or undefined value if EOF reached.
-	 * 
+	 *
 	 * @return next not white space character from reader.
 	 * @throws IOException if IO read operation fails.
 	 */
 	private char nextNonWhiteSpace() throws IOException {
-		char c = 0;
-		do {
-			c = reader.next();
-		} while (Character.isWhitespace(c));
-		return c;
+		reader.skipWhiteSpaces();
+		return reader.next();
 	}
 
 	/**
 	 * Start collecting token value characters, blocking till value complete. This method is invoked with first character from
-	 * token value then enter an internal loop collecting all value characters. Uses {@link #builder} to accumulate characters.
-	 * 
+	 * token value then delegates character reader scanners to find value boundaries. Uses {@link #builder} to accumulate
+	 * characters.
+	 *
 	 * @param c first token value character.
-	 * @return token value.
 	 * @throws IOException if IO read operation fails.
 	 */
-	private String collect(char c) throws IOException {
+	private void collect(char c) throws IOException {
 		builder.clear();
 		c = reader.require(c);
+		quoted = c == '"';
 
-		if (c == '"') {
+		if (quoted) {
 			// collect till next quotation mark but takes care of escaped quotes
-			char previousChar = c;
-			for (;;) {
-				c = reader.require();
-				if (previousChar != '\\' && c == '"') {
-					break;
-				}
-				builder.append(c);
-				previousChar = c;
-			}
+			reader.collectString(builder);
 			reader.skipWhiteSpaces();
-			return builder.toString();
+			return;
 		}
 
-		if (this.state == State.PRIMITIVE) {
+		// put back first character so that primitive value can be scanned in place, from reader buffer
+		reader.unread(c);
+		if (this.state == STATE_PRIMITIVE) {
 			// here we have a primitive value other than string, processed above; collect all till end of stream
 			// primitive values cannot contain white spaces
-			// at this point c variable holds first character from primitive value - is guaranteed to not be white space
-			for (; !reader.eof() && !Character.isWhitespace(c);) {
-				builder.append(c);
-				c = reader.next();
-			}
-			return builder.toString();
+			reader.collectPrimitive(builder, false);
+			return;
 		}
 
 		// collect till next right brace, right square, colon or comma; unread the string end mark
-		FOR_LOOP: for (boolean whitespaceFound = false;;) {
-			if (Character.isWhitespace(c)) {
-				whitespaceFound = true;
-				c = reader.require();
-				continue;
-			}
-			switch (c) {
-			case '}':
-			case ']':
-			case ':':
-			case ',':
-				reader.unread(c);
-				break FOR_LOOP;
+		reader.collectPrimitive(builder, true);
+		c = reader.require(reader.require());
+		switch (c) {
+		case '}':
+		case ']':
+		case ':':
+		case ',':
+			reader.unread(c);
+			break;
 
-			default:
-				if (whitespaceFound) {
-					throw new JsonException("Invalid primitive value with white space.");
-				}
-				builder.append(c);
-				c = reader.require();
-			}
+		default:
+			throw new JsonException("Invalid primitive value with white space.");
 		}
-		return builder.toString();
-	}
-
-	/**
-	 * Lexer automata states.
-	 * 
-	 * @author Iulian Rotaru
-	 * @since 1.1
-	 */
-	private static enum State {
-		NONE, PRIMITIVE, NAME, VALUE, ITEM, EOF
 	}
 }
@@ -1,25 +1,42 @@
 package js.tools.commons.json;
 
 /**
- * Lexer value builder with escape and unicode processing. This helper class is used by {@link Lexer} to collect values as Java
- * strings. Is parser job to convert strings into instances.
- * 
+ * Lexer value builder with escape and unicode processing. This helper class is used by {@link Lexer} to collect values as
+ * character sequences. Is parser job to convert character sequences into instances.
+ * <p>
+ * Value builder is reused for all tokens from a JSON stream. If value characters are available in a single chunk and
+ * there is no escape sequence builder just keeps a view on source characters, most commonly {@link CharReader} buffer
+ * window; this way no characters are copied. If source characters are about to be overwritten, builder owner should
+ * invoke {@link #detach()} in order to copy viewed characters into builder own storage.
+ *
  * @author Iulian Rotaru
  * @since 1.0.2
  */
-final class LexerValueBuilder {
-	/** Internal string builder. */
-	private StringBuilder builder = new StringBuilder();
+final class LexerValueBuilder implements CharSequence {
+	/** Builder own characters storage, used when value is not a view on source characters. */
+	private char[] chars = new char[64];
 
-	/** Unicode value builder. */
-	private StringBuilder unicode = new StringBuilder(4);
+	/** Value length, in characters. */
+	private int length;
+
+	/** Source characters this builder is a view on or null if value is stored on builder own storage. */
+	private char[] source;
+
+	/** Index of the first value character on {@link #source}. */
+	private int offset;
+
+	/** Unicode value accumulated from unicode escape hexadecimal digits. */
+	private int unicode;
+
+	/** Number of hexadecimal digits from current unicode escape. */
+	private int unicodeDigits;
 
 	/** Value builder state machine. */
 	private LexerValueBuilder.State state = State.CHAR;
 
 	/**
 	 * Append character to this string value builder.
-	 * 
+	 *
 	 * @param c character to add.
 	 */
 	void append(char c) {
@@ -29,46 +46,47 @@ final class LexerValueBuilder {
 				state = State.ESCAPE;
 				break;
 			}
-			builder.append(c);
+			put(c);
 			break;
 
 		case ESCAPE:
 			switch (c) {
 			case 'u':
 				state = State.UNICODE;
-				unicode.setLength(0);
+				unicode = 0;
+				unicodeDigits = 0;
 				return;
 
 			case '"':
-				builder.append('"');
+				put('"');
 				break;
 
 			case '\\':
-				builder.append('\\');
+				put('\\');
 				break;
 
 			case '/':
-				builder.append('/');
+				put('/');
 				break;
 
 			case 'b':
-				builder.append('\b');
+				put('\b');
 				break;
 
 			case 'f':
-				builder.append('\f');
+				put('\f');
 				break;
 
 			case 'n':
-				builder.append('\n');
+				put('\n');
 				break;
 
 			case 'r':
-				builder.append('\r');
+				put('\r');
 				break;
 
 			case 't':
-				builder.append('\t');
+				put('\t');
 				break;
 
 			default:
@@ -78,9 +96,13 @@ final class LexerValueBuilder {
 			break;
 
 		case UNICODE:
-			unicode.append(c);
-			if (unicode.length() == 4) {
-				builder.append((char) Integer.parseInt(unicode.toString(), 16));
+			int digit = Character.digit(c, 16);
+			if (digit == -1) {
+				throw new JsonException("Bad JSON syntax. Invalid unicode escape digit |%s|", c);
+			}
+			unicode = (unicode << 4) | digit;
+			if (++unicodeDigits == 4) {
+				put((char) unicode);
 				state = State.CHAR;
 			}
 			break;
@@ -90,23 +112,147 @@ final class LexerValueBuilder {
 		}
 	}
 
-	public void clear() {
-		builder.setLength(0);
+	/**
+	 * Append a range of characters. Characters without escape processing are added in bulk whereas escape sequences are
+	 * processed one character at a time by {@link #append(char)}. It is legal for an escape sequence to span multiple
+	 * invocations.
+	 * <p>
+	 * If this builder is empty and characters range has no escape sequence, characters are not copied; builder becomes a
+	 * view on source characters till {@link #detach()} or {@link #clear()}.
+	 *
+	 * @param chars source characters,
+	 * @param offset index of the first character to append,
+	 * @param length number of characters to append.
+	 */
+	void append(char[] chars, int offset, int length) {
+		if (length == 0) {
+			return;
+		}
+		int end = offset + length;
+		int index = offset;
+		if (state == State.CHAR && this.length == 0) {
+			while (index < end && chars[index] != '\\') {
+				++index;
+			}
+			if (index == end) {
+				this.source = chars;
+				this.offset = offset;
+				this.length = length;
+				return;
+			}
+			index = offset;
+		}
+
+		detach();
+		while (index < end) {
+			if (state == State.CHAR) {
+				int start = index;
+				while (index < end && chars[index] != '\\') {
+					++index;
+				}
+				put(chars, start, index - start);
+				if (index == end) {
+					break;
+				}
+			}
+			append(chars[index++]);
+		}
+	}
+
+	/** Reset this builder for a new value. */
+	void clear() {
+		source = null;
+		length = 0;
+		state = State.CHAR;
+	}
+
+	/**
+	 * Copy viewed source characters into builder own storage. This method should be invoked before source characters are
+	 * overwritten. Does nothing if this builder is not a view on source characters.
+	 */
+	void detach() {
+		if (source != null) {
+			if (length > chars.length) {
+				chars = new char[Math.max(length, chars.length * 2)];
+			}
+			System.arraycopy(source, offset, chars, 0, length);
+			source = null;
+		}
+	}
+
+	/**
+	 * Test if this builder value is JSON <code>null</code> literal.
+	 *
+	 * @return true if value is <code>null</code> literal.
+	 */
+	boolean isNull() {
+		return length == 4 && charAt(0) == 'n' && charAt(1) == 'u' && charAt(2) == 'l' && charAt(3) == 'l';
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return source != null ? source[offset + index] : chars[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().substring(start, end);
 	}
 
 	@Override
 	public String toString() {
-		String s = builder.toString();
-		return s.equals("null") ? null : s;
+		return source != null ? new String(source, offset, length) : new String(chars, 0, length);
+	}
+
+	/**
+	 * Add character to builder own storage.
+	 *
+	 * @param c character to add.
+	 */
+	private void put(char c) {
+		detach();
+		ensureCapacity(length + 1);
+		chars[length++] = c;
+	}
+
+	/**
+	 * Add characters range to builder own storage. Builder should not be a view on source characters.
+	 *
+	 * @param source source characters,
+	 * @param offset index of the first character to add,
+	 * @param count number of characters to add.
+	 */
+	private void put(char[] source, int offset, int count) {
+		ensureCapacity(length + count);
+		System.arraycopy(source, offset, chars, length, count);
+		length += count;
+	}
+
+	/**
+	 * Grow builder own storage, if necessary, to accommodate requested capacity.
+	 *
+	 * @param capacity requested capacity.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > chars.length) {
+			char[] newChars = new char[Math.max(capacity, chars.length * 2)];
+			System.arraycopy(chars, 0, newChars, 0, length);
+			chars = newChars;
+		}
 	}
 
 	/**
 	 * State machine for lexer value builder .
-	 * 
+	 *
 	 * @author Iulian Rotaru
 	 * @since 1.1
 	 */
 	private static enum State {
 		NONE, CHAR, ESCAPE, UNICODE
 	}
-}
\ No newline at end of file
+}
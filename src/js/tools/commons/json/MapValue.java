@@ -2,19 +2,13 @@ package js.tools.commons.json;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Map;
-import java.util.Properties;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import js.tools.commons.BugError;
-import js.tools.commons.util.Classes;
 
 /**
  * Parser helper class for values of type map. This class helps creating map instance of proper type and adding entries.
+ * Map instance is created by the factory registered for map raw type, see {@link CollectionFactories}.
  * <p>
  * Maps are processed as objects on JSON streams and object property name is always string. For this reason map keys are
  * always string. Anyway, map value can have any type.
@@ -23,19 +17,6 @@ import js.tools.commons.util.Classes;
  */
 final class MapValue extends ObjectValue
 {
-  /** Default implementations for maps interfaces. */
-  private static Map<Class<?>, Class<?>> MAPS = new HashMap<Class<?>, Class<?>>();
-  static {
-    Map<Class<?>, Class<?>> m = new HashMap<Class<?>, Class<?>>();
-    m.put(Map.class, HashMap.class);
-    m.put(HashMap.class, HashMap.class);
-    m.put(SortedMap.class, TreeMap.class);
-    m.put(TreeMap.class, TreeMap.class);
-    m.put(Hashtable.class, Hashtable.class);
-    m.put(Properties.class, Properties.class);
-    MAPS = Collections.unmodifiableMap(m);
-  }
-
   /** Map key type initialized from constructor map type, first actual type argument. */
   private Class<?> keyType;
 
@@ -50,11 +31,12 @@ final class MapValue extends ObjectValue
    * parameterized type in order to find out map raw class and value type. Constructor enact sanity checks on given map
    * <code>type</code>, uses its raw type to instantiate map and second type argument to initialize {@link #valueType}.
    * 
-   * @param type parameterized map type.
+   * @param type parameterized map type,
+   * @param expectedSize expected number of entries or -1 if not known.
    * @throws JsonParserException if <code>type</code> is not parameterized, first type argument is not string or second
    *           is missing.
    */
-  MapValue(Type type)
+  MapValue(Type type, int expectedSize)
   {
     super();
 
@@ -73,11 +55,11 @@ final class MapValue extends ObjectValue
     keyType = (Class<?>)actualTypeArguments[0];
     valueType = (Class<?>)actualTypeArguments[1];
 
-    Class<?> implementation = MAPS.get(rawType);
-    if(implementation == null) {
+    CollectionFactory factory = CollectionFactories.get(rawType);
+    if(factory == null) {
       throw new BugError("No registered implementation for map |%s|.", type);
     }
-    instance = Classes.newInstance(implementation);
+    instance = factory.newInstance(parameterizedType, expectedSize);
   }
 
   /**
@@ -1,11 +1,8 @@
 package js.tools.commons.json;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Type;
 
-import js.tools.commons.BugError;
 import js.tools.commons.util.Classes;
-import js.tools.commons.util.Strings;
 
 /**
  * Non generic object value. This class helps parser to create object instance of proper type and set fields values.
@@ -41,14 +38,18 @@ class ObjectValue extends Value
   /** Object not generic type. */
   private Class<?> clazz;
 
+  /** Cached binding plan for object class, null for missing field values. */
+  private ClassBinding binding;
+
   /** Object instance. */
   protected Object instance;
 
   /**
-   * Temporarily store currently working field name. This field name is stored by {@link #setFieldName(String)} and used
-   * by {@link #setValue(Object)}. It is caller responsibility to ensure proper setters invocation order.
+   * Temporarily store currently working field binding, null if object class has no field for current property. This
+   * field binding is stored by {@link #setFieldName(CharSequence)} and used by {@link #setValue(Object)}. It is caller
+   * responsibility to ensure proper setters invocation order.
    */
-  private String fieldName;
+  private ClassBinding.FieldBinding field;
 
   ObjectValue(){}
   
@@ -60,6 +61,7 @@ class ObjectValue extends Value
   ObjectValue(Class<?> clazz)
   {
     this.clazz = clazz;
+    this.binding = ClassBinding.get(clazz);
     this.instance = Classes.newInstance(clazz);
   }
 
@@ -101,57 +103,43 @@ class ObjectValue extends Value
   }
 
   /**
-   * Get the type of named field or null if field does not exist.
+   * Get the type of named field or null if field does not exist. A null type instructs parser to skip JSON value.
    * 
    * @return field type or null.
-   * @throws SecurityException 
-   * @throws NoSuchFieldException 
    */
-  public Type getValueType() throws NoSuchFieldException, SecurityException
+  public Type getValueType()
   {
-    Field field = clazz.getDeclaredField(fieldName);
     return field != null ? field.getGenericType() : null;
   }
 
   /**
-   * Store the name for currently working field. Given <code>fieldName</code> is not checked for existence but just
-   * stored into {@link #fieldName}.
+   * Resolve the binding for currently working field. Field binding is retrieved from class binding plan, see
+   * {@link ClassBinding#getField(CharSequence)}, and is null if object class has no field for given name.
    * 
    * @param fieldName current working field name.
    */
-  public final void setFieldName(String fieldName)
+  public final void setFieldName(CharSequence fieldName)
   {
-    this.fieldName = Strings.toMemberName(fieldName);
+    this.field = binding != null ? binding.getField(fieldName) : null;
   }
 
   /**
-   * Set value for the field identified by field name stored by a previous call to {@link #setFieldName(String)}. If
-   * named field is missing warn to log and just return.
-   * <p>
-   * This setter uses {@link Classes#getFieldEx(Class, String)} to access named class field and benefit from searching
-   * on superclass too.
+   * Set value for the field resolved by a previous call to {@link #setFieldName(CharSequence)}. If named field is missing
+   * just return.
    * 
    * @param value field value, null accepted.
    */
   public void setValue(Object value)
   {
-    try {
-      Field field = clazz.getDeclaredField(fieldName);
-      if(value == null && field.getType().isPrimitive()) {
-        return;
-      }
-      field.setAccessible(true);
-      field.set(instance, Converter.toObject(value, field.getType()));
+    if(field == null) {
+      // log.warn("Missing field from class |%s|. Ignore JSON value.", clazz);
+      return;
     }
-    catch(NoSuchFieldException e) {
-      // log.warn("Missing field |%s| from class |%s|. Ignore JSON value.", fieldName, clazz);
+    try {
+      field.set(instance, value);
     }
     catch(IllegalArgumentException e) {
-      // log.error("Illegal argument |%s| while trying to set field |%s| from class |%s|.", value.getClass(), fieldName,
-      // clazz);
-    }
-    catch(IllegalAccessException e) {
-      throw new BugError(e);
+      // log.error("Illegal argument |%s| while trying to set field from class |%s|.", value.getClass(), clazz);
     }
   }
 }
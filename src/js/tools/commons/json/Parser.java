@@ -1,6 +1,7 @@
 package js.tools.commons.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
 
@@ -22,7 +23,21 @@ final class Parser
 
   public <T> T parse(Reader reader, Type type) throws IOException
   {
-    lexer = new Lexer(reader);
+    return parse(new Lexer(reader), type);
+  }
+
+  /**
+   * Parse value of requested type from tokens supplied by given lexer. Lexer is not required to be positioned at JSON
+   * stream start; parsing stops after requested value end and lexer can be used further, see {@link JsonReader}.
+   * 
+   * @param lexer morphological parser,
+   * @param type expected type.
+   * @return newly created instance of requested type.
+   * @throws IOException if IO read operation fails.
+   */
+  <T> T parse(Lexer lexer, Type type) throws IOException
+  {
+    this.lexer = lexer;
     try {
       return _parse(type);
     }
@@ -37,6 +52,20 @@ final class Parser
     }
   }
 
+  /**
+   * Parse value of requested type from UTF-8 bytes stream. Bytes are decoded by {@link Utf8Reader}, bypassing standard
+   * charset decoder.
+   * 
+   * @param stream UTF-8 bytes stream,
+   * @param type expected type.
+   * @return newly created instance of requested type.
+   * @throws IOException if IO read operation fails.
+   */
+  public <T> T parse(InputStream stream, Type type) throws IOException
+  {
+    return parse(new Utf8Reader(stream), type);
+  }
+
   /**
    * Create instance or expected <code>type</code>, parse tokens from internal lexer and initialize instance fields. It is
    * caller responsibility to ensure JSON stream describe an instance compatible to expected type.
@@ -47,26 +76,24 @@ final class Parser
    * @return newly created instance of requested type.
    * @throws JsonParserException if lexer fails to decode JSON character stream.
    * @throws IOException if IO read operation fails.
-   * @throws SecurityException 
-   * @throws NoSuchFieldException 
    */
   @SuppressWarnings("unchecked")
-  private <T> T _parse(Type type) throws JsonException, IOException, NoSuchFieldException, SecurityException {
+  private <T> T _parse(Type type) throws JsonException, IOException {
       Value value = getValueInstance(type);
-      Token token = null;
+      int token;
 
       TOKENS_LOOP: for (;;) {
-          token = lexer.read();
+          token = lexer.next();
 
           switch (state) {
 
           case NONE:
-              switch (token.ordinal()) {
+              switch (token) {
               case Token.VALUE:
                   // item is used here to support multiple types parsing
                   // multiple types are actually a JSON array but every item with its own type
               case Token.ITEM:
-                  value.set(token.value());
+                  value.set(lexer.value());
                   break TOKENS_LOOP;
 
               case Token.LEFT_BRACE:
@@ -90,22 +117,22 @@ final class Parser
                   throw new JsonException("Closed reader. No data available for parsing.");
 
               default:
-                  throw new JsonException("Invalid start token %s.", token, this.state);
+                  throw new JsonException("Invalid start token %s.", Token.name(token), this.state);
               }
 
           case WAIT_FOR_NAME_OR_CLASS:
-              if (token.ordinal() == Token.NAME) {
-                  if ("class".equals(token.value())) {
+              if (token == Token.NAME) {
+                  if (isClassName(lexer.value())) {
                       if (value != null) {
                           throw new JsonException("Illegal state. User requested type argument on JSON with inbound class.");
                       }
-                      token = lexer.read();
-                      if (token.ordinal() != Token.COLON) {
-                          throw new JsonException("Expected COLON but got %s.", token);
+                      token = lexer.next();
+                      if (token != Token.COLON) {
+                          throw new JsonException("Expected COLON but got %s.", Token.name(token));
                       }
-                      token = lexer.read();
+                      lexer.next();
 
-                      value = getValueInstance(loadClass(token.value()));
+                      value = getValueInstance(loadClass(lexer.string()));
                       state = State.WAIT_FOR_COMMA_OR_RIGHT_BRACE;
                       continue;
                   }
@@ -113,7 +140,7 @@ final class Parser
               // fall through WAIT_FOR_NAME case
 
           case WAIT_FOR_NAME:
-              switch (token.ordinal()) {
+              switch (token) {
               case Token.RIGHT_BRACE: // empty object
                   break TOKENS_LOOP;
 
@@ -121,17 +148,17 @@ final class Parser
                   if (!(value instanceof ObjectValue)) {
                       throw new JsonException("Invalid value helper |%s| for target type |%s|.", value.getClass(), type);
                   }
-                  ((ObjectValue) value).setFieldName(token.value());
+                  ((ObjectValue) value).setFieldName(lexer.value());
                   state = State.WAIT_FOR_COLON;
                   continue;
 
               default:
-                  throw new JsonException("Invalid token |%s| while waiting for a name.", token);
+                  throw new JsonException("Invalid token |%s| while waiting for a name.", Token.name(token));
               }
 
           case WAIT_FOR_COLON:
-              if (token.ordinal() != Token.COLON) {
-                  throw new JsonException("Expected COLON but got |%s|.", token);
+              if (token != Token.COLON) {
+                  throw new JsonException("Expected COLON but got |%s|.", Token.name(token));
               }
               state = State.WAIT_FOR_VALUE;
               continue;
@@ -141,7 +168,7 @@ final class Parser
                   throw new JsonException("Invalid value helper |%s| for target type |%s|.", value.getClass(), type);
               }
               final ObjectValue objectValue = (ObjectValue) value;
-              switch (token.ordinal()) {
+              switch (token) {
               case Token.LEFT_BRACE:
               case Token.LEFT_SQUARE:
                   state = State.NONE;
@@ -151,16 +178,16 @@ final class Parser
                   continue;
 
               case Token.VALUE:
-                  objectValue.setValue(token.value());
+                  objectValue.setValue(lexer.value());
                   state = State.WAIT_FOR_COMMA_OR_RIGHT_BRACE;
                   continue;
 
               default:
-                  throw new JsonException("Expect VALUE, LEFT_BRACE or LEFT_SQUARE but got %s.", token);
+                  throw new JsonException("Expect VALUE, LEFT_BRACE or LEFT_SQUARE but got %s.", Token.name(token));
               }
 
           case WAIT_FOR_COMMA_OR_RIGHT_BRACE:
-              if (token.ordinal() == Token.COMMA) {
+              if (token == Token.COMMA) {
                   if (value instanceof MapValue) {
                       state = State.WAIT_FOR_KEY;
                   } else {
@@ -168,8 +195,8 @@ final class Parser
                   }
                   continue;
               }
-              if (token.ordinal() != Token.RIGHT_BRACE) {
-                  throw new JsonException("Expected RIGHT_BRACE but got %s. Maybe missing comma.", token);
+              if (token != Token.RIGHT_BRACE) {
+                  throw new JsonException("Expected RIGHT_BRACE but got %s. Maybe missing comma.", Token.name(token));
               }
               break TOKENS_LOOP;
 
@@ -178,7 +205,7 @@ final class Parser
                   throw new JsonException("Invalid value helper |%s| for target type |%s|.", value.getClass(), type);
               }
               final MapValue mapValue = (MapValue) value;
-              switch (token.ordinal()) {
+              switch (token) {
               case Token.LEFT_BRACE:
                   state = State.NONE;
                   lexer.unread(token);
@@ -190,17 +217,18 @@ final class Parser
                   break TOKENS_LOOP;
 
               case Token.NAME:
-                  mapValue.setKey(token.value());
+                  // map key outlives current token and should be materialized as string
+                  mapValue.setKey(lexer.string());
                   state = State.WAIT_FOR_COLON;
                   break;
 
               default:
-                  throw new JsonException("Unexpected token |%s| while waiting for map key.", token);
+                  throw new JsonException("Unexpected token |%s| while waiting for map key.", Token.name(token));
               }
               break;
 
           case WAIT_FOR_ITEM:
-              switch (token.ordinal()) {
+              switch (token) {
               case Token.LEFT_BRACE: // object inside array
               case Token.LEFT_SQUARE: // array inside array
                   state = State.NONE;
@@ -213,22 +241,22 @@ final class Parser
                   break TOKENS_LOOP;
 
               case Token.ITEM:
-                  value.set(token.value());
+                  value.set(lexer.value());
                   state = State.WAIT_FOR_COMMA_OR_RIGHT_SQUARE;
                   continue;
 
               default:
-                  throw new JsonException("Expect ITEM, LEFT_BRACE or LEFT_SQUARE but got %s.", token);
+                  throw new JsonException("Expect ITEM, LEFT_BRACE or LEFT_SQUARE but got %s.", Token.name(token));
               }
               // fall through WAIT_FOR_COMMA_OR_RIGHT_SQUARE case
 
           case WAIT_FOR_COMMA_OR_RIGHT_SQUARE:
-              if (token.ordinal() == Token.COMMA) {
+              if (token == Token.COMMA) {
                   state = State.WAIT_FOR_ITEM;
                   continue;
               }
-              if (token.ordinal() != Token.RIGHT_SQUARE) {
-                  throw new JsonException("Expected RIGHT_SQUARE but got %s. Maybe missing comma.", token);
+              if (token != Token.RIGHT_SQUARE) {
+                  throw new JsonException("Expected RIGHT_SQUARE but got %s. Maybe missing comma.", Token.name(token));
               }
               break TOKENS_LOOP;
           }
@@ -239,12 +267,25 @@ final class Parser
   }
 
   /**
-   * Get parser value helper instance suitable for handling the given type.
+   * Get parser value helper instance suitable for handling the given type. This factory is shared with
+   * {@link BinaryParser}.
    * 
    * @param type type to get value helper for.
    * @return value helper instance.
    */
-  private Value getValueInstance(Type type) {
+  static Value getValueInstance(Type type) {
+      return getValueInstance(type, -1);
+  }
+
+  /**
+   * Get parser value helper instance for given type, with known number of items. Collections and maps are created with
+   * capacity for expected size, see {@link CollectionFactory#newInstance(java.lang.reflect.ParameterizedType, int)}.
+   * 
+   * @param type type to get value helper for,
+   * @param expectedSize expected number of items or -1 if not known.
+   * @return value helper instance.
+   */
+  static Value getValueInstance(Type type, int expectedSize) {
       if (type == null) {
           return new MissingFieldValue();
       }
@@ -252,13 +293,13 @@ final class Parser
           return new ArrayValue(type);
       }
       if (Types.isCollection(type)) {
-          return new CollectionValue(type);
+          return new CollectionValue(type, expectedSize);
       }
-      if (Types.isPrimitiveLike(type)) {
+      if (Types.isPrimitiveLike(type) || Converter.isRegistered(type)) {
           return new PrimitiveValue((Class<?>) type);
       }
       if (Types.isMap(type)) {
-          return new MapValue(type);
+          return new MapValue(type, expectedSize);
       }
 
       // at this point type should denote a not parameterized strict object
@@ -268,6 +309,16 @@ final class Parser
       return new ObjectValue((Class<?>) type);
   }
 
+  /**
+   * Test if object property name is the reserved <code>class</code> name.
+   * 
+   * @param name object property name, possible null.
+   * @return true if property name is <code>class</code>.
+   */
+  private static boolean isClassName(CharSequence name) {
+      return name != null && "class".contentEquals(name);
+  }
+
   /**
    * Load named class.
    * 
@@ -0,0 +1,34 @@
+package js.tools.commons.json;
+
+import java.lang.reflect.Type;
+
+/**
+ * Converter for values represented on JSON streams as strings, a.k.a. scalars. Implementations are registered with
+ * {@link Converter#register(Class, ScalarConverter)} in order to extend the set of types supported by JSON parser and
+ * serializer, e.g. <code>BigInteger</code>, <code>UUID</code> or <code>LocalDate</code>.
+ * <p>
+ * Converter instances are shared and invoked concurrently; implementations should be thread safe.
+ *
+ * @author Iulian Rotaru
+ * @param <T> converted type.
+ */
+public interface ScalarConverter<T>
+{
+  /**
+   * Create value instance from JSON scalar. Given character sequence is valid only for this method invocation and
+   * should not be retained; use its string value if necessary.
+   *
+   * @param value scalar characters, never null,
+   * @param type requested type, the type converter was registered for.
+   * @return value instance, possible null.
+   */
+  T asObject(CharSequence value, Type type);
+
+  /**
+   * Get JSON scalar for value instance. Returned string is escaped and written on JSON stream in quotation marks.
+   *
+   * @param value value instance, never null.
+   * @return scalar string.
+   */
+  String asString(T value);
+}
@@ -3,15 +3,14 @@ package js.tools.commons.json;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
 import java.util.TimeZone;
 
-import js.tools.commons.BugError;
 import js.tools.commons.util.Params;
 import js.tools.commons.util.Types;
 
@@ -26,7 +25,7 @@ import js.tools.commons.util.Types;
  * could lead to <code>null</code> replacement:
  * <ol>
  * <li>a value is a Hibernate PersistentCollection mapped lazily and attempt to access it outside Hibernate Session,
- * <li>circular dependency discovered, see {@link #circularDependenciesStack}.
+ * <li>circular dependency discovered, see {@link #visitedValues}.
  * </ol>
  * <p>
  * Serializer supports an extension used merely by this library: add class name before actual serialized value.
@@ -53,14 +52,18 @@ final class Serializer
   /** External created writer instance initialized by {@link #serialize(Writer, Object)} entry point. */
   private Writer writer;
 
+  /** Scratch buffer for numbers digits and dates, written to {@link #writer} in a single operation. */
+  private final char[] scratch = new char[32];
+
   /** Include class name before actual serialized value. This is a non standard extension used primarily by library. */
   private boolean includeClass;
 
   /**
-   * Circular dependencies stack keeps track of processed values. Values are pushed just before entering the actual
-   * serialization and extracted at final. See {@link #serialize(Object)}.
+   * Aggregated values on current serialization path, compared by identity, used to detect circular dependencies. Values
+   * are added just before entering the actual serialization and removed at final. See {@link #serialize(Object)}. Null
+   * if circular dependencies tracking is disabled.
    */
-  private Stack<Object> circularDependenciesStack = new Stack<Object>();
+  private Set<Object> visitedValues = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
 
   /** Create default serializer. */
   public Serializer()
@@ -79,6 +82,27 @@ final class Serializer
     this.includeClass = includeClass;
   }
 
+  /**
+   * Create serializer instance bound to given writer. Writer is used as it is, without buffering; this constructor is
+   * used by {@link JsonWriter} that takes care of buffering and flushing and invokes {@link #serialize(Object)} and
+   * {@link #writeString(String)} directly.
+   * 
+   * @param writer characters stream.
+   */
+  Serializer(Writer writer)
+  {
+    this.writer = writer;
+  }
+
+  /**
+   * Disable circular dependencies tracking. This is an optimization for trusted, acyclic values graph; if values graph
+   * has nevertheless circular dependencies serialization does not end, most probably with stack overflow.
+   */
+  void disableCycleTracking()
+  {
+    visitedValues = null;
+  }
+
   /**
    * Serialize primitive or aggregated value to given writer. Writer is flushed after serialization completes but is
    * left opened.
@@ -101,53 +125,58 @@ final class Serializer
    * but for value serialization re-invoke this method. If value is null uses {@link #KEYWORD_NULL}.
    * <p>
    * Because for non primitive values this method is executed recursively it implements protection against circular
-   * dependencies. When a circular dependency is discovered replace value with null and record to error log. For
-   * circular dependencies protection uses {@link #circularDependenciesStack}. Value to serialize is pushed to stack
-   * just before processing and extracted after. If value it is already in stack replace it with null and dump the stack
-   * to error log.
+   * dependencies. When a circular dependency is discovered replace value with null. For circular dependencies
+   * protection uses {@link #visitedValues}. Aggregated value to serialize is added to visited values just before
+   * processing and removed after. If value is already visited, by identity, replace it with null. Primitive values,
+   * strings, dates and enumerations cannot form cycles and are not tracked.
    * 
    * @param value primitive or aggregated value.
    * @throws IOException if IO write operation fails.
    */
-  private void serialize(Object value) throws IOException
+  void serialize(Object value) throws IOException
   {
     if(value == null) {
       write(KEYWORD_NULL);
       return;
     }
 
-    if(circularDependenciesStack.contains(value)) {
-      write(KEYWORD_NULL);
+    if(Types.isBoolean(value)) {
+      write(Boolean.toString((boolean)value));
       return;
     }
-    circularDependenciesStack.push(value);
 
-    try {
-      if(Types.isBoolean(value)) {
-        write(Boolean.toString((boolean)value));
-        return;
-      }
+    if(Types.isNumber(value)) {
+      writeNumber(value);
+      return;
+    }
 
-      if(Types.isNumber(value)) {
-        write(value.toString());
-        return;
-      }
+    if(value instanceof String) {
+      writeString((String)value);
+      return;
+    }
 
-      if(value instanceof String) {
-        writeString((String)value);
-        return;
-      }
+    if(value instanceof Date) {
+      writeDate((Date)value);
+      return;
+    }
 
-      if(value instanceof Date) {
-        writeDate((Date)value);
-        return;
-      }
+    if(value instanceof Enum) {
+      writeEnum((Enum<?>)value);
+      return;
+    }
 
-      if(Types.isEnum(value.getClass())) {
-        writeEnum(value);
-        return;
-      }
+    ScalarConverter<Object> converter = Converter.getRegisteredConverter(value.getClass());
+    if(converter != null) {
+      writeString(converter.asString(value));
+      return;
+    }
+
+    if(visitedValues != null && !visitedValues.add(value)) {
+      write(KEYWORD_NULL);
+      return;
+    }
 
+    try {
       if(Types.isArrayLike(value)) {
         serializeArray(value);
         return;
@@ -161,17 +190,29 @@ final class Serializer
       serializeObject(value);
     }
     finally {
-      circularDependenciesStack.pop();
+      if(visitedValues != null) {
+        visitedValues.remove(value);
+      }
     }
   }
 
-  @SuppressWarnings(
-  {
-      "unchecked", "rawtypes"
-  })
-  private void writeEnum(Object value) throws IOException
+  /**
+   * Write enumeration constant. Uses pre-escaped literal from enumeration converter, see {@link EnumConverter}; if a
+   * custom converter was registered for enumeration class write its string value.
+   * 
+   * @param value enumeration constant.
+   * @throws IOException if writer fails to write.
+   */
+  @SuppressWarnings("unchecked")
+  private void writeEnum(Enum<?> value) throws IOException
   {
-    writeString(Enum.valueOf((Class)value.getClass(), value.toString()).name());
+    // constants with body are instances of anonymous subclasses; converters are bound to declaring class
+    ScalarConverter<?> converter = Converter.getConverter(value.getDeclaringClass());
+    if(converter instanceof EnumConverter) {
+      write(((EnumConverter<?>)converter).getLiteral(value));
+      return;
+    }
+    writeString(((ScalarConverter<Object>)converter).asString(value));
   }
 
   /**
@@ -183,6 +224,11 @@ final class Serializer
    */
   private void serializeArray(Object value) throws IOException
   {
+    Class<?> componentType = value.getClass().getComponentType();
+    if(componentType != null && componentType.isPrimitive() && serializePrimitiveArray(value)) {
+      return;
+    }
+
     write('[');
     int index = 0;
 
@@ -196,6 +242,93 @@ final class Serializer
     write(']');
   }
 
+  /**
+   * Serialize primitive array without boxing its items. Supports arrays of all numeric primitives and booleans; returns
+   * false for char arrays that are serialized by {@link #serializeArray(Object)} generic logic.
+   * 
+   * @param value primitive array.
+   * @return true if array was serialized.
+   * @throws IOException if IO write operation fails.
+   */
+  private boolean serializePrimitiveArray(Object value) throws IOException
+  {
+    if(value instanceof int[]) {
+      int[] array = (int[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeLong(array[i]);
+      }
+    }
+    else if(value instanceof long[]) {
+      long[] array = (long[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeLong(array[i]);
+      }
+    }
+    else if(value instanceof double[]) {
+      double[] array = (double[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeDouble(array[i]);
+      }
+    }
+    else if(value instanceof float[]) {
+      float[] array = (float[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeFloat(array[i]);
+      }
+    }
+    else if(value instanceof short[]) {
+      short[] array = (short[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeLong(array[i]);
+      }
+    }
+    else if(value instanceof byte[]) {
+      byte[] array = (byte[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        writeLong(array[i]);
+      }
+    }
+    else if(value instanceof boolean[]) {
+      boolean[] array = (boolean[])value;
+      write('[');
+      for(int i = 0; i < array.length; ++i) {
+        if(i > 0) {
+          write(',');
+        }
+        write(array[i] ? "true" : "false");
+      }
+    }
+    else {
+      return false;
+    }
+    write(']');
+    return true;
+  }
+
   /**
    * Serialize value map entries separated by comma, key/value pair being separated by colon, all in curly braces. A map
    * is serialized like an object in opening and closing curly braces. For key and value serialization this method
@@ -228,13 +361,16 @@ final class Serializer
   }
 
   /**
-   * Serialize opening curly brace, all fields separated by comma and closing curly brace. All fields are serialized, in
-   * no particular order, except static and transient. If {@link #includeClass} flag is true fields serialization is
-   * preceded by value object class name. Also this method process superclass hierarchy as long as superclass is part of
-   * the same package as given value object.
+   * Serialize opening curly brace, all fields separated by comma and closing curly brace. All fields are serialized,
+   * except static and transient. If {@link #includeClass} flag is true fields serialization is preceded by value object
+   * class name. Also this method process superclass hierarchy as long as superclass is part of the same package as given
+   * value object.
+   * <p>
+   * Fields list and order are resolved once per class by {@link ClassSerializer}, that is, there is no reflection lookup
+   * when serializing instances of an already processed class.
    * <p>
    * Note that this method hides a recursive call to {@link #serialize(Object)} via
-   * {@link #serializeField(Object, Field)}.
+   * {@link #serializeField(Object, ClassSerializer.FieldSerializer)}.
    * 
    * @param value value object to serialize.
    * @throws IOException if IO write operation fails.
@@ -257,82 +393,191 @@ final class Serializer
       ++index;
     }
 
-    for(Field field : clazz.getDeclaredFields()) {
-      if(field.isSynthetic()) {
-        // do not include synthetic fields like outer 'this' for anonymous inner classes
-        continue;
-      }
-      int m = field.getModifiers();
-      if(Modifier.isStatic(m) || Modifier.isTransient(m)) {
-        continue;
-      }
+    for(ClassSerializer.FieldSerializer field : ClassSerializer.get(clazz).getFields()) {
       if(index++ > 0) {
         write(',');
       }
       serializeField(value, field);
     }
 
-    // include super classes fields as long as they are in the same package
-    Package classPackage = clazz.getPackage();
-    Class<?> superclass = clazz.getSuperclass();
-    while(superclass != null && classPackage.equals(superclass.getPackage())) {
-      for(Field field : superclass.getDeclaredFields()) {
-        int m = field.getModifiers();
-        if(Modifier.isStatic(m) || Modifier.isTransient(m)) {
-          continue;
-        }
-        if(index++ > 0) {
-          write(',');
-        }
-        serializeField(value, field);
-      }
-      superclass = superclass.getSuperclass();
-    }
-
     write('}');
   }
 
   /**
-   * Serialize field name, colon as value separator and field value. Note that field value is processed by invoking
-   * recursively {@link #serialize(Object)}.
+   * Serialize field name, colon as value separator and field value. Primitive and string fields are written directly,
+   * without boxing; other field values are processed by invoking recursively {@link #serialize(Object)}.
    * 
    * @param value value object field belongs to,
-   * @param field field reflective descriptor.
+   * @param field field serializer.
    * @throws IOException if IO write operation fails.
    */
-  private void serializeField(Object value, Field field) throws IOException
+  private void serializeField(Object value, ClassSerializer.FieldSerializer field) throws IOException
   {
-    field.setAccessible(true);
-    writeString(field.getName());
-    write(':');
-    serialize(getFieldValue(value, field));
+    write(field.getPrefix());
+    switch(field.getKind()) {
+    case ClassSerializer.KIND_STRING:
+      String string = (String)field.get(value);
+      if(string == null) {
+        write(KEYWORD_NULL);
+      }
+      else {
+        writeString(string);
+      }
+      break;
+
+    case ClassSerializer.KIND_BOOLEAN:
+      write(field.getBoolean(value) ? "true" : "false");
+      break;
+
+    case ClassSerializer.KIND_INT:
+      writeLong(field.getInt(value));
+      break;
+
+    case ClassSerializer.KIND_LONG:
+      writeLong(field.getLong(value));
+      break;
+
+    case ClassSerializer.KIND_FLOAT:
+      writeFloat(field.getFloat(value));
+      break;
+
+    case ClassSerializer.KIND_DOUBLE:
+      writeDouble(field.getDouble(value));
+      break;
+
+    default:
+      serialize(field.get(value));
+    }
   }
 
   /**
-   * Get field value from given instance.
+   * Write numeric value. Standard integer and floating point values are written by dedicated digit writers; other
+   * numbers, e.g. big decimals, are written as returned by {@link Object#toString()}.
    * 
-   * @param instance object instance to get field value from,
-   * @param field field reflective descriptor.
-   * @return instance field value.
+   * @param value numeric value.
+   * @throws IOException if IO write operation fails.
    */
-  private static Object getFieldValue(Object instance, Field field)
+  private void writeNumber(Object value) throws IOException
   {
-    try {
-      return field.get(instance);
+    if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      writeLong(((Number)value).longValue());
+      return;
+    }
+    if(value instanceof Double) {
+      writeDouble((Double)value);
+      return;
+    }
+    if(value instanceof Float) {
+      writeFloat((Float)value);
+      return;
     }
-    catch(IllegalArgumentException e) {
-      throw new BugError("Value object |%s| is not an instance.", instance.getClass());
+    write(value.toString());
+  }
+
+  /**
+   * Write integer value digits directly to JSON stream, without creating a string.
+   * 
+   * @param value integer value.
+   * @throws IOException if IO write operation fails.
+   */
+  void writeLong(long value) throws IOException
+  {
+    if(value == Long.MIN_VALUE) {
+      // negated minimum value overflows
+      write(Long.toString(value));
+      return;
     }
-    catch(IllegalAccessException ignore) {
-      throw new RuntimeException("Field with accesibily set to true throws illegal access.");
+    boolean negative = value < 0;
+    if(negative) {
+      value = -value;
     }
-    catch(RuntimeException e) {
-      // best effort: on any error returns null
+    int index = scratch.length;
+    do {
+      scratch[--index] = (char)('0' + value % 10);
+      value /= 10;
+    } while(value != 0);
+    if(negative) {
+      scratch[--index] = '-';
     }
-    return null;
+    writer.write(scratch, index, scratch.length - index);
   }
 
+  /**
+   * Write double value. Integral values with less than 8 digits are written by {@link #writeLong(long)} followed by
+   * <code>.0</code>; this is the format produced by {@link Double#toString(double)} that is used for all other values.
+   * 
+   * @param value double value.
+   * @throws IOException if IO write operation fails.
+   */
+  void writeDouble(double value) throws IOException
+  {
+    if(isSmallIntegral(value)) {
+      writeLong((long)value);
+      write('.');
+      write('0');
+      return;
+    }
+    write(Double.toString(value));
+  }
+
+  /**
+   * Write float value. Integral values with less than 8 digits are written by {@link #writeLong(long)} followed by
+   * <code>.0</code>; this is the format produced by {@link Float#toString(float)} that is used for all other values.
+   * 
+   * @param value float value.
+   * @throws IOException if IO write operation fails.
+   */
+  private void writeFloat(float value) throws IOException
+  {
+    if(isSmallIntegral(value)) {
+      writeLong((long)value);
+      write('.');
+      write('0');
+      return;
+    }
+    write(Float.toString(value));
+  }
+
+  /**
+   * Test if floating point value is integral and less than 10<sup>7</sup> in absolute value, range where standard
+   * floating point to string conversion does not use scientific notation. Negative zero is not included.
+   * 
+   * @param value floating point value.
+   * @return true if value is a small integral.
+   */
+  private static boolean isSmallIntegral(double value)
+  {
+    return value > -1.0E7 && value < 1.0E7 && value == (long)value && (value != 0 || 1 / value > 0);
+  }
+
+  /**
+   * Write date as ISO-8601 string in UTC, with seconds precision. Dates supported by {@link Iso8601} are formatted
+   * directly from epoch milliseconds; dates before Gregorian calendar adoption or after year 9999 are processed by
+   * legacy calendar based logic.
+   * 
+   * @param value date value.
+   * @throws IOException if IO write operation fails.
+   */
   private void writeDate(Date value) throws IOException
+  {
+    long millis = value.getTime();
+    if(Iso8601.isSupported(millis)) {
+      scratch[0] = '"';
+      int index = Iso8601.format(millis, scratch, 1);
+      scratch[index++] = '"';
+      writer.write(scratch, 0, index);
+      return;
+    }
+    writeCalendarDate(value);
+  }
+
+  /**
+   * Write date as ISO-8601 string using Java calendar, that takes care of Julian calendar and eras.
+   * 
+   * @param value date value.
+   * @throws IOException if IO write operation fails.
+   */
+  private void writeCalendarDate(Date value) throws IOException
   {
     Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
     calendar.setTime(value);
@@ -376,7 +621,7 @@ final class Serializer
    * @param string string to escape and write.
    * @throws IOException if IO write operation fails.
    */
-  private void writeString(String string) throws IOException
+  void writeString(String string) throws IOException
   {
     write('"');
 
@@ -440,6 +685,17 @@ final class Serializer
     writer.write(s);
   }
 
+  /**
+   * Write characters array to internal JSON stream.
+   * 
+   * @param chars characters to write.
+   * @throws IOException if IO write operation fails.
+   */
+  private void write(char[] chars) throws IOException
+  {
+    writer.write(chars);
+  }
+
   /**
    * Write a single character to internal JSON stream. This method is not only convenient but isolate JSON serializer
    * logic from underlying JSON stream.
@@ -6,7 +6,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Immutable lexer token.
+ * Immutable lexer token. Lexer does not create token instances while parsing, it just returns token ordinals; token
+ * instances are created only by {@link Lexer#read()}.
  * 
  * @author Iulian Rotaru
  */
@@ -72,7 +73,17 @@ final class Token {
 
 	@Override
 	public String toString() {
-		return names.get(this.ordinal);
+		return name(this.ordinal);
+	}
+
+	/**
+	 * Get the name of the token with given ordinal, for error reporting.
+	 * 
+	 * @param ordinal token ordinal.
+	 * @return token name.
+	 */
+	static String name(int ordinal) {
+		return names.get(ordinal);
 	}
 
 	private static final Map<Integer, String> names = new HashMap<Integer, String>();
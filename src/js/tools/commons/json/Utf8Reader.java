@@ -0,0 +1,216 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * UTF-8 bytes stream decoder specialized for JSON parsing. Is designed to be wrapped by {@link CharReader} that reads
+ * characters in bulk, and replaces the standard {@link java.io.InputStreamReader} and charset decoder layers.
+ * <p>
+ * JSON structural characters, numbers and literals are always ASCII so the decoding loop has a fast path for ASCII
+ * bytes that are just widened to characters. Multi-byte sequences, that may occur only inside string values, are
+ * decoded inline; malformed sequences are replaced by <code>U+FFFD</code> replacement character. A leading byte order
+ * mark, if present, is skipped.
+ *
+ * @author Iulian Rotaru
+ */
+final class Utf8Reader extends Reader
+{
+  /** Replacement character for malformed bytes sequences. */
+  private static final char REPLACEMENT = '\uFFFD';
+
+  /** Bytes buffer size. */
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Wrapped UTF-8 bytes stream. */
+  private final InputStream stream;
+
+  /** Bytes buffer. */
+  private final byte[] bytes;
+
+  /** Index of the next byte to decode from {@link #bytes}. */
+  private int position;
+
+  /** Number of valid bytes from {@link #bytes}. */
+  private int limit;
+
+  /** True if bytes stream reached its end. */
+  private boolean eof;
+
+  /** True after leading byte order mark test. */
+  private boolean started;
+
+  /** Low surrogate left over from a supplementary character that did not fit into caller buffer, 0 if none. */
+  private char pendingSurrogate;
+
+  /**
+   * Create UTF-8 reader for given bytes stream.
+   *
+   * @param stream UTF-8 bytes stream.
+   */
+  Utf8Reader(InputStream stream)
+  {
+    this.stream = stream;
+    this.bytes = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) throws IOException
+  {
+    if(length == 0) {
+      return 0;
+    }
+    if(!started) {
+      started = true;
+      if(ensure(3) && bytes[position] == (byte)0xEF && bytes[position + 1] == (byte)0xBB && bytes[position + 2] == (byte)0xBF) {
+        position += 3;
+      }
+    }
+
+    int index = offset;
+    int end = offset + length;
+    if(pendingSurrogate != 0) {
+      buffer[index++] = pendingSurrogate;
+      pendingSurrogate = 0;
+    }
+
+    while(index < end) {
+      if(position == limit) {
+        // do not block for more bytes if there are characters already decoded
+        if(index > offset || !ensure(1)) {
+          break;
+        }
+      }
+
+      // ASCII fast path
+      int available = Math.min(end - index, limit - position);
+      int i = 0;
+      for(; i < available; ++i) {
+        byte b = bytes[position + i];
+        if(b < 0) {
+          break;
+        }
+        buffer[index + i] = (char)b;
+      }
+      position += i;
+      index += i;
+      if(i < available) {
+        index = decode(buffer, index, end);
+      }
+    }
+    return index > offset ? index - offset : -1;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    stream.close();
+  }
+
+  /**
+   * Decode multi-byte sequence starting at current bytes position and store resulting character(s) to caller buffer.
+   *
+   * @param buffer caller buffer,
+   * @param index index on caller buffer where to store decoded character,
+   * @param end caller buffer end index.
+   * @return updated caller buffer index.
+   * @throws IOException if bytes stream reading fails.
+   */
+  private int decode(char[] buffer, int index, int end) throws IOException
+  {
+    int b = bytes[position] & 0xFF;
+    int size;
+    int codePoint;
+    int minimum;
+    if(b >= 0xC2 && b <= 0xDF) {
+      size = 2;
+      codePoint = b & 0x1F;
+      minimum = 0x80;
+    }
+    else if(b >= 0xE0 && b <= 0xEF) {
+      size = 3;
+      codePoint = b & 0x0F;
+      minimum = 0x800;
+    }
+    else if(b >= 0xF0 && b <= 0xF4) {
+      size = 4;
+      codePoint = b & 0x07;
+      minimum = 0x10000;
+    }
+    else {
+      ++position;
+      buffer[index++] = REPLACEMENT;
+      return index;
+    }
+
+    if(!ensure(size)) {
+      // premature end of stream; replace leading byte and its continuation bytes, if any, with a single replacement
+      // character and resume decoding from the first byte not part of truncated sequence
+      int i = 1;
+      while(position + i < limit && (bytes[position + i] & 0xC0) == 0x80) {
+        ++i;
+      }
+      position += i;
+      buffer[index++] = REPLACEMENT;
+      return index;
+    }
+    for(int i = 1; i < size; ++i) {
+      int next = bytes[position + i] & 0xFF;
+      if((next & 0xC0) != 0x80) {
+        // malformed sequence; replace leading byte and valid continuation bytes and resume decoding from bad byte
+        position += i;
+        buffer[index++] = REPLACEMENT;
+        return index;
+      }
+      codePoint = (codePoint << 6) | (next & 0x3F);
+    }
+    position += size;
+
+    if(codePoint < minimum || codePoint > Character.MAX_CODE_POINT || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+      buffer[index++] = REPLACEMENT;
+      return index;
+    }
+    if(codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      buffer[index++] = (char)codePoint;
+      return index;
+    }
+    buffer[index++] = Character.highSurrogate(codePoint);
+    if(index < end) {
+      buffer[index++] = Character.lowSurrogate(codePoint);
+    }
+    else {
+      pendingSurrogate = Character.lowSurrogate(codePoint);
+    }
+    return index;
+  }
+
+  /**
+   * Ensure bytes buffer has at least requested number of bytes available, reading from stream if necessary. Returns
+   * false if stream ends before requested bytes count is reached.
+   *
+   * @param count requested bytes count.
+   * @return true if requested bytes count is available.
+   * @throws IOException if bytes stream reading fails.
+   */
+  private boolean ensure(int count) throws IOException
+  {
+    if(limit - position >= count) {
+      return true;
+    }
+    if(position > 0) {
+      System.arraycopy(bytes, position, bytes, 0, limit - position);
+      limit -= position;
+      position = 0;
+    }
+    while(!eof && limit < count) {
+      int read = stream.read(bytes, limit, bytes.length - limit);
+      if(read == -1) {
+        eof = true;
+        break;
+      }
+      limit += read;
+    }
+    return limit >= count;
+  }
+}
@@ -0,0 +1,41 @@
+package js.tools.commons.rmi;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import js.tools.commons.json.BinaryJSON;
+import js.tools.commons.util.Files;
+
+/**
+ * Client side binary writer for remote method parameters. Arguments are encoded with {@link BinaryJSON}, that carries
+ * the same values model as JSON arguments writer, into a more compact stream.
+ * 
+ * @author Iulian Rotaru
+ * @since 1.8
+ * @version draft
+ */
+final class BinaryArgumentsWriter implements ArgumentsWriter
+{
+  @Override
+  public boolean isSynchronous()
+  {
+    return false;
+  }
+
+  @Override
+  public String getContentType()
+  {
+    return BinaryJSON.CONTENT_TYPE;
+  }
+
+  @Override
+  public void write(OutputStream outputStream, Object[] arguments) throws IOException
+  {
+    try {
+      BinaryJSON.stringify(outputStream, arguments);
+    }
+    finally {
+      Files.close(outputStream);
+    }
+  }
+}
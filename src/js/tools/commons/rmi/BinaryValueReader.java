@@ -0,0 +1,29 @@
+package js.tools.commons.rmi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+import js.tools.commons.json.BinaryJSON;
+import js.tools.commons.util.Files;
+
+/**
+ * Binary reader for remote method returned value, encoded with {@link BinaryJSON}.
+ * 
+ * @author Iulian Rotaru
+ * @since 1.8
+ * @version draft
+ */
+final class BinaryValueReader implements ValueReader
+{
+  @Override
+  public Object read(InputStream inputStream, Type returnType) throws IOException
+  {
+    try {
+      return BinaryJSON.parse(inputStream, returnType);
+    }
+    finally {
+      Files.close(inputStream);
+    }
+  }
+}
@@ -1,7 +1,12 @@
 package js.tools.commons.rmi;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
+import js.tools.commons.json.BinaryJSON;
 import js.tools.commons.util.Params;
 
 /**
@@ -33,6 +38,20 @@ public final class ClientEncoders {
 	 * @throws IllegalArgumentException if given arguments list is null or empty.
 	 */
 	public ArgumentsWriter getArgumentsWriter(Object[] arguments) {
+		return getArgumentsWriter(arguments, false);
+	}
+
+	/**
+	 * Factory method for arguments writers, with optional binary encoding. Uses the same heuristic as
+	 * {@link #getArgumentsWriter(Object[])} but if <code>binary</code> flag is true arguments without streams are
+	 * encoded by {@link BinaryArgumentsWriter} instead of {@link JsonArgumentsWriter}.
+	 * 
+	 * @param arguments invocation arguments list, not null or empty,
+	 * @param binary use binary encoding for arguments without streams.
+	 * @return parameters encoder instance.
+	 * @throws IllegalArgumentException if given arguments list is null or empty.
+	 */
+	public ArgumentsWriter getArgumentsWriter(Object[] arguments, boolean binary) {
 		Params.notNullOrEmpty(arguments, "Arguments");
 
 		int streams = 0;
@@ -51,11 +70,125 @@ public final class ClientEncoders {
 			return new MixedArgumentsWriter();
 		}
 
+		if (binary) {
+			return new BinaryArgumentsWriter();
+		}
 		return new JsonArgumentsWriter();
 	}
 
+	/**
+	 * Factory method for arguments writers based on remote method parameter types. Uses the same heuristic as
+	 * {@link #getArgumentsWriter(Object[], boolean)} applied to declared types, a parameter being a stream if its type is
+	 * {@link StreamHandler} or a subclass. It is meant for callers that choose arguments writer once per remote method,
+	 * e.g. remote interface proxies. Returned writer is stateless and can be reused for many requests, except
+	 * {@link MixedArgumentsWriter} that keeps state per request; see {@link #isReusable(ArgumentsWriter)}.
+	 * 
+	 * @param parameterTypes remote method parameter types, not null or empty,
+	 * @param binary use binary encoding for arguments without streams.
+	 * @return parameters encoder instance.
+	 * @throws IllegalArgumentException if given parameter types list is null or empty.
+	 */
+	public ArgumentsWriter getArgumentsWriter(Class<?>[] parameterTypes, boolean binary) {
+		Params.notNullOrEmpty(parameterTypes, "Parameter types");
+
+		int streams = 0;
+		for (Class<?> parameterType : parameterTypes) {
+			if (StreamHandler.class.isAssignableFrom(parameterType)) {
+				++streams;
+			}
+		}
+
+		if (parameterTypes.length == 1) {
+			if (streams != 0) {
+				return new StreamArgumentsWriter();
+			}
+		}
+		if (streams != 0) {
+			return new MixedArgumentsWriter();
+		}
+
+		if (binary) {
+			return new BinaryArgumentsWriter();
+		}
+		return new JsonArgumentsWriter();
+	}
+
+	/**
+	 * Test if arguments writer can be reused for many requests, possible concurrent.
+	 * 
+	 * @param argumentsWriter arguments writer.
+	 * @return true if arguments writer is reusable.
+	 */
+	public boolean isReusable(ArgumentsWriter argumentsWriter) {
+		return !(argumentsWriter instanceof MixedArgumentsWriter);
+	}
+
+	/**
+	 * Factory method for value readers. Choose value reader implementation based on response content type. If response has
+	 * a content encoding returned value reader decodes response stream before reading value from it, see
+	 * {@link #getDecodingStream(InputStream, String)}.
+	 * 
+	 * @param connection HTTP connection with response status received.
+	 * @return value reader instance.
+	 */
 	public ValueReader getValueReader(HttpURLConnection connection) {
-		String contentType = connection.getContentType();
+		ValueReader valueReader = getValueReader(connection.getContentType());
+		if (isIdentity(connection.getContentEncoding())) {
+			return valueReader;
+		}
+		return new DecodingValueReader(valueReader, connection.getContentEncoding());
+	}
+
+	/**
+	 * Test if arguments writer output is worth compressing. Only JSON and multipart arguments are compressed; binary
+	 * encoded arguments are already compact and single stream arguments are usually application specific formats.
+	 * 
+	 * @param argumentsWriter arguments writer.
+	 * @return true if arguments writer output can be compressed.
+	 */
+	public boolean isCompressible(ArgumentsWriter argumentsWriter) {
+		return argumentsWriter instanceof JsonArgumentsWriter || argumentsWriter instanceof MixedArgumentsWriter;
+	}
+
+	/**
+	 * Wrap input stream with decoder for given content encoding. Supported content encodings are <code>gzip</code>,
+	 * <code>x-gzip</code> and <code>deflate</code>, the latter with zlib format as required by HTTP. Null, empty or
+	 * <code>identity</code> content encoding returns input stream as it is.
+	 * 
+	 * @param inputStream encoded input stream,
+	 * @param contentEncoding content encoding, possible null.
+	 * @return decoded input stream.
+	 * @throws IOException if content encoding is not supported or encoded stream header cannot be read.
+	 */
+	public InputStream getDecodingStream(InputStream inputStream, String contentEncoding) throws IOException {
+		if (isIdentity(contentEncoding)) {
+			return inputStream;
+		}
+		String encoding = contentEncoding.toLowerCase().trim();
+		if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+			return new GZIPInputStream(inputStream);
+		}
+		if (encoding.equals("deflate")) {
+			return new InflaterInputStream(inputStream);
+		}
+		throw new IOException(String.format("Not supported content encoding |%s|.", contentEncoding));
+	}
+
+	/**
+	 * Test if content encoding leaves stream as it is.
+	 * 
+	 * @param contentEncoding content encoding, possible null.
+	 * @return true if content encoding is null, empty or <code>identity</code>.
+	 */
+	private static boolean isIdentity(String contentEncoding) {
+		if (contentEncoding == null) {
+			return true;
+		}
+		String encoding = contentEncoding.trim();
+		return encoding.isEmpty() || encoding.equalsIgnoreCase("identity");
+	}
+
+	private ValueReader getValueReader(String contentType) {
 		if (contentType != null) {
 			int parametersSeparatorIndex = contentType.indexOf(';');
 			if (parametersSeparatorIndex != -1) {
@@ -68,6 +201,9 @@ public final class ClientEncoders {
 			if (contentType.equals("application/octet-stream")) {
 				return new StreamValueReader();
 			}
+			if (contentType.equals(BinaryJSON.CONTENT_TYPE)) {
+				return new BinaryValueReader();
+			}
 		}
 		return new UnsupportedContentTypeValueReader();
 	}
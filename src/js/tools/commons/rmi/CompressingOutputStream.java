@@ -0,0 +1,95 @@
+package js.tools.commons.rmi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Request body stream that compresses bodies larger than a threshold. Bytes are buffered until threshold is exceeded;
+ * if it is, request <code>Content-Encoding</code> is set to <code>gzip</code> and buffered and following bytes are
+ * compressed to connection output stream. Bodies not exceeding threshold are sent as they are, when this stream is
+ * closed. Since request headers should be set before connection output stream is opened, connection output stream is
+ * opened only after compression decision is taken.
+ * 
+ * @author Iulian Rotaru
+ * @version draft
+ */
+final class CompressingOutputStream extends OutputStream
+{
+  /** Compressor buffer size. */
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Connection request body is written to. */
+  private final HttpURLConnection connection;
+
+  /** Request body size, in bytes, above which body is compressed. */
+  private final int threshold;
+
+  /** Body bytes buffered while compression decision is pending, null after decision is taken. */
+  private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+  /** Compressor writing to connection output stream, null while buffering. */
+  private OutputStream outputStream;
+
+  /**
+   * Create compressing stream for connection request body.
+   * 
+   * @param connection connection request body is written to,
+   * @param threshold body size, in bytes, above which body is compressed.
+   */
+  CompressingOutputStream(HttpURLConnection connection, int threshold)
+  {
+    this.connection = connection;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public void write(int b) throws IOException
+  {
+    write(new byte[]
+    {
+        (byte)b
+    }, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException
+  {
+    if(outputStream == null) {
+      if(buffer.size() + length <= threshold) {
+        buffer.write(bytes, offset, length);
+        return;
+      }
+      connection.setRequestProperty("Content-Encoding", "gzip");
+      outputStream = new GZIPOutputStream(connection.getOutputStream(), BUFFER_SIZE);
+      buffer.writeTo(outputStream);
+      buffer = null;
+    }
+    outputStream.write(bytes, offset, length);
+  }
+
+  @Override
+  public void flush() throws IOException
+  {
+    if(outputStream != null) {
+      outputStream.flush();
+    }
+  }
+
+  /**
+   * Send buffered body as it is, if threshold was not exceeded, or finish compression. Connection output stream is
+   * closed.
+   */
+  @Override
+  public void close() throws IOException
+  {
+    if(outputStream == null) {
+      outputStream = connection.getOutputStream();
+      buffer.writeTo(outputStream);
+      buffer = null;
+    }
+    outputStream.close();
+  }
+}
@@ -0,0 +1,24 @@
+package js.tools.commons.rmi;
+
+import java.io.Closeable;
+import java.net.HttpURLConnection;
+
+/**
+ * Connection factory that keeps track of opened connections and takes them back when HTTP-RMI transaction completes.
+ * {@link HttpRmi} releases every connection opened by a pool, be transaction successful or not.
+ * 
+ * @author Iulian Rotaru
+ * @version draft
+ */
+public interface ConnectionPool extends ConnectionFactory, Closeable
+{
+  /**
+   * Take back a connection opened by this pool. If connection is reusable, that is, response status was received,
+   * response body left unread by transaction is drained so that underlying socket can be reused; otherwise connection is
+   * disconnected.
+   * 
+   * @param connection connection opened by this pool,
+   * @param reusable true if response status was received and connection can be reused.
+   */
+  void releaseConnection(HttpURLConnection connection, boolean reusable);
+}
@@ -0,0 +1,49 @@
+package js.tools.commons.rmi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Value reader for responses with content encoding, e.g. gzip compressed. Decodes response stream then delegates value
+ * reading to the value reader chosen by response content type.
+ * 
+ * @author Iulian Rotaru
+ * @version draft
+ */
+final class DecodingValueReader implements ValueReader
+{
+  /** Value reader for decoded response stream. */
+  private final ValueReader valueReader;
+
+  /** Response content encoding. */
+  private final String contentEncoding;
+
+  /**
+   * Create value reader decoding response stream.
+   * 
+   * @param valueReader value reader for decoded response stream,
+   * @param contentEncoding response content encoding.
+   */
+  DecodingValueReader(ValueReader valueReader, String contentEncoding)
+  {
+    this.valueReader = valueReader;
+    this.contentEncoding = contentEncoding;
+  }
+
+  /**
+   * Get value reader for decoded response stream.
+   * 
+   * @return value reader.
+   */
+  ValueReader getValueReader()
+  {
+    return valueReader;
+  }
+
+  @Override
+  public Object read(InputStream inputStream, Type returnType) throws IOException
+  {
+    return valueReader.read(ClientEncoders.getInstance().getDecodingStream(inputStream, contentEncoding), returnType);
+  }
+}
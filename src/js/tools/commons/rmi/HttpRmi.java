@@ -1,15 +1,20 @@
 package js.tools.commons.rmi;
 
-import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
@@ -17,6 +22,7 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
 import js.tools.commons.BugError;
+import js.tools.commons.json.BinaryJSON;
 import js.tools.commons.json.JSON;
 import js.tools.commons.util.Classes;
 import js.tools.commons.util.Files;
@@ -30,7 +36,7 @@ public class HttpRmi
   private static final String CLIENT_PACKAGE_SUFIX = ".client";
 
   /** Status code (200) indicating the request succeeded normally. */
-  private static final int SC_OK = 200;
+  static final int SC_OK = 200;
 
   /** Status code (204) for successful processing but no content returned. */
   private static final int SC_NO_CONTENT = 204;
@@ -53,11 +59,20 @@ public class HttpRmi
   /** Status code (503) indicating that the HTTP server is temporarily overloaded, and unable to handle the request. */
   private static final int SC_SERVICE_UNAVAILABLE = 503;
 
-  /** HTTP-RMI connection timeout, in milliseconds. */
-  private static final int CONNECTION_TIMEOUT = 60000;
+  /** Default HTTP-RMI connection timeout, in milliseconds. */
+  static final int CONNECTION_TIMEOUT = 60000;
 
-  /** HTTP-RMI read timeout, in milliseconds. */
-  private static final int READ_TIMEOUT = 120000;
+  /** Default HTTP-RMI read timeout, in milliseconds. */
+  static final int READ_TIMEOUT = 120000;
+
+  /** Accepted media types for returned value. */
+  private static final String ACCEPT = "application/json, text/xml, application/octet-stream";
+
+  /** Accepted media types for returned value if binary encoding is enabled. */
+  private static final String BINARY_ACCEPT = BinaryJSON.CONTENT_TYPE + ", " + ACCEPT;
+
+  /** Accepted content encodings for response body. */
+  static final String ACCEPT_ENCODING = "gzip, deflate";
 
   private final ConnectionFactory connectionFactory;
 
@@ -66,14 +81,29 @@ public class HttpRmi
 
   private final String className;
 
+  /** Remote interface this transaction was created for. */
+  private final Class<?> remoteInterface;
+
   /** Returned value type, default to void. This type should be consistent with remote method signature. */
   private Type returnType = Void.TYPE;
 
   /** Remote method exceptions list as declared into method signature. */
   private List<String> exceptions = new ArrayList<String>();
 
-  /** Remote method arguments writer. */
-  private ArgumentsWriter argumentsWriter;
+  /** Use binary encoding for arguments and accept binary encoded returned value, default to false. */
+  private boolean binary;
+
+  /** Connection timeout, in milliseconds, default to {@link #CONNECTION_TIMEOUT}. */
+  private int connectionTimeout = CONNECTION_TIMEOUT;
+
+  /** Read timeout, in milliseconds, default to {@link #READ_TIMEOUT}. */
+  private int readTimeout = READ_TIMEOUT;
+
+  /** Request body size, in bytes, above which body is gzip compressed; negative, the default, disables compression. */
+  private int compressionThreshold = -1;
+
+  /** Executor for asynchronous invocations, default to {@link AsyncExecutor#INSTANCE}. */
+  private Executor executor;
 
   /**
    * Create HTTP-RMI transaction with default connection factory.
@@ -109,6 +139,63 @@ public class HttpRmi
       className = className.replace(CLIENT_PACKAGE_SUFIX, "");
     }
     this.className = className;
+    this.remoteInterface = remoteInterface;
+  }
+
+  /**
+   * Create proxy implementing remote interface hosted on given URL, using default connection factory. See
+   * {@link #createProxy(ConnectionFactory, Class, String)}.
+   * 
+   * @param remoteInterface remote interface,
+   * @param implementationURL URL where remote implementation is hosted, trailing path separator ignored.
+   * @param <T> remote interface type.
+   * @return remote interface proxy.
+   * @throws IllegalArgumentException if <code>remoteInterface</code> is null or not an interface.
+   */
+  public static <T> T createProxy(Class<T> remoteInterface, String implementationURL)
+  {
+    return createProxy(new DefaultConnectionFactory(), remoteInterface, implementationURL);
+  }
+
+  /**
+   * Create proxy implementing remote interface hosted on given URL. Return type and declared exceptions of every
+   * interface method are read once, when proxy is created, together with remote method URL and arguments writer; proxy
+   * method calls execute HTTP-RMI transactions with this cached metadata. Declared checked exceptions thrown by remote
+   * method are rethrown by proxy method and other transaction failures are reported as {@link RmiException}. Returned
+   * proxy is thread safe.
+   * 
+   * @param connectionFactory connection factory,
+   * @param remoteInterface remote interface,
+   * @param implementationURL URL where remote implementation is hosted, trailing path separator ignored.
+   * @param <T> remote interface type.
+   * @return remote interface proxy.
+   * @throws IllegalArgumentException if <code>remoteInterface</code> is null or not an interface.
+   */
+  public static <T> T createProxy(ConnectionFactory connectionFactory, Class<T> remoteInterface, String implementationURL)
+  {
+    Params.notNull(remoteInterface, "Remote interface");
+    return new HttpRmi(connectionFactory, implementationURL, remoteInterface).createProxy(remoteInterface);
+  }
+
+  /**
+   * Create proxy implementing remote interface of this transaction, see
+   * {@link #createProxy(ConnectionFactory, Class, String)}. Proxy methods use this transaction configuration: binary
+   * encoding, timeouts and compression threshold. Configuration should be completed before proxy creation since binary
+   * encoding is read when remote methods metadata is collected.
+   * 
+   * @param remoteInterface remote interface, the one this transaction was created for.
+   * @param <T> remote interface type.
+   * @return remote interface proxy.
+   * @throws IllegalArgumentException if <code>remoteInterface</code> is null, not an interface or not the remote
+   *           interface of this transaction.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T createProxy(Class<T> remoteInterface)
+  {
+    Params.notNull(remoteInterface, "Remote interface");
+    Params.isTrue(remoteInterface.isInterface(), "Remote interface argument is not an interface.");
+    Params.isTrue(remoteInterface == this.remoteInterface, "Remote interface argument does not match transaction remote interface.");
+    return (T)new RemoteProxy(this, remoteInterface).newInstance();
   }
 
   /**
@@ -137,8 +224,180 @@ public class HttpRmi
     }
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Enable binary encoding, see {@link BinaryJSON}. If enabled, arguments without streams are sent binary encoded and
+   * binary encoded returned value is accepted, in addition to JSON. Remote server should support
+   * {@link BinaryJSON#CONTENT_TYPE} media type.
+   * 
+   * @param binary true to enable binary encoding.
+   */
+  public void setBinary(boolean binary)
+  {
+    this.binary = binary;
+  }
+
+  /**
+   * Set connection timeout. Zero means infinite timeout.
+   * 
+   * @param connectionTimeout connection timeout, in milliseconds.
+   * @throws IllegalArgumentException if <code>connectionTimeout</code> is negative.
+   */
+  public void setConnectionTimeout(int connectionTimeout)
+  {
+    Params.isTrue(connectionTimeout >= 0, "Connection timeout should not be negative.");
+    this.connectionTimeout = connectionTimeout;
+  }
+
+  /**
+   * Set read timeout, that is, the maximum time to wait for remote method response. Zero means infinite timeout.
+   * 
+   * @param readTimeout read timeout, in milliseconds.
+   * @throws IllegalArgumentException if <code>readTimeout</code> is negative.
+   */
+  public void setReadTimeout(int readTimeout)
+  {
+    Params.isTrue(readTimeout >= 0, "Read timeout should not be negative.");
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Enable gzip compression for JSON and multipart request bodies larger than given threshold. Request bodies are
+   * buffered up to threshold size in order to decide if compression is worthwhile. Remote server should support gzip
+   * content encoding for requests. Negative threshold disables request compression, which is the default.
+   * 
+   * @param compressionThreshold request body size, in bytes, above which body is compressed.
+   */
+  public void setCompressionThreshold(int compressionThreshold)
+  {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Set executor for asynchronous invocations, see {@link #invokeAsync(String, Object...)}. If not set uses a shared
+   * executor that creates a virtual thread per invocation on Java runtimes supporting them, respectively a cached pool
+   * of daemon threads on older runtimes.
+   * 
+   * @param executor executor for asynchronous invocations.
+   * @throws IllegalArgumentException if <code>executor</code> is null.
+   */
+  public void setExecutor(Executor executor)
+  {
+    Params.notNull(executor, "Executor");
+    this.executor = executor;
+  }
+
+  /**
+   * Get URL for host where remote method is deployed, without trailing path separator.
+   * 
+   * @return implementation URL.
+   */
+  String getImplementationURL()
+  {
+    return implementationURL;
+  }
+
+  /**
+   * Get qualified name of the remote class, as known by remote server.
+   * 
+   * @return remote class name.
+   */
+  String getClassName()
+  {
+    return className;
+  }
+
+  /**
+   * Get expected type for the returned value.
+   * 
+   * @return returned value type.
+   */
+  Type getReturnType()
+  {
+    return returnType;
+  }
+
+  /**
+   * Test if binary encoding is enabled.
+   * 
+   * @return true if binary encoding is enabled.
+   */
+  boolean isBinary()
+  {
+    return binary;
+  }
+
+  /**
+   * Get simple names of exceptions declared by remote method signature.
+   * 
+   * @return method exceptions list.
+   */
+  List<String> getExceptions()
+  {
+    return exceptions;
+  }
+
+  /**
+   * Asynchronous counterpart of {@link #invoke(String, Object...)}. Remote method is invoked on configured executor,
+   * see {@link #setExecutor(Executor)}, and returned future is completed with remote method returned value or with the
+   * exception thrown by synchronous invocation. Invocation uses the same return type, exceptions list, encoding and
+   * timeouts as synchronous invocation; these should not be changed while asynchronous invocations are pending.
+   * 
+   * @param methodName remote method name,
+   * @param arguments remote method arguments.
+   * @param <T> returned value type.
+   * @return future completed with remote method returned value.
+   */
+  public <T> CompletableFuture<T> invokeAsync(final String methodName, final Object... arguments)
+  {
+    final CompletableFuture<T> future = new CompletableFuture<T>();
+    try {
+      (executor != null ? executor : AsyncExecutor.INSTANCE).execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try {
+            T value = invoke(methodName, arguments);
+            future.complete(value);
+          }
+          catch(Throwable t) {
+            future.completeExceptionally(t);
+          }
+        }
+      });
+    }
+    catch(RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Invoke remote method and return its value. Remote method URL and arguments writer are computed on every call;
+   * remote method return type and exceptions list are those configured by {@link #setReturnType(Type)}, respectively
+   * {@link #setExceptions(Class...)}. For repeated invocations on the same remote interface consider
+   * {@link #createProxy(Class, String)}.
+   * 
+   * @param methodName remote method name,
+   * @param arguments remote method arguments.
+   * @param <T> returned value type.
+   * @return remote method returned value, null for void methods.
+   * @throws Exception if HTTP-RMI transaction fails or remote method throws a declared exception.
+   */
   public <T> T invoke(String methodName, Object... arguments) throws Exception
+  {
+    ArgumentsWriter argumentsWriter = arguments.length > 0 ? ClientEncoders.getInstance().getArgumentsWriter(arguments, binary) : null;
+    return invoke(getMethodURL(methodName), returnType, exceptions, argumentsWriter, arguments);
+  }
+
+  /**
+   * Build URL for named remote method of this transaction remote class.
+   * 
+   * @param methodName remote method name.
+   * @return remote method URL.
+   * @throws MalformedURLException if implementation URL is not valid.
+   */
+  URL getMethodURL(String methodName) throws MalformedURLException
   {
     StringBuilder builder = new StringBuilder();
     builder.append(implementationURL);
@@ -147,55 +406,106 @@ public class HttpRmi
     builder.append('/');
     builder.append(methodName);
     builder.append(".rmi");
+    return new URL(builder.toString());
+  }
+
+  /**
+   * Execute HTTP-RMI transaction with remote method described by given URL, return type and exceptions list.
+   * 
+   * @param url remote method URL,
+   * @param returnType expected type for returned value,
+   * @param exceptions simple names of exceptions declared by remote method signature,
+   * @param argumentsWriter arguments writer, null if there are no arguments,
+   * @param arguments remote method arguments, possible empty.
+   * @param <T> returned value type.
+   * @return remote method returned value, null for void methods.
+   * @throws Exception if HTTP-RMI transaction fails or remote method throws a declared exception.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T invoke(URL url, Type returnType, List<String> exceptions, ArgumentsWriter argumentsWriter, Object[] arguments) throws Exception
+  {
     // TODO: create some sort of logging class
-    System.out.printf("Execute HTTP-RMI on %s\r\n", builder.toString());
+    System.out.printf("Execute HTTP-RMI on %s\r\n", url);
 
-    URL url = new URL(builder.toString());
     HttpURLConnection connection = connectionFactory.openConnection(url);
-    connection.setConnectTimeout(CONNECTION_TIMEOUT);
-    connection.setReadTimeout(READ_TIMEOUT);
-
-    connection.setRequestMethod(arguments == null ? "GET" : "POST");
-
-    connection.setRequestProperty("User-Agent", "j(s)-lib");
-    connection.setRequestProperty("Accept", "application/json, text/xml, application/octet-stream");
-    connection.setRequestProperty("Pragma", "no-cache");
-    connection.setRequestProperty("Cache", "no-cache");
-
-    if(arguments.length > 0) {
-      connection.setDoOutput(true);
-      argumentsWriter = ClientEncoders.getInstance().getArgumentsWriter(arguments);
-      String contentType = argumentsWriter.getContentType();
-      if(contentType != null) {
-        connection.setRequestProperty("Content-Type", contentType);
+    // connection is reusable only after response status was received
+    boolean reusable = false;
+    // connection from a pool is released on transaction end, unless its response stream is returned to caller
+    boolean released = false;
+    try {
+      connection.setConnectTimeout(connectionTimeout);
+      connection.setReadTimeout(readTimeout);
+
+      connection.setRequestMethod(arguments == null ? "GET" : "POST");
+
+      connection.setRequestProperty("User-Agent", "j(s)-lib");
+      connection.setRequestProperty("Accept", binary ? BINARY_ACCEPT : ACCEPT);
+      connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+      connection.setRequestProperty("Pragma", "no-cache");
+      connection.setRequestProperty("Cache", "no-cache");
+
+      if(argumentsWriter != null) {
+        connection.setDoOutput(true);
+        String contentType = argumentsWriter.getContentType();
+        if(contentType != null) {
+          connection.setRequestProperty("Content-Type", contentType);
+        }
+        if(compressionThreshold >= 0 && ClientEncoders.getInstance().isCompressible(argumentsWriter)) {
+          argumentsWriter.write(new CompressingOutputStream(connection, compressionThreshold), arguments);
+        }
+        else {
+          argumentsWriter.write(connection.getOutputStream(), arguments);
+        }
       }
-      argumentsWriter.write(connection.getOutputStream(), arguments);
-    }
 
-    int statusCode = connection.getResponseCode();
-    if(statusCode != SC_OK && statusCode != SC_NO_CONTENT) {
-      onError(connection, statusCode);
-      // error handler throws exception on any status code
-    }
+      int statusCode = connection.getResponseCode();
+      reusable = true;
+      if(statusCode != SC_OK && statusCode != SC_NO_CONTENT) {
+        onError(connection, statusCode, exceptions);
+        // error handler throws exception on any status code
+      }
 
-    if(Types.isVoid(returnType)) {
-      return null;
-    }
-    if(!Types.isVoid(returnType) && connection.getContentLength() == 0) {
-      throw new BugError("Invalid HTTP-RMI transaction with |%s|. Expect return value of type |%s| but got empty response.", connection.getURL(), returnType);
-    }
+      if(Types.isVoid(returnType)) {
+        return null;
+      }
+      if(!Types.isVoid(returnType) && connection.getContentLength() == 0) {
+        throw new BugError("Invalid HTTP-RMI transaction with |%s|. Expect return value of type |%s| but got empty response.", connection.getURL(), returnType);
+      }
 
-    ValueReader valueReader = ClientEncoders.getInstance().getValueReader(connection);
-    try {
-      return (T)valueReader.read(connection.getInputStream(), returnType);
+      ValueReader valueReader = ClientEncoders.getInstance().getValueReader(connection);
+      InputStream inputStream = connection.getInputStream();
+      if(isStream(valueReader) && connectionFactory instanceof ConnectionPool) {
+        // returned stream is owned by caller and connection is released when caller closes it
+        inputStream = new ReleasingInputStream(inputStream, (ConnectionPool)connectionFactory, connection);
+      }
+      try {
+        Object value = valueReader.read(inputStream, returnType);
+        released = inputStream instanceof ReleasingInputStream;
+        return (T)value;
+      }
+      catch(IOException e) {
+        reusable = false;
+        throw new BugError("Invalid HTTP-RMI transaction with |%s|. Response cannot be parsed to type |%s|. Cause: %s", connection.getURL(), returnType, e);
+      }
     }
-    catch(IOException e) {
-      throw new BugError("Invalid HTTP-RMI transaction with |%s|. Response cannot be parsed to type |%s|. Cause: %s", connection.getURL(), returnType, e);
+    finally {
+      if(!released && connectionFactory instanceof ConnectionPool) {
+        ((ConnectionPool)connectionFactory).releaseConnection(connection, reusable);
+      }
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void onError(HttpURLConnection connection, int statusCode) throws Exception
+  /**
+   * Handle HTTP-RMI transaction error. Throws exception declared by remote method signature, if response body is a
+   * remote exception listed by <code>exceptions</code>, or a runtime exception describing the error. This method always
+   * throws exception.
+   * 
+   * @param connection HTTP connection with error status code,
+   * @param statusCode response status code,
+   * @param exceptions simple names of exceptions declared by remote method signature.
+   * @throws Exception always, see method description.
+   */
+  static void onError(HttpURLConnection connection, int statusCode, List<String> exceptions) throws Exception
   {
     // if status code is [200 300) range response body is accessible via getInputStream
     // otherwise getErrorStream should be used
@@ -225,32 +535,62 @@ public class HttpRmi
     case SC_BAD_REQUEST:
       // handle business constrain as server internal error
     case SC_INTERNAL_SERVER_ERROR:
-      if(isJSON(connection.getContentType())) {
-        RemoteException remoteException = (RemoteException)readJsonObject(connection.getErrorStream(), RemoteException.class);
+      String contentType = connection.getContentType();
+      if(isJSON(contentType) || isBinary(contentType)) {
+        InputStream errorStream = ClientEncoders.getInstance().getDecodingStream(connection.getErrorStream(), connection.getContentEncoding());
+        RemoteException remoteException = (RemoteException)(isBinary(contentType) ? readBinaryObject(errorStream, RemoteException.class) : readJsonObject(errorStream, RemoteException.class));
+        throwRemoteException(connection.getURL(), remoteException, exceptions);
+      }
+    }
 
-        // if remote exception is an exception declared by method signature we throw it in this virtual machine
-        if(exceptions.contains(getRemoteExceptionCause(remoteException))) {
-          Class<? extends Throwable> cause = null;
-          try {
-            cause = (Class<? extends Throwable>)Class.forName(remoteException.getCause());
-          }
-          catch(ClassNotFoundException expected) {}
-
-          if(cause != null) {
-            String message = remoteException.getMessage();
-            if(message == null) {
-              throw (Exception)Classes.newInstance(cause);
-            }
-            throw (Exception)Classes.newInstance(cause, remoteException.getMessage());
-          }
-        }
+    throw new RmiException("HTTP-RMI error on |%s|. Server returned |%d|.", connection.getURL(), statusCode);
+  }
+
+  /**
+   * Throw exception described by remote exception. If remote exception cause is listed by <code>exceptions</code>
+   * throws it in this virtual machine; otherwise throws {@link BugError}. This method always throws exception.
+   * 
+   * @param url remote method URL,
+   * @param remoteException remote exception,
+   * @param exceptions simple names of exceptions declared by remote method signature.
+   * @throws Exception always, see method description.
+   */
+  @SuppressWarnings("unchecked")
+  static void throwRemoteException(URL url, RemoteException remoteException, List<String> exceptions) throws Exception
+  {
+    // if remote exception is an exception declared by method signature we throw it in this virtual machine
+    if(exceptions.contains(getRemoteExceptionCause(remoteException))) {
+      Class<? extends Throwable> cause = null;
+      try {
+        cause = (Class<? extends Throwable>)Class.forName(remoteException.getCause());
+      }
+      catch(ClassNotFoundException expected) {}
 
-        // if received remote exception is not listed by method signature replace it with BugError
-        throw new BugError("HTTP-RMI server execution error on |%s|: %s", connection.getURL(), remoteException);
+      if(cause != null) {
+        String message = remoteException.getMessage();
+        if(message == null) {
+          throw (Exception)Classes.newInstance(cause);
+        }
+        throw (Exception)Classes.newInstance(cause, remoteException.getMessage());
       }
     }
 
-    throw new RmiException("HTTP-RMI error on |%s|. Server returned |%d|.", connection.getURL(), statusCode);
+    // if received remote exception is not listed by method signature replace it with BugError
+    throw new BugError("HTTP-RMI server execution error on |%s|: %s", url, remoteException);
+  }
+
+  /**
+   * Test if value reader returns response stream to caller, possible decoded.
+   * 
+   * @param valueReader value reader.
+   * @return true if value reader returns response stream.
+   */
+  private static boolean isStream(ValueReader valueReader)
+  {
+    if(valueReader instanceof DecodingValueReader) {
+      valueReader = ((DecodingValueReader)valueReader).getValueReader();
+    }
+    return valueReader instanceof StreamValueReader;
   }
 
   /**
@@ -260,13 +600,24 @@ public class HttpRmi
    * @param contentType content type, possible null.
    * @return true if content type describe a JSON stream.
    */
-  private static boolean isJSON(String contentType)
+  static boolean isJSON(String contentType)
   {
     return contentType == null || contentType.startsWith("application/json");
   }
 
   /**
-   * Read JSON object from input stream and return initialized object instance.
+   * Test if content type describe a binary encoded stream, see {@link BinaryJSON}.
+   * 
+   * @param contentType content type, possible null.
+   * @return true if content type describe a binary encoded stream.
+   */
+  private static boolean isBinary(String contentType)
+  {
+    return contentType != null && contentType.startsWith(BinaryJSON.CONTENT_TYPE);
+  }
+
+  /**
+   * Read JSON object from UTF-8 input stream and return initialized object instance.
    * 
    * @param stream input stream,
    * @param type expected type.
@@ -275,15 +626,30 @@ public class HttpRmi
    */
   private static Object readJsonObject(InputStream stream, Type type) throws IOException
   {
-    Reader reader = new BufferedReader(new InputStreamReader(stream));
     try {
-      return JSON.parse(reader, type);
+      return JSON.parse(stream, type);
     }
     finally {
-      // do not use Files.close because we want to throw IOException is reader close fails
-      if(reader != null) {
-        reader.close();
-      }
+      // do not use Files.close because we want to throw IOException is stream close fails
+      stream.close();
+    }
+  }
+
+  /**
+   * Read binary encoded object from input stream and return initialized object instance.
+   * 
+   * @param stream input stream,
+   * @param type expected type.
+   * @return object instance of requested type.
+   * @throws IOException if stream reading or binary parsing fails.
+   */
+  private static Object readBinaryObject(InputStream stream, Type type) throws IOException
+  {
+    try {
+      return BinaryJSON.parse(stream, type);
+    }
+    finally {
+      stream.close();
     }
   }
 
@@ -298,13 +664,96 @@ public class HttpRmi
     return Strings.last(remoteException.getCause(), '.');
   }
 
+  /**
+   * Shared executor for asynchronous invocations, created on first use. On Java runtimes supporting virtual threads
+   * executor creates a virtual thread per invocation; otherwise uses a cached pool of daemon threads. Virtual threads
+   * executor is created reflectively since this library does not require a runtime supporting them.
+   * 
+   * @author Iulian Rotaru
+   */
+  static final class AsyncExecutor
+  {
+    /** Executor instance. */
+    static final Executor INSTANCE = createExecutor();
+
+    /**
+     * Create virtual threads executor, if supported by Java runtime, or cached daemon threads pool.
+     * 
+     * @return executor instance.
+     */
+    private static Executor createExecutor()
+    {
+      try {
+        return (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      }
+      catch(NoSuchMethodException expected) {
+        // Java runtime does not support virtual threads
+      }
+      catch(Exception e) {
+        // virtual threads are preview feature not enabled on this Java runtime
+      }
+
+      return Executors.newCachedThreadPool(new ThreadFactory()
+      {
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+          Thread thread = new Thread(runnable, "HttpRmi-" + index.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+  }
+
+  /**
+   * Response stream returned to caller for remote methods returning streams. Releases connection to its pool when
+   * caller closes the stream.
+   * 
+   * @author Iulian Rotaru
+   */
+  private static class ReleasingInputStream extends FilterInputStream
+  {
+    /** Pool connection was opened from. */
+    private final ConnectionPool pool;
+
+    /** Connection owning wrapped stream. */
+    private final HttpURLConnection connection;
+
+    /**
+     * Create stream releasing given connection on close.
+     * 
+     * @param inputStream connection response stream,
+     * @param pool pool connection was opened from,
+     * @param connection connection owning response stream.
+     */
+    ReleasingInputStream(InputStream inputStream, ConnectionPool pool, HttpURLConnection connection)
+    {
+      super(inputStream);
+      this.pool = pool;
+      this.connection = connection;
+    }
+
+    /**
+     * Release connection to its pool. Pool takes care to drain and close response stream.
+     */
+    @Override
+    public void close() throws IOException
+    {
+      pool.releaseConnection(connection, true);
+      super.close();
+    }
+  }
+
   /**
    * Connection factory opens a connection with remote implementation.
    * 
    * @author Iulian Rotaru
    * @version final
    */
-  private static class DefaultConnectionFactory implements ConnectionFactory
+  static class DefaultConnectionFactory implements ConnectionFactory
   {
     @Override
     public HttpURLConnection openConnection(URL url) throws IOException
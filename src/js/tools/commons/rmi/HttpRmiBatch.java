@@ -0,0 +1,521 @@
+package js.tools.commons.rmi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import js.tools.commons.json.JsonReader;
+import js.tools.commons.json.JsonWriter;
+import js.tools.commons.util.Params;
+import js.tools.commons.util.Types;
+
+/**
+ * Collect remote method invocations, possible on different remote classes, and send them to server with a single HTTP
+ * POST. Invocations are described by {@link HttpRmi} instances - remote class, return type and exceptions list - and
+ * queued by {@link #invoke(HttpRmi, String, Object...)}; returned future is completed when batch response is received.
+ * <p>
+ * Queued invocations are sent when batch window closes: when pending invocations count reaches maximum size, see
+ * {@link #setMaxSize(int)}, when maximum delay since first pending invocation expires, see {@link #setMaxDelay(long)},
+ * or on explicit {@link #flush()}. Batch request is sent to <code>${implementation-url}/batch.rmi</code> and its body
+ * is a JSON array of invocations, in queue order:
+ *
+ * <pre>
+ * [{"class":"js.test.Service","method":"getName","args":[1964]}, ... ]
+ * </pre>
+ * <p>
+ * Server responds with a JSON array of results, in the same order as invocations. A result is an object with
+ * <code>value</code> property for remote method returned value, missing or null for void methods, or with
+ * <code>exception</code> property for {@link RemoteException} thrown by remote method. Remote exceptions are decoded
+ * per invocation, with the same rules as {@link HttpRmi#invoke(String, Object...)}: exception declared by invocation
+ * exceptions list is rebuilt in this virtual machine, otherwise future is completed with a bug error.
+ *
+ * <pre>
+ * [{"value":"John Doe"}, {"exception":{"cause":"java.io.IOException","message":"Missing file."}}, ... ]
+ * </pre>
+ * <p>
+ * A failing batch transaction, e.g. an HTTP error status, completes exceptionally all its invocations. This class is
+ * thread safe.
+ *
+ * @author Iulian Rotaru
+ * @version draft
+ */
+public class HttpRmiBatch implements Closeable
+{
+  /** Default maximum number of invocations sent with a single batch request. */
+  private static final int MAX_SIZE = 32;
+
+  /** Default maximum delay, in milliseconds, between first queued invocation and batch request. */
+  private static final long MAX_DELAY = 10;
+
+  /** Request path for batch requests, relative to implementation URL. */
+  private static final String BATCH_PATH = "/batch.rmi";
+
+  private final ConnectionFactory connectionFactory;
+
+  /** URL for host where remote methods are deployed. */
+  private final String implementationURL;
+
+  /** Maximum number of invocations sent with a single batch request, default to {@link #MAX_SIZE}. */
+  private int maxSize = MAX_SIZE;
+
+  /** Maximum delay between first queued invocation and batch request, default to {@link #MAX_DELAY}. */
+  private long maxDelay = MAX_DELAY;
+
+  /** Connection timeout for batch requests, in milliseconds, default to {@link HttpRmi#CONNECTION_TIMEOUT}. */
+  private int connectionTimeout = HttpRmi.CONNECTION_TIMEOUT;
+
+  /** Read timeout for batch requests, in milliseconds, default to {@link HttpRmi#READ_TIMEOUT}. */
+  private int readTimeout = HttpRmi.READ_TIMEOUT;
+
+  /** Executor for batch requests triggered by batch window, default to shared HTTP-RMI asynchronous executor. */
+  private Executor executor;
+
+  /** Mutex for pending invocations queue and batch window timer. */
+  private final Object lock = new Object();
+
+  /** Invocations queued since last batch request. */
+  private List<Call> pending = new ArrayList<Call>();
+
+  /** Timer for batch window maximum delay, null if there are no pending invocations. */
+  private ScheduledFuture<?> timer;
+
+  /** Closed batch rejects new invocations. */
+  private boolean closed;
+
+  /**
+   * Create batch for remote methods hosted on given URL, using default connection factory.
+   *
+   * @param implementationURL URL where remote implementation is hosted, trailing path separator ignored.
+   */
+  public HttpRmiBatch(String implementationURL)
+  {
+    this(new HttpRmi.DefaultConnectionFactory(), implementationURL);
+  }
+
+  /**
+   * Create batch for remote methods hosted on given URL. Uses specified connection factory to open connections.
+   *
+   * @param connectionFactory connection factory,
+   * @param implementationURL URL where remote implementation is hosted, trailing path separator ignored.
+   * @throws IllegalArgumentException if any argument is null or URL is empty.
+   */
+  public HttpRmiBatch(ConnectionFactory connectionFactory, String implementationURL)
+  {
+    Params.notNull(connectionFactory, "Connection factory");
+    Params.notNullOrEmpty(implementationURL, "Implementation URL");
+    this.connectionFactory = connectionFactory;
+    if(implementationURL.charAt(implementationURL.length() - 1) == '/') {
+      implementationURL = implementationURL.substring(0, implementationURL.length() - 1);
+    }
+    this.implementationURL = implementationURL;
+  }
+
+  /**
+   * Set maximum number of invocations sent with a single batch request. When pending invocations count reaches this
+   * value batch request is sent without waiting for maximum delay.
+   *
+   * @param maxSize maximum batch size.
+   * @throws IllegalArgumentException if <code>maxSize</code> is not positive.
+   */
+  public void setMaxSize(int maxSize)
+  {
+    Params.isTrue(maxSize > 0, "Batch maximum size should be positive.");
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Set maximum delay between first queued invocation and batch request. Zero sends batch request as soon as possible,
+   * still collecting invocations queued meanwhile.
+   *
+   * @param maxDelay maximum delay, in milliseconds.
+   * @throws IllegalArgumentException if <code>maxDelay</code> is negative.
+   */
+  public void setMaxDelay(long maxDelay)
+  {
+    Params.isTrue(maxDelay >= 0, "Batch maximum delay should not be negative.");
+    this.maxDelay = maxDelay;
+  }
+
+  /**
+   * Set connection timeout for batch requests. Zero means infinite timeout.
+   *
+   * @param connectionTimeout connection timeout, in milliseconds.
+   * @throws IllegalArgumentException if <code>connectionTimeout</code> is negative.
+   */
+  public void setConnectionTimeout(int connectionTimeout)
+  {
+    Params.isTrue(connectionTimeout >= 0, "Connection timeout should not be negative.");
+    this.connectionTimeout = connectionTimeout;
+  }
+
+  /**
+   * Set read timeout for batch requests. A batch response is sent after all batched methods complete so this timeout
+   * should cover the slowest of them. Zero means infinite timeout.
+   *
+   * @param readTimeout read timeout, in milliseconds.
+   * @throws IllegalArgumentException if <code>readTimeout</code> is negative.
+   */
+  public void setReadTimeout(int readTimeout)
+  {
+    Params.isTrue(readTimeout >= 0, "Read timeout should not be negative.");
+    this.readTimeout = readTimeout;
+  }
+
+  /**
+   * Set executor for batch requests triggered by batch window. If not set uses the same shared executor as
+   * {@link HttpRmi#invokeAsync(String, Object...)}.
+   *
+   * @param executor executor for batch requests.
+   * @throws IllegalArgumentException if <code>executor</code> is null.
+   */
+  public void setExecutor(Executor executor)
+  {
+    Params.notNull(executor, "Executor");
+    this.executor = executor;
+  }
+
+  /**
+   * Queue remote method invocation. Remote class, return type and exceptions list are those of given HTTP-RMI
+   * transaction, captured when this method is called. Returned future is completed when batch response is received.
+   *
+   * @param rmi HTTP-RMI transaction describing remote method,
+   * @param methodName remote method name,
+   * @param arguments remote method arguments, serializable to JSON.
+   * @param <T> returned value type.
+   * @return future completed with remote method returned value.
+   * @throws IllegalArgumentException if <code>rmi</code> is null, method name is null or empty, remote method is not
+   *           hosted on this batch implementation URL or an argument is a {@link StreamHandler}.
+   * @throws IllegalStateException if this batch is closed.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> invoke(HttpRmi rmi, String methodName, Object... arguments)
+  {
+    Params.notNull(rmi, "HTTP-RMI transaction");
+    Params.notNullOrEmpty(methodName, "Method name");
+    Params.isTrue(implementationURL.equals(rmi.getImplementationURL()), "Remote method is not hosted on batch implementation URL.");
+    for(Object argument : arguments) {
+      // batch request is a single JSON document and has no room for streams
+      Params.isTrue(!(argument instanceof StreamHandler), "Stream arguments are not supported by batch invocations.");
+    }
+
+    Call call = new Call(rmi, methodName, arguments);
+    List<Call> calls = null;
+    synchronized(lock) {
+      if(closed) {
+        throw new IllegalStateException("Closed HTTP-RMI batch.");
+      }
+      pending.add(call);
+      if(pending.size() >= maxSize) {
+        calls = takePending();
+      }
+      else if(pending.size() == 1) {
+        timer = Scheduler.INSTANCE.schedule(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            List<Call> calls;
+            synchronized(lock) {
+              calls = takePending();
+            }
+            execute(calls);
+          }
+        }, maxDelay, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    if(calls != null) {
+      execute(calls);
+    }
+    return (CompletableFuture<T>)call.future;
+  }
+
+  /**
+   * Send pending invocations now, on current thread. When this method returns all pending invocations futures are
+   * completed. Does nothing if there are no pending invocations.
+   */
+  public void flush()
+  {
+    List<Call> calls;
+    synchronized(lock) {
+      calls = takePending();
+    }
+    send(calls);
+  }
+
+  /**
+   * Send pending invocations and reject new ones.
+   */
+  @Override
+  public void close()
+  {
+    synchronized(lock) {
+      closed = true;
+    }
+    flush();
+  }
+
+  /**
+   * Take pending invocations and cancel batch window timer. Caller should hold {@link #lock}.
+   *
+   * @return pending invocations, possible empty.
+   */
+  private List<Call> takePending()
+  {
+    if(timer != null) {
+      timer.cancel(false);
+      timer = null;
+    }
+    List<Call> calls = pending;
+    pending = new ArrayList<Call>();
+    return calls;
+  }
+
+  /**
+   * Send invocations on batch executor. If executor rejects the task invocations are completed exceptionally.
+   *
+   * @param calls invocations to send.
+   */
+  private void execute(final List<Call> calls)
+  {
+    try {
+      (executor != null ? executor : HttpRmi.AsyncExecutor.INSTANCE).execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          send(calls);
+        }
+      });
+    }
+    catch(RejectedExecutionException e) {
+      fail(calls, e);
+    }
+  }
+
+  /**
+   * Send invocations with a single batch request and complete their futures. Any transaction failure completes
+   * exceptionally all invocations not yet completed.
+   *
+   * @param calls invocations to send, possible empty.
+   */
+  private void send(List<Call> calls)
+  {
+    if(calls.isEmpty()) {
+      return;
+    }
+    try {
+      transaction(calls);
+    }
+    catch(Throwable t) {
+      fail(calls, t);
+    }
+  }
+
+  /**
+   * Execute batch HTTP transaction: write invocations to request body and read results from response.
+   *
+   * @param calls invocations to send.
+   * @throws Exception if transaction fails.
+   */
+  private void transaction(List<Call> calls) throws Exception
+  {
+    URL url = new URL(implementationURL + BATCH_PATH);
+    HttpURLConnection connection = connectionFactory.openConnection(url);
+    // connection is reusable only after response status was received
+    boolean reusable = false;
+    try {
+      connection.setConnectTimeout(connectionTimeout);
+      connection.setReadTimeout(readTimeout);
+      connection.setRequestMethod("POST");
+
+      connection.setRequestProperty("User-Agent", "j(s)-lib");
+      connection.setRequestProperty("Accept", "application/json");
+      connection.setRequestProperty("Accept-Encoding", HttpRmi.ACCEPT_ENCODING);
+      connection.setRequestProperty("Pragma", "no-cache");
+      connection.setRequestProperty("Cache", "no-cache");
+      connection.setRequestProperty("Content-Type", "application/json");
+      connection.setDoOutput(true);
+
+      JsonWriter writer = new JsonWriter(new OutputStreamWriter(connection.getOutputStream(), "UTF-8"));
+      writer.beginArray();
+      for(Call call : calls) {
+        writer.beginObject();
+        writer.name("class").value(call.className);
+        writer.name("method").value(call.methodName);
+        writer.name("args").value(call.arguments);
+        writer.endObject();
+      }
+      writer.endArray();
+      writer.close();
+
+      int statusCode = connection.getResponseCode();
+      reusable = true;
+      if(statusCode != HttpRmi.SC_OK) {
+        HttpRmi.onError(connection, statusCode, new ArrayList<String>());
+        // error handler throws exception on any status code
+      }
+      if(!HttpRmi.isJSON(connection.getContentType())) {
+        throw new RmiException("Invalid HTTP-RMI batch response from |%s|. Expected JSON but got |%s|.", url, connection.getContentType());
+      }
+
+      JsonReader reader = new JsonReader(ClientEncoders.getInstance().getDecodingStream(connection.getInputStream(), connection.getContentEncoding()));
+      try {
+        reader.beginArray();
+        for(Call call : calls) {
+          if(!reader.hasNext()) {
+            throw new RmiException("Invalid HTTP-RMI batch response from |%s|. Missing results for |%d| invocations.", url, calls.size());
+          }
+          readResult(reader, url, call);
+        }
+        reader.endArray();
+      }
+      catch(IOException e) {
+        reusable = false;
+        throw e;
+      }
+      finally {
+        reader.close();
+      }
+    }
+    finally {
+      if(connectionFactory instanceof ConnectionPool) {
+        ((ConnectionPool)connectionFactory).releaseConnection(connection, reusable);
+      }
+    }
+  }
+
+  /**
+   * Read invocation result from batch response and complete invocation future with returned value or exception.
+   *
+   * @param reader batch response reader, positioned on result object,
+   * @param url batch request URL,
+   * @param call invocation the result belongs to.
+   * @throws IOException if response reading fails.
+   */
+  private static void readResult(JsonReader reader, URL url, Call call) throws IOException
+  {
+    Object value = null;
+    RemoteException remoteException = null;
+
+    reader.beginObject();
+    while(reader.hasNext()) {
+      String name = reader.nextName();
+      if("value".equals(name) && !Types.isVoid(call.returnType)) {
+        value = reader.nextObject(call.returnType);
+      }
+      else if("exception".equals(name)) {
+        remoteException = reader.nextObject(RemoteException.class);
+      }
+      else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if(remoteException == null) {
+      call.future.complete(value);
+      return;
+    }
+    try {
+      HttpRmi.throwRemoteException(url, remoteException, call.exceptions);
+    }
+    catch(Throwable t) {
+      call.future.completeExceptionally(t);
+    }
+  }
+
+  /**
+   * Complete exceptionally invocations not yet completed.
+   *
+   * @param calls invocations,
+   * @param throwable failure cause.
+   */
+  private static void fail(List<Call> calls, Throwable throwable)
+  {
+    for(Call call : calls) {
+      call.future.completeExceptionally(throwable);
+    }
+  }
+
+  /**
+   * Queued remote method invocation. Keeps remote method description captured from HTTP-RMI transaction and the future
+   * returned to caller.
+   *
+   * @author Iulian Rotaru
+   */
+  private static class Call
+  {
+    /** Remote class name. */
+    final String className;
+
+    /** Remote method name. */
+    final String methodName;
+
+    /** Remote method arguments. */
+    final Object[] arguments;
+
+    /** Expected type for the returned value. */
+    final Type returnType;
+
+    /** Simple names of exceptions declared by remote method signature. */
+    final List<String> exceptions;
+
+    /** Future completed when batch response is received. */
+    final CompletableFuture<Object> future = new CompletableFuture<Object>();
+
+    Call(HttpRmi rmi, String methodName, Object[] arguments)
+    {
+      this.className = rmi.getClassName();
+      this.methodName = methodName;
+      this.arguments = arguments != null ? arguments : new Object[0];
+      this.returnType = rmi.getReturnType();
+      this.exceptions = new ArrayList<String>(rmi.getExceptions());
+    }
+  }
+
+  /**
+   * Shared timer for batch windows maximum delay, created on first use. Timer thread is a daemon and only triggers
+   * batch requests; requests are sent on batch executor.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class Scheduler
+  {
+    /** Scheduler instance. */
+    static final ScheduledThreadPoolExecutor INSTANCE = createScheduler();
+
+    /**
+     * Create single daemon thread scheduler that removes canceled timers from its queue.
+     *
+     * @return scheduler instance.
+     */
+    private static ScheduledThreadPoolExecutor createScheduler()
+    {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+      {
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+          Thread thread = new Thread(runnable, "HttpRmiBatch");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+}
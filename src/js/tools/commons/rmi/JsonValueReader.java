@@ -1,9 +1,7 @@
 package js.tools.commons.rmi;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 
 import js.tools.commons.json.JSON;
@@ -21,12 +19,11 @@ final class JsonValueReader implements ValueReader
   @Override
   public Object read(InputStream inputStream, Type returnType) throws IOException
   {
-    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
     try {
-      return JSON.parse(reader, returnType);
+      return JSON.parse(inputStream, returnType);
     }
     finally {
-      Files.close(reader);
+      Files.close(inputStream);
     }
   }
 }
\ No newline at end of file
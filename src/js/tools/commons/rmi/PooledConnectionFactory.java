@@ -0,0 +1,369 @@
+package js.tools.commons.rmi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import js.tools.commons.util.Files;
+import js.tools.commons.util.Params;
+
+/**
+ * Connection pool with per host connections limit and keep-alive friendly connections release. Sockets are actually
+ * kept alive by Java HTTP protocol handler, see <code>http.keepAlive</code> and <code>http.maxConnections</code> system
+ * properties, that reuses a socket only if previous response body was entirely read and its stream closed. This pool
+ * takes care of that: when a connection is released, response body left unread is drained - up to
+ * {@link #MAX_DRAIN_BYTES} - and stream closed; a larger body is not drained and connection is disconnected instead.
+ * <p>
+ * Per host limit bounds the number of connections concurrently opened with a given host, that is, protocol, host name
+ * and port; when limit is reached, connection opening waits for a connection to be released, but no longer than
+ * configured acquire timeout. Hosts without connections in use for longer than idle timeout are evicted from pool.
+ * After pool is closed, connections opening is rejected; connections in use can still be released.
+ * <p>
+ * Connections are actually opened by a delegate factory, by default the same factory used by {@link HttpRmi}. This
+ * class is thread safe and is designed to be shared by all HTTP-RMI transactions of an application:
+ * 
+ * <pre>
+ * ConnectionPool pool = new PooledConnectionFactory();
+ * HttpRmi rmi = new HttpRmi(pool, "http://server.com/", Service.class);
+ * </pre>
+ * 
+ * @author Iulian Rotaru
+ * @version draft
+ */
+public class PooledConnectionFactory implements ConnectionPool
+{
+  /** Default maximum number of connections concurrently opened with a host. */
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 8;
+
+  /** Default idle timeout, in milliseconds, after which a host without connections in use is evicted. */
+  public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+  /** Default timeout, in milliseconds, for waiting a connection when host limit is reached. */
+  public static final long DEFAULT_ACQUIRE_TIMEOUT = 60000;
+
+  /** Maximum number of unread response bytes drained on release; larger responses disconnect the connection. */
+  private static final int MAX_DRAIN_BYTES = 65536;
+
+  /** Factory actually opening connections. */
+  private final ConnectionFactory delegate;
+
+  /** Maximum number of connections concurrently opened with a host. */
+  private final int maxConnectionsPerHost;
+
+  /** Idle timeout, in milliseconds. */
+  private final long idleTimeout;
+
+  /** Acquire timeout, in milliseconds. */
+  private final long acquireTimeout;
+
+  /** Pooled hosts mapped by host key, see {@link #key(URL)}. */
+  private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<String, Host>();
+
+  /** Connections in use mapped to the host they were opened with. */
+  private final ConcurrentMap<HttpURLConnection, Host> leases = new ConcurrentHashMap<HttpURLConnection, Host>();
+
+  /** Closed pool rejects connections opening. */
+  private volatile boolean closed;
+
+  /** Create connection pool with default limits and default connection factory. */
+  public PooledConnectionFactory()
+  {
+    this(new HttpRmi.DefaultConnectionFactory(), DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_IDLE_TIMEOUT, DEFAULT_ACQUIRE_TIMEOUT);
+  }
+
+  /**
+   * Create connection pool with given limits.
+   * 
+   * @param delegate factory actually opening connections,
+   * @param maxConnectionsPerHost maximum number of connections concurrently opened with a host,
+   * @param idleTimeout idle timeout, in milliseconds,
+   * @param acquireTimeout timeout for waiting a connection when host limit is reached, in milliseconds.
+   * @throws IllegalArgumentException if delegate factory is null or any limit is not positive.
+   */
+  public PooledConnectionFactory(ConnectionFactory delegate, int maxConnectionsPerHost, long idleTimeout, long acquireTimeout)
+  {
+    Params.notNull(delegate, "Connection factory");
+    Params.isTrue(maxConnectionsPerHost > 0, "Maximum connections per host should be positive.");
+    Params.isTrue(idleTimeout > 0, "Idle timeout should be positive.");
+    Params.isTrue(acquireTimeout > 0, "Acquire timeout should be positive.");
+    this.delegate = delegate;
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+    this.idleTimeout = idleTimeout;
+    this.acquireTimeout = acquireTimeout;
+  }
+
+  /**
+   * Open connection with given URL, waiting for a connection to be released if host limit is reached.
+   * 
+   * @param url remote URL.
+   * @return opened connection.
+   * @throws IOException if pool is closed, acquire timeout expires or delegate factory fails.
+   * @throws InterruptedIOException if current thread is interrupted while waiting.
+   */
+  @Override
+  public HttpURLConnection openConnection(URL url) throws IOException
+  {
+    if(closed) {
+      throw new IOException("Connection pool is closed.");
+    }
+    long now = System.currentTimeMillis();
+    evictIdleHosts(now);
+
+    String key = key(url);
+    Host host = acquire(key);
+    HttpURLConnection connection;
+    try {
+      connection = delegate.openConnection(url);
+    }
+    catch(IOException | RuntimeException e) {
+      host.release(System.currentTimeMillis());
+      throw e;
+    }
+    leases.put(connection, host);
+    return connection;
+  }
+
+  @Override
+  public void releaseConnection(HttpURLConnection connection, boolean reusable)
+  {
+    Host host = leases.remove(connection);
+    if(host == null) {
+      // connection not opened by this pool or already released
+      return;
+    }
+    try {
+      if(!reusable || !drain(connection)) {
+        connection.disconnect();
+      }
+    }
+    finally {
+      host.release(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * Close this pool. Connections opening is rejected afterwards and idle hosts are evicted. Connections in use are not
+   * affected and can be released.
+   */
+  @Override
+  public void close()
+  {
+    closed = true;
+    evictIdleHosts(Long.MAX_VALUE);
+  }
+
+  /**
+   * Get the number of connections in use.
+   * 
+   * @return connections in use count.
+   */
+  public int getLeasedCount()
+  {
+    return leases.size();
+  }
+
+  /**
+   * Get the number of pooled hosts.
+   * 
+   * @return pooled hosts count.
+   */
+  public int getHostsCount()
+  {
+    return hosts.size();
+  }
+
+  /**
+   * Acquire a connection permit from named host, creating host if missing. Host is registered as in use before waiting
+   * for permit so that it cannot be evicted meanwhile; if host was already evicted acquire is retried on a new host
+   * instance.
+   * 
+   * @param key host key.
+   * @return host with acquired permit.
+   * @throws IOException if acquire timeout expires.
+   * @throws InterruptedIOException if current thread is interrupted while waiting.
+   */
+  private Host acquire(String key) throws IOException
+  {
+    Host host;
+    do {
+      host = hosts.get(key);
+      if(host == null) {
+        host = new Host(maxConnectionsPerHost);
+        Host existing = hosts.putIfAbsent(key, host);
+        if(existing != null) {
+          host = existing;
+        }
+      }
+    } while(!host.use());
+
+    boolean acquired = false;
+    try {
+      acquired = host.permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(String.format("Interrupted while waiting for connection with |%s|.", key));
+    }
+    finally {
+      if(!acquired) {
+        host.unuse(System.currentTimeMillis());
+      }
+    }
+    if(!acquired) {
+      throw new IOException(String.format("Timeout waiting for connection with |%s|. All |%d| connections in use.", key, maxConnectionsPerHost));
+    }
+    return host;
+  }
+
+  /**
+   * Evict hosts not in use for longer than idle timeout.
+   * 
+   * @param now current time, in milliseconds.
+   */
+  private void evictIdleHosts(long now)
+  {
+    for(Map.Entry<String, Host> entry : hosts.entrySet()) {
+      Host host = entry.getValue();
+      if(host.evict(now, idleTimeout)) {
+        hosts.remove(entry.getKey(), host);
+      }
+    }
+  }
+
+  /**
+   * Read and discard response body left unread by HTTP-RMI transaction then close response stream, so that underlying
+   * socket can be reused. Uses error stream if response status is an error.
+   * 
+   * @param connection connection with response status received.
+   * @return true if response body was drained or false if it is larger than {@link #MAX_DRAIN_BYTES} or read fails.
+   */
+  private static boolean drain(HttpURLConnection connection)
+  {
+    InputStream stream = null;
+    try {
+      stream = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+      if(stream == null) {
+        return true;
+      }
+      byte[] buffer = new byte[4096];
+      int drained = 0;
+      int count;
+      while((count = stream.read(buffer)) != -1) {
+        drained += count;
+        if(drained > MAX_DRAIN_BYTES) {
+          return false;
+        }
+      }
+      return true;
+    }
+    catch(IOException e) {
+      return false;
+    }
+    finally {
+      Files.close(stream);
+    }
+  }
+
+  /**
+   * Get host key for URL, that is, protocol, host name and port.
+   * 
+   * @param url remote URL.
+   * @return host key.
+   */
+  private static String key(URL url)
+  {
+    int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+    return String.format("%s://%s:%d", url.getProtocol().toLowerCase(), url.getHost().toLowerCase(), port);
+  }
+
+  /**
+   * Pooled host keeps connection permits, users count and last use time. Users are threads waiting for or holding a
+   * connection with this host; a host with users is never evicted and an evicted host accepts no more users. Users
+   * count, last use time and eviction flag are guarded by host instance lock.
+   * 
+   * @author Iulian Rotaru
+   */
+  private static final class Host
+  {
+    /** Connection permits, one per connection concurrently opened with this host. */
+    final Semaphore permits;
+
+    /** Number of threads waiting for or holding a connection with this host. */
+    private int users;
+
+    /** Time of the last connection release, in milliseconds. */
+    private long lastUsed;
+
+    /** Evicted host is no longer pooled and rejects new users. */
+    private boolean evicted;
+
+    /**
+     * Create host with given connections limit.
+     * 
+     * @param maxConnections maximum connections count.
+     */
+    Host(int maxConnections)
+    {
+      this.permits = new Semaphore(maxConnections, true);
+      this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Register a user for this host, before waiting for connection permit.
+     * 
+     * @return true if user was registered or false if host was evicted.
+     */
+    synchronized boolean use()
+    {
+      if(evicted) {
+        return false;
+      }
+      ++users;
+      return true;
+    }
+
+    /**
+     * Unregister a user and update last use time.
+     * 
+     * @param now current time, in milliseconds.
+     */
+    synchronized void unuse(long now)
+    {
+      --users;
+      lastUsed = now;
+    }
+
+    /**
+     * Mark this host evicted if it has no users and was not used for longer than idle timeout.
+     * 
+     * @param now current time, in milliseconds,
+     * @param idleTimeout idle timeout, in milliseconds.
+     * @return true if host is evicted.
+     */
+    synchronized boolean evict(long now, long idleTimeout)
+    {
+      if(users == 0 && now - lastUsed > idleTimeout) {
+        evicted = true;
+      }
+      return evicted;
+    }
+
+    /**
+     * Return connection permit and unregister its user.
+     * 
+     * @param now current time, in milliseconds.
+     */
+    void release(long now)
+    {
+      permits.release();
+      unuse(now);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package js.tools.commons.rmi;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import js.tools.commons.BugError;
+
+/**
+ * Invocation handler for remote interface proxies, see {@link HttpRmi#createProxy(Class, String)}. Remote methods
+ * metadata - URL, return type, declared exceptions and arguments writer - is collected from remote interface when
+ * proxy is created and every proxy method call executes an HTTP-RMI transaction with cached metadata; there is no
+ * reflection or URL building per call.
+ * <p>
+ * Checked exceptions declared by interface method are rethrown as they are; other checked exceptions, e.g. connection
+ * failures, are wrapped in {@link RmiException} so that proxy never throws undeclared checked exceptions. Methods
+ * inherited from {@link Object} are executed locally. This class is thread safe.
+ *
+ * @author Iulian Rotaru
+ * @version draft
+ */
+final class RemoteProxy implements InvocationHandler
+{
+  /** HTTP-RMI transaction used to execute remote methods. */
+  private final HttpRmi rmi;
+
+  /** Remote interface implemented by proxy. */
+  private final Class<?> remoteInterface;
+
+  /** Remote methods metadata, by interface method. */
+  private final Map<Method, RemoteMethod> methods = new HashMap<Method, RemoteMethod>();
+
+  /**
+   * Create invocation handler for remote interface and collect remote methods metadata.
+   *
+   * @param rmi HTTP-RMI transaction used to execute remote methods,
+   * @param remoteInterface remote interface.
+   * @throws BugError if remote methods URL cannot be created.
+   */
+  RemoteProxy(HttpRmi rmi, Class<?> remoteInterface)
+  {
+    this.rmi = rmi;
+    this.remoteInterface = remoteInterface;
+    for(Method method : remoteInterface.getMethods()) {
+      if(method.getDeclaringClass() != Object.class) {
+        methods.put(method, new RemoteMethod(rmi, method));
+      }
+    }
+  }
+
+  /**
+   * Create proxy instance implementing remote interface.
+   *
+   * @return proxy instance.
+   */
+  Object newInstance()
+  {
+    return Proxy.newProxyInstance(remoteInterface.getClassLoader(), new Class<?>[]
+    {
+      remoteInterface
+    }, this);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable
+  {
+    RemoteMethod remoteMethod = methods.get(method);
+    if(remoteMethod == null) {
+      return invokeObjectMethod(proxy, method, arguments);
+    }
+    if(arguments == null) {
+      arguments = new Object[0];
+    }
+
+    try {
+      return rmi.invoke(remoteMethod.url, remoteMethod.returnType, remoteMethod.exceptions, remoteMethod.getArgumentsWriter(), arguments);
+    }
+    catch(RuntimeException e) {
+      throw e;
+    }
+    catch(Exception e) {
+      if(remoteMethod.isDeclared(e)) {
+        throw e;
+      }
+      throw new RmiException("HTTP-RMI transaction |%s| failed: %s", remoteMethod.url, e);
+    }
+  }
+
+  /**
+   * Execute methods inherited from {@link Object} locally. Proxy is equal only with itself.
+   *
+   * @param proxy proxy instance,
+   * @param method object method,
+   * @param arguments method arguments, possible null.
+   * @return method value.
+   */
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] arguments)
+  {
+    String name = method.getName();
+    if("equals".equals(name)) {
+      return proxy == arguments[0];
+    }
+    if("hashCode".equals(name)) {
+      return System.identityHashCode(proxy);
+    }
+    if("toString".equals(name)) {
+      return "HTTP-RMI proxy for " + remoteInterface.getName();
+    }
+    throw new BugError("Unsupported proxy method |%s|.", method);
+  }
+
+  /**
+   * Remote method metadata collected once per interface method.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class RemoteMethod
+  {
+    /** Remote method URL. */
+    final URL url;
+
+    /** Expected type for the returned value, from method generic return type. */
+    final Type returnType;
+
+    /** Simple names of exceptions declared by method signature. */
+    final List<String> exceptions;
+
+    /** Checked exceptions declared by method signature. */
+    private final Class<?>[] exceptionTypes;
+
+    /** Method parameter types. */
+    private final Class<?>[] parameterTypes;
+
+    /** Arguments writer chosen by parameter types, null if method has no parameters. */
+    private final ArgumentsWriter argumentsWriter;
+
+    /** Use binary encoding for arguments, if arguments writer is not reusable and should be created per call. */
+    private final boolean binary;
+
+    RemoteMethod(HttpRmi rmi, Method method)
+    {
+      try {
+        this.url = rmi.getMethodURL(method.getName());
+      }
+      catch(MalformedURLException e) {
+        throw new BugError(e);
+      }
+      this.returnType = method.getGenericReturnType();
+
+      this.exceptionTypes = method.getExceptionTypes();
+      List<String> exceptions = new ArrayList<String>();
+      for(Class<?> exceptionType : exceptionTypes) {
+        // uses simple name because exception may be declared into .client package
+        exceptions.add(exceptionType.getSimpleName());
+      }
+      this.exceptions = Collections.unmodifiableList(exceptions);
+
+      this.parameterTypes = method.getParameterTypes();
+      this.binary = rmi.isBinary();
+      this.argumentsWriter = parameterTypes.length > 0 ? ClientEncoders.getInstance().getArgumentsWriter(parameterTypes, binary) : null;
+    }
+
+    /**
+     * Get arguments writer for a remote method call. Returns cached arguments writer if reusable, otherwise a new
+     * instance.
+     *
+     * @return arguments writer, null if method has no parameters.
+     */
+    ArgumentsWriter getArgumentsWriter()
+    {
+      if(argumentsWriter == null || ClientEncoders.getInstance().isReusable(argumentsWriter)) {
+        return argumentsWriter;
+      }
+      return ClientEncoders.getInstance().getArgumentsWriter(parameterTypes, binary);
+    }
+
+    /**
+     * Test if exception is declared by method signature.
+     *
+     * @param exception exception to test.
+     * @return true if exception is declared by method signature.
+     */
+    boolean isDeclared(Exception exception)
+    {
+      for(Class<?> exceptionType : exceptionTypes) {
+        if(exceptionType.isInstance(exception)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
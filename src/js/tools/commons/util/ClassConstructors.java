@@ -0,0 +1,209 @@
+package js.tools.commons.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import js.tools.commons.BugError;
+import js.tools.commons.NoSuchBeingException;
+
+/**
+ * Constructors resolved for a class and cached, used by {@link Classes#newInstance(Class, Object...)}. Constructors are
+ * located and made accessible once and invoked through method handles adapted to generic signatures so that invocation
+ * does not need reflective access checks or arguments conversion. Default constructor is resolved when cache is
+ * created; constructors with arguments are resolved on first use and mapped by actual arguments classes.
+ *
+ * @author Iulian Rotaru
+ */
+final class ClassConstructors
+{
+  /** Constructors cache, one per class. */
+  private static final ClassValue<ClassConstructors> CONSTRUCTORS = new ClassValue<ClassConstructors>()
+  {
+    @Override
+    protected ClassConstructors computeValue(Class<?> clazz)
+    {
+      return new ClassConstructors(clazz);
+    }
+  };
+
+  /**
+   * Get constructors cache for requested class, creating it on first use.
+   *
+   * @param clazz class to instantiate.
+   * @return class constructors.
+   */
+  static ClassConstructors get(Class<?> clazz)
+  {
+    return CONSTRUCTORS.get(clazz);
+  }
+
+  /** Class to instantiate. */
+  private final Class<?> clazz;
+
+  /** Error message if class cannot be instantiated, e.g. is an interface, or null if class is instantiable. */
+  private final String invalidClass;
+
+  /** Default constructor handle returning object, or null if class has no default constructor. */
+  private final MethodHandle defaultConstructor;
+
+  /** Constructor handles accepting an arguments array, mapped by actual arguments classes, null for null arguments. */
+  private final ConcurrentMap<List<Class<?>>, MethodHandle> constructors = new ConcurrentHashMap<List<Class<?>>, MethodHandle>();
+
+  /**
+   * Create constructors cache for given class and resolve its default constructor.
+   *
+   * @param clazz class to instantiate.
+   */
+  private ClassConstructors(Class<?> clazz)
+  {
+    this.clazz = clazz;
+    if(clazz.isInterface()) {
+      this.invalidClass = String.format("Attempt to create new instance for interface |%s|.", clazz);
+    }
+    else if(Modifier.isAbstract(clazz.getModifiers())) {
+      this.invalidClass = String.format("Attempt to create new instance for abstract class |%s|.", clazz);
+    }
+    else if(Types.isVoid(clazz)) {
+      this.invalidClass = "Attempt to instantiate void class.";
+    }
+    else {
+      this.invalidClass = null;
+    }
+
+    MethodHandle defaultConstructor = null;
+    if(invalidClass == null) {
+      try {
+        defaultConstructor = handle(clazz.getDeclaredConstructor()).asType(MethodType.methodType(Object.class));
+      }
+      catch(NoSuchMethodException e) {
+        // default constructor is missing; exception is thrown only if default constructor is actually used
+      }
+    }
+    this.defaultConstructor = defaultConstructor;
+  }
+
+  /**
+   * Create new instance with given constructor arguments. If arguments are supplied a constructor with compatible
+   * formal parameters is used, otherwise default constructor.
+   *
+   * @param arguments constructor arguments, possible empty.
+   * @return newly created instance.
+   * @throws BugError if class is interface, abstract or void or if constructor execution fails.
+   * @throws NoSuchBeingException if constructor is missing.
+   */
+  Object newInstance(Object... arguments)
+  {
+    if(invalidClass != null) {
+      throw new BugError(invalidClass);
+    }
+
+    if(arguments.length == 0) {
+      if(defaultConstructor == null) {
+        throw missingConstructorException(clazz, arguments);
+      }
+      try {
+        return (Object)defaultConstructor.invokeExact();
+      }
+      catch(Throwable t) {
+        throw new BugError(t);
+      }
+    }
+
+    List<Class<?>> key = key(arguments);
+    MethodHandle constructor = constructors.get(key);
+    if(constructor == null) {
+      constructor = resolve(arguments);
+      constructors.putIfAbsent(key, constructor);
+    }
+    try {
+      return (Object)constructor.invokeExact(arguments);
+    }
+    catch(Throwable t) {
+      throw new BugError(t);
+    }
+  }
+
+  /**
+   * Locate constructor with formal parameters compatible with actual arguments and create its handle. A null argument
+   * is accepted for any parameter type.
+   *
+   * @param arguments constructor arguments.
+   * @return constructor handle accepting an arguments array.
+   * @throws NoSuchBeingException if there is no constructor compatible with arguments.
+   */
+  private MethodHandle resolve(Object[] arguments)
+  {
+    constructorsLoop: for(Constructor<?> ctor : clazz.getDeclaredConstructors()) {
+      Class<?>[] parameters = ctor.getParameterTypes();
+      if(parameters.length != arguments.length) {
+        continue;
+      }
+      for(int i = 0; i < arguments.length; i++) {
+        if(arguments[i] == null) {
+          continue;
+        }
+        if(!Types.isInstanceOf(arguments[i], parameters[i])) {
+          continue constructorsLoop;
+        }
+      }
+      return handle(ctor).asType(MethodType.genericMethodType(arguments.length)).asSpreader(Object[].class, arguments.length);
+    }
+    throw missingConstructorException(clazz, arguments);
+  }
+
+  /**
+   * Force constructor accessibility and create its method handle. Handle is fixed arity so that varargs constructors
+   * receive their arguments array as it is, the same as with reflective constructor.
+   *
+   * @param constructor reflective constructor.
+   * @return constructor method handle.
+   */
+  private static MethodHandle handle(Constructor<?> constructor)
+  {
+    constructor.setAccessible(true);
+    try {
+      return MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity();
+    }
+    catch(IllegalAccessException e) {
+      throw new BugError(e);
+    }
+  }
+
+  /**
+   * Get cache key for constructor arguments, that is, arguments classes with null for null arguments.
+   *
+   * @param arguments constructor arguments.
+   * @return cache key.
+   */
+  private static List<Class<?>> key(Object[] arguments)
+  {
+    Class<?>[] classes = new Class<?>[arguments.length];
+    for(int i = 0; i < arguments.length; ++i) {
+      classes[i] = arguments[i] != null ? arguments[i].getClass() : null;
+    }
+    return Arrays.asList(classes);
+  }
+
+  /**
+   * Helper for missing constructor exception.
+   *
+   * @param clazz constructor class,
+   * @param arguments constructor arguments.
+   * @return formatted exception.
+   */
+  private static NoSuchBeingException missingConstructorException(Class<?> clazz, Object... arguments)
+  {
+    Class<?>[] types = new Class<?>[arguments.length];
+    for(int i = 0; i < arguments.length; ++i) {
+      types[i] = arguments[i] != null ? arguments[i].getClass() : null;
+    }
+    return new NoSuchBeingException("Missing constructor(%s) for |%s|.", Arrays.toString(types), clazz);
+  }
+}
@@ -0,0 +1,409 @@
+package js.tools.commons.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import js.tools.commons.BugError;
+import js.tools.commons.NoSuchBeingException;
+
+/**
+ * Field and method accessors resolved for a class and cached, used by {@link Classes} reflexive helpers. Fields are
+ * cached by name and methods by name and actual arguments classes. Accessors are method handles adapted to generic
+ * signatures, created once with accessibility forced. Missing members are cached too so that repeated lookups do not
+ * need reflective search and exceptions creation.
+ *
+ * @author Iulian Rotaru
+ */
+final class ClassMembers
+{
+  /** Members cache, one per class. */
+  private static final ClassValue<ClassMembers> MEMBERS = new ClassValue<ClassMembers>()
+  {
+    @Override
+    protected ClassMembers computeValue(Class<?> clazz)
+    {
+      return new ClassMembers(clazz);
+    }
+  };
+
+  /**
+   * Get members cache for requested class, creating it on first use.
+   *
+   * @param clazz class declaring members.
+   * @return class members.
+   */
+  static ClassMembers get(Class<?> clazz)
+  {
+    return MEMBERS.get(clazz);
+  }
+
+  /** Cache mark for missing fields. */
+  private static final FieldAccessor MISSING_FIELD = new FieldAccessor();
+
+  /** Cache mark for missing methods. */
+  private static final MethodAccessor MISSING_METHOD = new MethodAccessor();
+
+  /** Class declaring cached members. */
+  private final Class<?> clazz;
+
+  /** Field accessors mapped by field name, including missing fields marked with {@link #MISSING_FIELD}. */
+  private final ConcurrentMap<String, FieldAccessor> fields = new ConcurrentHashMap<String, FieldAccessor>();
+
+  /** Method accessors mapped by method name and arguments classes, including {@link #MISSING_METHOD} marks. */
+  private final ConcurrentMap<MethodKey, MethodAccessor> methods = new ConcurrentHashMap<MethodKey, MethodAccessor>();
+
+  /**
+   * Create empty members cache for given class.
+   *
+   * @param clazz class declaring members.
+   */
+  private ClassMembers(Class<?> clazz)
+  {
+    this.clazz = clazz;
+  }
+
+  /**
+   * Get accessor for field declared by this class.
+   *
+   * @param fieldName field name.
+   * @return field accessor or null if field is missing.
+   */
+  FieldAccessor getField(String fieldName)
+  {
+    FieldAccessor accessor = fields.get(fieldName);
+    if(accessor == null) {
+      try {
+        accessor = new FieldAccessor(clazz.getDeclaredField(fieldName));
+      }
+      catch(NoSuchFieldException e) {
+        accessor = MISSING_FIELD;
+      }
+      fields.putIfAbsent(fieldName, accessor);
+    }
+    return accessor != MISSING_FIELD ? accessor : null;
+  }
+
+  /**
+   * Get accessor for method declared by this class, with formal parameters compatible with given actual arguments. See
+   * {@link Classes#invoke(Object, Class, String, Object...)} for method discovery logic.
+   *
+   * @param methodName method name,
+   * @param arguments actual invocation arguments.
+   * @return method accessor or null if method is missing.
+   */
+  MethodAccessor getMethod(String methodName, Object[] arguments)
+  {
+    MethodKey key = new MethodKey(methodName, arguments);
+    MethodAccessor accessor = methods.get(key);
+    if(accessor == null) {
+      Method method = findMethod(methodName, arguments);
+      accessor = method != null ? new MethodAccessor(method) : MISSING_METHOD;
+      methods.putIfAbsent(key, accessor);
+    }
+    return accessor != MISSING_METHOD ? accessor : null;
+  }
+
+  /**
+   * Locate method by name and actual arguments. Try first method with exact formal parameters, as inferred by
+   * {@link Classes#getParameterTypes(Object...)}. If not found search through all declared methods; a null argument is
+   * accepted for any parameter type.
+   *
+   * @param methodName method name,
+   * @param arguments actual invocation arguments.
+   * @return reflexive method or null if not found.
+   */
+  private Method findMethod(String methodName, Object[] arguments)
+  {
+    try {
+      return clazz.getDeclaredMethod(methodName, Classes.getParameterTypes(arguments));
+    }
+    catch(NoSuchMethodException e) {
+      // optimistic attempt to locate the method has failed
+      // maybe because method parameters list includes interfaces, primitives or null
+      // there is no other option but to search through all object methods
+    }
+
+    methodsLoop: for(Method method : clazz.getDeclaredMethods()) {
+      Class<?>[] methodParameters = method.getParameterTypes();
+      if(!method.getName().equals(methodName)) {
+        continue;
+      }
+      if(methodParameters.length != arguments.length) {
+        continue;
+      }
+      // test if concrete arguments list match method formal parameters; if not continue methods loop
+      // null is accepted as any type
+      for(int i = 0; i < arguments.length; i++) {
+        if(arguments[i] != null && !Types.isInstanceOf(arguments[i], methodParameters[i])) {
+          continue methodsLoop;
+        }
+      }
+      return method;
+    }
+    return null;
+  }
+
+  /**
+   * Field accessor with getter and setter method handles. Handles have generic signatures with instance as first
+   * argument, that is ignored for static fields.
+   *
+   * @author Iulian Rotaru
+   */
+  static final class FieldAccessor
+  {
+    /** Reflexive field, with accessibility forced. */
+    private final Field field;
+
+    /** Field is static. */
+    private final boolean staticField;
+
+    /** Getter handle, <code>(Object)Object</code>. */
+    private final MethodHandle getter;
+
+    /** Setter handle, <code>(Object,Object)void</code>, or null if field cannot be written through handle. */
+    private final MethodHandle setter;
+
+    /** Constructor for missing field mark. */
+    private FieldAccessor()
+    {
+      this.field = null;
+      this.staticField = false;
+      this.getter = null;
+      this.setter = null;
+    }
+
+    /**
+     * Create accessor for given field.
+     *
+     * @param field reflexive field.
+     */
+    private FieldAccessor(Field field)
+    {
+      field.setAccessible(true);
+      this.field = field;
+      this.staticField = Modifier.isStatic(field.getModifiers());
+
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle getter;
+      try {
+        getter = lookup.unreflectGetter(field);
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+      MethodHandle setter;
+      try {
+        setter = lookup.unreflectSetter(field);
+      }
+      catch(IllegalAccessException e) {
+        // static final fields are not writable through method handles; use reflexive field instead
+        setter = null;
+      }
+      if(staticField) {
+        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        if(setter != null) {
+          setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+      }
+      this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+      this.setter = setter != null ? setter.asType(MethodType.methodType(void.class, Object.class, Object.class)) : null;
+    }
+
+    /**
+     * Get field type.
+     *
+     * @return field type.
+     */
+    Class<?> getType()
+    {
+      return field.getType();
+    }
+
+    /**
+     * Test if field is static.
+     *
+     * @return true if field is static.
+     */
+    boolean isStatic()
+    {
+      return staticField;
+    }
+
+    /**
+     * Get field value.
+     *
+     * @param object instance to get field value from, ignored if field is static.
+     * @return field value.
+     */
+    Object get(Object object)
+    {
+      try {
+        return (Object)getter.invokeExact(object);
+      }
+      catch(Throwable t) {
+        throw new BugError(t);
+      }
+    }
+
+    /**
+     * Set field value.
+     *
+     * @param object instance to set field value to, ignored if field is static,
+     * @param value field value.
+     * @throws IllegalArgumentException if value type is not compatible with field type.
+     * @throws IllegalAccessException if field is final and cannot be written.
+     */
+    void set(Object object, Object value) throws IllegalArgumentException, IllegalAccessException
+    {
+      if(setter == null) {
+        field.set(object, value);
+        return;
+      }
+      try {
+        setter.invokeExact(object, value);
+      }
+      catch(ClassCastException | NullPointerException e) {
+        throw new IllegalArgumentException(e);
+      }
+      catch(Throwable t) {
+        throw new BugError(t);
+      }
+    }
+  }
+
+  /**
+   * Method accessor with invocation handle. Handle has generic signature with instance as first argument, ignored for
+   * static methods, followed by invocation arguments array.
+   *
+   * @author Iulian Rotaru
+   */
+  static final class MethodAccessor
+  {
+    /** Reflexive method, with accessibility forced. */
+    private final Method method;
+
+    /** Invocation handle, <code>(Object,Object[])Object</code>. */
+    private final MethodHandle handle;
+
+    /** Method formal parameter types. */
+    private final Class<?>[] parameterTypes;
+
+    /** Constructor for missing method mark. */
+    private MethodAccessor()
+    {
+      this.method = null;
+      this.handle = null;
+      this.parameterTypes = null;
+    }
+
+    /**
+     * Create accessor for given method.
+     *
+     * @param method reflexive method.
+     */
+    private MethodAccessor(Method method)
+    {
+      method.setAccessible(true);
+      this.method = method;
+      MethodHandle handle;
+      try {
+        handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+      }
+      catch(IllegalAccessException e) {
+        throw new BugError(e);
+      }
+      if(Modifier.isStatic(method.getModifiers())) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      this.parameterTypes = method.getParameterTypes();
+      int parametersCount = parameterTypes.length;
+      this.handle = handle.asType(MethodType.genericMethodType(parametersCount + 1)).asSpreader(Object[].class, parametersCount);
+    }
+
+    /**
+     * Invoke method. Arguments are checked against formal parameters before invocation so that a mismatch, e.g. null
+     * for a primitive parameter, is reported as illegal argument, the same as reflexive invocation does, and not as
+     * null pointer or class cast from handle arguments conversion.
+     *
+     * @param object instance to invoke method on, ignored if method is static,
+     * @param arguments invocation arguments.
+     * @return value returned by method or null if method is void.
+     * @throws IllegalArgumentException if an argument does not match its formal parameter.
+     * @throws Exception exception thrown by method.
+     * @throws AssertionError if method fails on assertion.
+     * @throws BugError if method throws any other error.
+     */
+    Object invoke(Object object, Object[] arguments) throws Exception
+    {
+      for(int i = 0; i < parameterTypes.length; ++i) {
+        if(arguments[i] == null ? parameterTypes[i].isPrimitive() : !Types.isInstanceOf(arguments[i], parameterTypes[i])) {
+          throw new IllegalArgumentException(String.format("Argument |%d| of method |%s| does not match parameter type |%s|.", i, method, parameterTypes[i]));
+        }
+      }
+      try {
+        return (Object)handle.invokeExact(object, arguments);
+      }
+      catch(Exception | AssertionError e) {
+        throw e;
+      }
+      catch(Throwable t) {
+        throw new BugError("Method |%s| invocation fails: %s", method, t);
+      }
+    }
+  }
+
+  /**
+   * Methods cache key: method name and actual arguments classes, null for null arguments.
+   *
+   * @author Iulian Rotaru
+   */
+  private static final class MethodKey
+  {
+    /** Method name. */
+    private final String name;
+
+    /** Actual arguments classes. */
+    private final Class<?>[] classes;
+
+    /** Cached hash code. */
+    private final int hashCode;
+
+    /**
+     * Create key for method name and actual arguments.
+     *
+     * @param name method name,
+     * @param arguments actual arguments.
+     */
+    MethodKey(String name, Object[] arguments)
+    {
+      this.name = name;
+      this.classes = new Class<?>[arguments.length];
+      for(int i = 0; i < arguments.length; ++i) {
+        classes[i] = arguments[i] != null ? arguments[i].getClass() : null;
+      }
+      this.hashCode = 31 * name.hashCode() + Arrays.hashCode(classes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if(this == obj) return true;
+      if(!(obj instanceof MethodKey)) return false;
+      MethodKey other = (MethodKey)obj;
+      return name.equals(other.name) && Arrays.equals(classes, other.classes);
+    }
+  }
+}
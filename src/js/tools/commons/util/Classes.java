@@ -6,13 +6,6 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Type;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.ServiceLoader;
 
@@ -154,6 +147,9 @@ public final class Classes
    * Create a new instance of specified class. If arguments are supplied a constructor with exact formal parameters is
    * located otherwise default constructor is used; if none found throws {@link NoSuchBeingException}. This method
    * forces accessibility so is not mandatory for constructor to be public.
+   * <p>
+   * Constructors are resolved once per class and actual arguments classes and invoked through cached method handles,
+   * see {@link ClassConstructors}.
    * 
    * @param clazz class to instantiate,
    * @param arguments optional constructor arguments.
@@ -167,70 +163,7 @@ public final class Classes
   @SuppressWarnings("unchecked")
   public static <T> T newInstance(Class<T> clazz, Object... arguments)
   {
-    if(clazz.isInterface()) {
-      throw new BugError("Attempt to create new instance for interface |%s|.", clazz);
-    }
-    if(Modifier.isAbstract(clazz.getModifiers())) {
-      throw new BugError("Attempt to create new instance for abstract class |%s|.", clazz);
-    }
-    if(Types.isVoid(clazz)) {
-      throw new BugError("Attempt to instantiate void class.");
-    }
-
-    try {
-      Constructor<T> constructor = null;
-      if(arguments.length > 0) {
-        constructorsLoop: for(Constructor<?> ctor : clazz.getDeclaredConstructors()) {
-          Class<?>[] parameters = ctor.getParameterTypes();
-          if(parameters.length != arguments.length) {
-            continue;
-          }
-          for(int i = 0; i < arguments.length; i++) {
-            if(arguments[i] == null) {
-              continue;
-            }
-            if(!Types.isInstanceOf(arguments[i], parameters[i])) {
-              continue constructorsLoop;
-            }
-          }
-          constructor = (Constructor<T>)ctor;
-          break;
-        }
-        if(constructor == null) {
-          throw missingConstructorException(clazz, arguments);
-        }
-      }
-      else {
-        constructor = clazz.getDeclaredConstructor();
-      }
-      constructor.setAccessible(true);
-      return constructor.newInstance(arguments);
-    }
-    catch(NoSuchMethodException e) {
-      throw missingConstructorException(clazz, arguments);
-    }
-    catch(InstantiationException | IllegalAccessException | IllegalArgumentException e) {
-      throw new BugError(e);
-    }
-    catch(InvocationTargetException e) {
-      throw new BugError(e.getTargetException());
-    }
-  }
-
-  /**
-   * Helper for missing constructor exception.
-   * 
-   * @param clazz constructor class,
-   * @param arguments constructor arguments.
-   * @return formatted exception.
-   */
-  private static NoSuchBeingException missingConstructorException(Class<?> clazz, Object... arguments)
-  {
-    Type[] types = new Type[arguments.length];
-    for(int i = 0; i < arguments.length; ++i) {
-      types[i] = arguments[i].getClass();
-    }
-    return new NoSuchBeingException("Missing constructor(%s) for |%s|.", Arrays.toString(types), clazz);
+    return (T)ClassConstructors.get(clazz).newInstance(arguments);
   }
 
   /**
@@ -254,17 +187,11 @@ public final class Classes
     }
 
     Class<?> clazz = object.getClass();
-    try {
-      Field f = clazz.getDeclaredField(fieldName);
-      f.setAccessible(true);
-      return (T)f.get(Modifier.isStatic(f.getModifiers()) ? null : object);
-    }
-    catch(java.lang.NoSuchFieldException e) {
+    ClassMembers.FieldAccessor field = ClassMembers.get(clazz).getField(fieldName);
+    if(field == null) {
       throw new NoSuchBeingException("Missing field |%s| from |%s|.", fieldName, clazz);
     }
-    catch(IllegalAccessException e) {
-      throw new BugError(e);
-    }
+    return (T)field.get(object);
   }
 
   /**
@@ -286,26 +213,20 @@ public final class Classes
   @SuppressWarnings("unchecked")
   private static <T> T getFieldValue(Object object, Class<?> clazz, String fieldName, Class<T> fieldType, boolean optional)
   {
-    try {
-      Field f = clazz.getDeclaredField(fieldName);
-      if(fieldType != null && fieldType != f.getType()) {
-        return null;
-      }
-      f.setAccessible(true);
-      if(object == null ^ Modifier.isStatic(f.getModifiers())) {
-        throw new BugError("Cannot access static field from instance or instance field from null object.");
-      }
-      return (T)f.get(object);
-    }
-    catch(java.lang.NoSuchFieldException e) {
+    ClassMembers.FieldAccessor field = ClassMembers.get(clazz).getField(fieldName);
+    if(field == null) {
       if(optional) {
         return null;
       }
       throw new NoSuchBeingException("Missing field |%s| from |%s|.", fieldName, clazz);
     }
-    catch(IllegalAccessException e) {
-      throw new BugError(e);
+    if(fieldType != null && fieldType != field.getType()) {
+      return null;
     }
+    if(object == null ^ field.isStatic()) {
+      throw new BugError("Cannot access static field from instance or instance field from null object.");
+    }
+    return (T)field.get(object);
   }
 
   /**
@@ -346,22 +267,13 @@ public final class Classes
    */
   private static void setFieldValue(Object object, Class<?> clazz, String fieldName, Object value) throws IllegalArgumentException, IllegalAccessException
   {
-    Field field = null;
-    try {
-      field = clazz.getDeclaredField(fieldName);
-    }
-    catch(NoSuchFieldException e) {
-      throw new NoSuchBeingException(e);
-    }
-    catch(SecurityException e) {
-      throw new BugError(e);
+    ClassMembers.FieldAccessor field = ClassMembers.get(clazz).getField(fieldName);
+    if(field == null) {
+      throw new NoSuchBeingException("Missing field |%s| from |%s|.", fieldName, clazz);
     }
-
-    if(object == null ^ Modifier.isStatic(field.getModifiers())) {
+    if(object == null ^ field.isStatic()) {
       throw new BugError("Cannot access static field |%s| from instance |%s|.", fieldName, clazz);
     }
-    Params.notNull(field, "Field");
-    field.setAccessible(true);
     field.set(object, value);
   }
 
@@ -400,6 +312,10 @@ public final class Classes
    * left is to locate method by name and if overloads found uses best effort to determine the right parameter list. For
    * this reason, on limit is possible to invoke the wrong method. Anyway, <b>this method is designed for tests
    * logic</b> and best effort is good enough. The same is true for {@link #invoke(Object, String, Object...)}.
+   * <p>
+   * Located method is cached, by class, method name and actual arguments classes, and invoked through a method handle,
+   * see {@link ClassMembers}; the same for fields accessed by {@link #getFieldValue(Object, String)} and
+   * {@link #setFieldValue(Object, String, Object)}.
    * 
    * @param object object instance,
    * @param clazz object class one of its superclass,
@@ -415,66 +331,11 @@ public final class Classes
   {
     Params.notNull(clazz, "Class");
     Params.notNullOrEmpty(methodName, "Method name");
-    Class<?>[] parameterTypes = getParameterTypes(arguments);
-    try {
-      Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
-      return (T)invoke(object, method, arguments);
-    }
-    catch(NoSuchMethodException e) {
-      // optimistic attempt to locate the method has failed
-      // maybe because method parameters list includes interfaces, primitives or null
-      // there is no other option but to search through all object methods
-
-      methodsLoop: for(Method method : clazz.getDeclaredMethods()) {
-        Class<?>[] methodParameters = method.getParameterTypes();
-        if(!method.getName().equals(methodName)) {
-          continue;
-        }
-        if(methodParameters.length != arguments.length) {
-          continue;
-        }
-        // test if concrete arguments list match method formal parameters; if not continue methods loop
-        // null is accepted as any type
-        for(int i = 0; i < arguments.length; i++) {
-          if(arguments[i] != null && !Types.isInstanceOf(arguments[i], methodParameters[i])) {
-            continue methodsLoop;
-          }
-        }
-        return (T)invoke(object, method, arguments);
-      }
-      throw new NoSuchBeingException("Method %s(%s) not found.", methodName, parameterTypes);
-    }
-  }
-
-  /**
-   * Do the actual reflexive method invocation.
-   * 
-   * @param object object instance,
-   * @param method reflexive method,
-   * @param arguments variable number of arguments.
-   * @return value returned by method execution.
-   * @throws Exception if invocation fail for whatever reason including method internals.
-   */
-  private static Object invoke(Object object, Method method, Object... arguments) throws Exception
-  {
-    Throwable cause = null;
-    try {
-      method.setAccessible(true);
-      return method.invoke(object instanceof Class<?> ? null : object, arguments);
-    }
-    catch(IllegalAccessException e) {
-      throw new BugError(e);
-    }
-    catch(InvocationTargetException e) {
-      cause = e.getCause();
-      if(cause instanceof Exception) {
-        throw (Exception)cause;
-      }
-      if(cause instanceof AssertionError) {
-        throw (AssertionError)cause;
-      }
+    ClassMembers.MethodAccessor method = ClassMembers.get(clazz).getMethod(methodName, arguments);
+    if(method == null) {
+      throw new NoSuchBeingException("Method %s(%s) not found.", methodName, getParameterTypes(arguments));
     }
-    throw new BugError("Method |%s| invocation fails: %s", method, cause);
+    return (T)method.invoke(object instanceof Class<?> ? null : object, arguments);
   }
 
   /**
@@ -129,7 +129,7 @@ public class Types
    */
   public static boolean isBoolean(Type t)
   {
-    return equalsAny(t, boolean.class, Boolean.class);
+    return (kind(t) & KIND_BOOLEAN) != 0;
   }
 
   /** Java standard classes used to represent numbers, including primitives. */
@@ -158,12 +158,7 @@ public class Types
    */
   public static boolean isNumber(Type t)
   {
-    for(int i = 0; i < NUMERICAL_TYPES.length; i++) {
-      if(NUMERICAL_TYPES[i] == t) {
-        return true;
-      }
-    }
-    return false;
+    return (kind(t) & KIND_NUMBER) != 0;
   }
 
   /**
@@ -174,7 +169,7 @@ public class Types
    */
   public static boolean isCharacter(Type t)
   {
-    return equalsAny(t, char.class, Character.class);
+    return (kind(t) & KIND_CHARACTER) != 0;
   }
 
   /**
@@ -186,10 +181,7 @@ public class Types
    */
   public static boolean isEnum(Type t)
   {
-    if(t instanceof Class<?>) {
-      return ((Class<?>)t).isEnum();
-    }
-    return false;
+    return (kind(t) & KIND_ENUM) != 0;
   }
 
   /**
@@ -200,7 +192,11 @@ public class Types
    */
   public static boolean isDate(Type t)
   {
-    return isKindOf(t, Date.class);
+    int kind = kind(t);
+    if(kind == KIND_UNKNOWN) {
+      return isKindOf(t, Date.class);
+    }
+    return (kind & KIND_DATE) != 0;
   }
 
   /**
@@ -212,25 +208,11 @@ public class Types
    */
   public static boolean isPrimitiveLike(Type t)
   {
-    if(isNumber(t)) {
-      return true;
-    }
-    if(isBoolean(t)) {
-      return true;
-    }
-    if(isEnum(t)) {
-      return true;
-    }
-    if(isCharacter(t)) {
-      return true;
+    int kind = kind(t);
+    if(kind == KIND_UNKNOWN) {
+      return isDate(t);
     }
-    if(isDate(t)) {
-      return true;
-    }
-    if(t == String.class) {
-      return true;
-    }
-    return false;
+    return (kind & KIND_PRIMITIVE_LIKE) != 0;
   }
 
   /**
@@ -242,13 +224,10 @@ public class Types
    */
   public static boolean isArray(Type t)
   {
-    if(t instanceof Class<?>) {
-      return ((Class<?>)t).isArray();
-    }
     if(t instanceof GenericArrayType) {
       return true;
     }
-    return false;
+    return (kind(t) & KIND_ARRAY) != 0;
   }
 
   /**
@@ -272,7 +251,14 @@ public class Types
    */
   public static boolean isArrayLike(Type t)
   {
-    return isArray(t) || isCollection(t);
+    if(t instanceof GenericArrayType) {
+      return true;
+    }
+    int kind = kind(t);
+    if(kind == KIND_UNKNOWN) {
+      return isCollection(t);
+    }
+    return (kind & (KIND_ARRAY | KIND_COLLECTION)) != 0;
   }
 
   /**
@@ -296,7 +282,11 @@ public class Types
    */
   public static boolean isCollection(Type t)
   {
-    return Types.isKindOf(t, Collection.class);
+    int kind = kind(t);
+    if(kind == KIND_UNKNOWN) {
+      return Types.isKindOf(t, Collection.class);
+    }
+    return (kind & KIND_COLLECTION) != 0;
   }
 
   /**
@@ -318,7 +308,11 @@ public class Types
    */
   public static boolean isMap(Type t)
   {
-    return Types.isKindOf(t, Map.class);
+    int kind = kind(t);
+    if(kind == KIND_UNKNOWN) {
+      return Types.isKindOf(t, Map.class);
+    }
+    return (kind & KIND_MAP) != 0;
   }
 
   /**
@@ -406,6 +400,94 @@ public class Types
     };
   }
 
+  /** Type kind bits, a type can have many, e.g. an enumeration is also primitive like. */
+  private static final int KIND_NUMBER = 1;
+  private static final int KIND_BOOLEAN = 1 << 1;
+  private static final int KIND_CHARACTER = 1 << 2;
+  private static final int KIND_ENUM = 1 << 3;
+  private static final int KIND_DATE = 1 << 4;
+  private static final int KIND_STRING = 1 << 5;
+  private static final int KIND_ARRAY = 1 << 6;
+  private static final int KIND_COLLECTION = 1 << 7;
+  private static final int KIND_MAP = 1 << 8;
+
+  /** Kind bits for primitive like types, see {@link #isPrimitiveLike(Type)}. */
+  private static final int KIND_PRIMITIVE_LIKE = KIND_NUMBER | KIND_BOOLEAN | KIND_CHARACTER | KIND_ENUM | KIND_DATE | KIND_STRING;
+
+  /** Kind bits inherited by parameterized types from raw class, that is, kinds based on class hierarchy. */
+  private static final int KIND_RAW_CLASS = KIND_DATE | KIND_COLLECTION | KIND_MAP;
+
+  /** Kind value for types not classified by {@link #kind(Type)}, e.g. generic arrays or type variables. */
+  private static final int KIND_UNKNOWN = 1 << 30;
+
+  /** Class kind bits, computed once per class. */
+  private static final ClassValue<Integer> KINDS = new ClassValue<Integer>()
+  {
+    @Override
+    protected Integer computeValue(Class<?> clazz)
+    {
+      int kind = 0;
+      for(int i = 0; i < NUMERICAL_TYPES.length; i++) {
+        if(NUMERICAL_TYPES[i] == clazz) {
+          kind |= KIND_NUMBER;
+          break;
+        }
+      }
+      if(clazz == boolean.class || clazz == Boolean.class) {
+        kind |= KIND_BOOLEAN;
+      }
+      if(clazz == char.class || clazz == Character.class) {
+        kind |= KIND_CHARACTER;
+      }
+      if(clazz.isEnum()) {
+        kind |= KIND_ENUM;
+      }
+      if(Date.class.isAssignableFrom(clazz)) {
+        kind |= KIND_DATE;
+      }
+      if(clazz == String.class) {
+        kind |= KIND_STRING;
+      }
+      if(clazz.isArray()) {
+        kind |= KIND_ARRAY;
+      }
+      if(Collection.class.isAssignableFrom(clazz)) {
+        kind |= KIND_COLLECTION;
+      }
+      if(Map.class.isAssignableFrom(clazz)) {
+        kind |= KIND_MAP;
+      }
+      return kind;
+    }
+  };
+
+  /**
+   * Get type kind bits. Class kinds are computed once and cached; parameterized types have kinds of their raw class
+   * that are based on class hierarchy, e.g. a parameterized list is a collection but a parameterized type is never a
+   * number. Returns zero for null and {@link #KIND_UNKNOWN} for other types; for them caller should use
+   * {@link #isKindOf(Type, Type)}.
+   * 
+   * @param t type, possible null.
+   * @return type kind bits or {@link #KIND_UNKNOWN}.
+   */
+  private static int kind(Type t)
+  {
+    if(t instanceof Class<?>) {
+      return KINDS.get((Class<?>)t);
+    }
+    if(t instanceof ParameterizedType) {
+      Type rawType = ((ParameterizedType)t).getRawType();
+      if(rawType instanceof Class<?>) {
+        return KINDS.get((Class<?>)rawType) & KIND_RAW_CLASS;
+      }
+      return KIND_UNKNOWN;
+    }
+    if(t == null) {
+      return 0;
+    }
+    return KIND_UNKNOWN;
+  }
+
   /**
    * Determine if a given type is a kind of a requested type to match. Returns true if <code>type</code> is a subclass
    * or implements <code>typeToMatch</code> - not necessarily direct. Boxing classes for primitive values are
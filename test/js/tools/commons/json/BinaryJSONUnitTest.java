@@ -0,0 +1,318 @@
+package js.tools.commons.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.StringWriter;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import js.tools.commons.util.GType;
+import junit.framework.TestCase;
+
+public class BinaryJSONUnitTest extends TestCase
+{
+  public void testScalars() throws Throwable
+  {
+    assertNull(roundTrip(null, String.class));
+    assertEquals("text", roundTrip("text", String.class));
+    assertEquals(1964, (int)roundTrip(1964, int.class));
+    assertEquals(-1964L, (long)roundTrip(-1964L, Long.class));
+    assertEquals(Long.MIN_VALUE, (long)roundTrip(Long.MIN_VALUE, long.class));
+    assertEquals(1.2, (double)roundTrip(1.2, double.class));
+    assertEquals(1.2F, (float)roundTrip(1.2F, float.class));
+    assertEquals(new BigDecimal("1234567890.0123456789"), roundTrip(new BigDecimal("1234567890.0123456789"), BigDecimal.class));
+    assertTrue((boolean)roundTrip(true, boolean.class));
+    assertEquals(State.ACTIVE, roundTrip(State.ACTIVE, State.class));
+    assertEquals('c', (char)roundTrip('c', char.class));
+
+    // dates keep milliseconds precision
+    assertEquals(new Date(1234567890123L), roundTrip(new Date(1234567890123L), Date.class));
+    assertEquals(new java.sql.Timestamp(1234567890123L), roundTrip(new Date(1234567890123L), java.sql.Timestamp.class));
+  }
+
+  public void testScalarConversions() throws Throwable
+  {
+    // conversions follow JSON parser rules
+    assertEquals("1964", roundTrip(1964, String.class));
+    assertEquals("1.5", roundTrip(1.5, String.class));
+    assertEquals("true", roundTrip(true, String.class));
+    assertEquals(1964.0, (double)roundTrip(1964, double.class));
+    assertEquals(1964L, (long)roundTrip("1964", long.class));
+    assertEquals(new BigDecimal(1964), roundTrip(1964, BigDecimal.class));
+    assertEquals((short)1964, (short)roundTrip(1964L, short.class));
+    assertEquals(0.1, (double)roundTrip(0.1F, double.class));
+    assertEquals("1970-01-01T00:00:00Z", roundTrip(new Date(0), String.class));
+  }
+
+  public void testStrings() throws Throwable
+  {
+    String[] strings = new String[]
+    {
+        "", "ASCII", "ăîșț", "€ 中文", "𝄞 clef", "quote \" and \\ backslash\n"
+    };
+    for(String string : strings) {
+      assertEquals(string, roundTrip(string, String.class));
+    }
+    // unpaired surrogate is replaced, the same as standard UTF-8 encoder
+    assertEquals("?", roundTrip("\uD834", String.class));
+
+    StringBuilder builder = new StringBuilder();
+    for(int i = 0; i < 10000; ++i) {
+      builder.append((char)('a' + i % 26));
+      builder.append('中');
+    }
+    String large = builder.toString();
+    assertEquals(large, roundTrip(large, String.class));
+  }
+
+  public void testObject() throws Throwable
+  {
+    Person person = new Person();
+    person.name = "John Doe";
+    person.age = 54;
+    person.salary = 1234.5;
+    person.married = true;
+    person.state = State.ACTIVE;
+    person.birthday = new Date(-1000000000000L);
+    person.scores = new int[]
+    {
+        1, -2, 300000
+    };
+    person.tags = Arrays.asList("a", "b");
+    person.attributes = new HashMap<String, Integer>();
+    person.attributes.put("height", 180);
+    person.attributes.put("weight", 80);
+    person.spouse = new Person();
+    person.spouse.name = "Jane Doe";
+
+    Person clone = roundTrip(person, Person.class);
+    assertEquals("John Doe", clone.name);
+    assertEquals(54, clone.age);
+    assertEquals(1234.5, clone.salary);
+    assertTrue(clone.married);
+    assertEquals(State.ACTIVE, clone.state);
+    assertEquals(person.birthday, clone.birthday);
+    assertTrue(Arrays.equals(person.scores, clone.scores));
+    assertEquals(person.tags, clone.tags);
+    assertEquals(person.attributes, clone.attributes);
+    assertEquals("Jane Doe", clone.spouse.name);
+    assertNull(clone.spouse.spouse);
+    assertNull(clone.spouse.tags);
+  }
+
+  public void testStringTable() throws Throwable
+  {
+    List<Person> persons = new ArrayList<Person>();
+    for(int i = 0; i < 100; ++i) {
+      Person person = new Person();
+      person.name = "person";
+      person.age = i;
+      persons.add(person);
+    }
+
+    byte[] bytes = bytes(persons);
+    StringWriter json = new StringWriter();
+    JSON.stringify(json, persons);
+    assertTrue(bytes.length * 3 < json.toString().length());
+
+    List<Person> clone = BinaryJSON.parse(new ByteArrayInputStream(bytes), new GType(List.class, Person.class));
+    assertEquals(100, clone.size());
+    for(int i = 0; i < 100; ++i) {
+      assertEquals("person", clone.get(i).name);
+      assertEquals(i, clone.get(i).age);
+    }
+  }
+
+  public void testMissingFields() throws Throwable
+  {
+    Person person = new Person();
+    person.name = "John Doe";
+    person.spouse = new Person();
+    person.tags = Arrays.asList("a");
+
+    Name name = roundTrip(person, Name.class);
+    assertEquals("John Doe", name.name);
+  }
+
+  public void testMaps() throws Throwable
+  {
+    Map<Integer, State> map = new HashMap<Integer, State>();
+    map.put(1, State.ACTIVE);
+    map.put(2, State.INACTIVE);
+    Map<Integer, State> clone = roundTrip(map, new GType(Map.class, Integer.class, State.class));
+    assertEquals(map, clone);
+
+    Map<String, String> properties = new HashMap<String, String>();
+    properties.put("name", "John Doe");
+    Name name = roundTrip(properties, Name.class);
+    assertEquals("John Doe", name.name);
+  }
+
+  public void testSizeHint() throws Throwable
+  {
+    final List<Integer> sizes = new ArrayList<Integer>();
+    CollectionFactory builtinListFactory = CollectionFactories.get(List.class);
+    CollectionFactory builtinMapFactory = CollectionFactories.get(Map.class);
+    CollectionFactory factory = new CollectionFactory()
+    {
+      @Override
+      public Object newInstance(ParameterizedType type, int expectedSize)
+      {
+        sizes.add(expectedSize);
+        return type.getRawType() == List.class ? new ArrayList<Object>() : new HashMap<Object, Object>();
+      }
+    };
+    CollectionFactories.register(List.class, factory);
+    CollectionFactories.register(Map.class, factory);
+    try {
+      List<String> list = roundTrip(Arrays.asList("a", "b", "c"), new GType(List.class, String.class));
+      assertEquals(3, list.size());
+      Map<String, Integer> map = new HashMap<String, Integer>();
+      map.put("height", 180);
+      map.put("weight", 80);
+      assertEquals(map, roundTrip(map, new GType(Map.class, String.class, Integer.class)));
+      assertEquals(Arrays.asList(3, 2), sizes);
+
+      // items count is not trusted; capacity hint is limited
+      sizes.clear();
+      List<Integer> large = new ArrayList<Integer>();
+      for(int i = 0; i < 10000; ++i) {
+        large.add(i);
+      }
+      assertEquals(large, roundTrip(large, new GType(List.class, Integer.class)));
+      assertEquals(Arrays.asList(4096), sizes);
+    }
+    finally {
+      CollectionFactories.register(List.class, builtinListFactory);
+      CollectionFactories.register(Map.class, builtinMapFactory);
+    }
+  }
+
+  public void testPrimitiveArrays() throws Throwable
+  {
+    long[] longs = new long[]
+    {
+        Long.MIN_VALUE, -1, 0, Long.MAX_VALUE
+    };
+    assertTrue(Arrays.equals(longs, (long[])roundTrip(longs, long[].class)));
+
+    double[] doubles = new double[]
+    {
+        -0.0, 1.5, Double.MAX_VALUE, Double.MIN_VALUE
+    };
+    assertTrue(Arrays.equals(doubles, (double[])roundTrip(doubles, double[].class)));
+
+    byte[] bytes = new byte[]
+    {
+        -128, 0, 127
+    };
+    assertTrue(Arrays.equals(bytes, (byte[])roundTrip(bytes, byte[].class)));
+
+    boolean[] booleans = new boolean[]
+    {
+        true, false
+    };
+    assertTrue(Arrays.equals(booleans, (boolean[])roundTrip(booleans, boolean[].class)));
+  }
+
+  public void testCycles() throws Throwable
+  {
+    Person person = new Person();
+    person.name = "John Doe";
+    person.spouse = person;
+
+    Person clone = roundTrip(person, Person.class);
+    assertEquals("John Doe", clone.name);
+    assertNull(clone.spouse);
+  }
+
+  public void testInvalidStreams() throws Throwable
+  {
+    byte[] bytes = bytes("text");
+    try {
+      BinaryJSON.parse(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)), String.class);
+      fail("Truncated stream should rise EOF exception.");
+    }
+    catch(EOFException expected) {}
+
+    bytes[0] = 99;
+    try {
+      BinaryJSON.parse(new ByteArrayInputStream(bytes), String.class);
+      fail("Not supported version should rise JSON exception.");
+    }
+    catch(JsonException expected) {}
+
+    // string with declared length near 2GB but no content; should fail on EOF without allocating declared length
+    bytes = new byte[]
+    {
+        1, 7, (byte)0xFE, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07
+    };
+    try {
+      BinaryJSON.parse(new ByteArrayInputStream(bytes), String.class);
+      fail("Truncated string with huge length prefix should rise EOF exception.");
+    }
+    catch(EOFException expected) {}
+  }
+
+  public void testLargeString() throws Throwable
+  {
+    StringBuilder builder = new StringBuilder();
+    for(int i = 0; i < 20000; ++i) {
+      builder.append((char)('a' + i % 26));
+      if(i % 1000 == 0) {
+        builder.append('ă');
+      }
+    }
+    String string = builder.toString();
+    assertEquals(string, roundTrip(string, String.class));
+  }
+
+  // --------------------------------------------------------------------------------------------
+  // UTILITY METHODS
+
+  private static byte[] bytes(Object value) throws Throwable
+  {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    BinaryJSON.stringify(stream, value);
+    return stream.toByteArray();
+  }
+
+  private static <T> T roundTrip(Object value, java.lang.reflect.Type type) throws Throwable
+  {
+    return BinaryJSON.parse(new ByteArrayInputStream(bytes(value)), type);
+  }
+
+  // --------------------------------------------------------------------------------------------
+  // FIXTURE
+
+  private static enum State
+  {
+    ACTIVE, INACTIVE
+  }
+
+  private static class Name
+  {
+    String name;
+  }
+
+  private static class Person
+  {
+    String name;
+    int age;
+    double salary;
+    boolean married;
+    State state;
+    Date birthday;
+    int[] scores;
+    List<String> tags;
+    Map<String, Integer> attributes;
+    Person spouse;
+  }
+}
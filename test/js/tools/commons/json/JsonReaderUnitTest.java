@@ -0,0 +1,153 @@
+package js.tools.commons.json;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import junit.framework.TestCase;
+
+public class JsonReaderUnitTest extends TestCase
+{
+  public void testPeek() throws Throwable
+  {
+    JsonReader reader = reader("{\"name\":\"John Doe\",\"age\":50,\"married\":true,\"spouse\":null,\"kids\":[]}");
+    assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+    reader.beginObject();
+    assertEquals(JsonToken.NAME, reader.peek());
+    assertEquals("name", reader.nextName());
+    assertEquals(JsonToken.STRING, reader.peek());
+    assertEquals("John Doe", reader.nextString());
+    assertEquals("age", reader.nextName());
+    assertEquals(JsonToken.NUMBER, reader.peek());
+    assertEquals(50, reader.nextInt());
+    assertEquals("married", reader.nextName());
+    assertEquals(JsonToken.BOOLEAN, reader.peek());
+    assertTrue(reader.nextBoolean());
+    assertEquals("spouse", reader.nextName());
+    assertEquals(JsonToken.NULL, reader.peek());
+    reader.nextNull();
+    assertEquals("kids", reader.nextName());
+    reader.beginArray();
+    assertFalse(reader.hasNext());
+    assertEquals(JsonToken.END_ARRAY, reader.peek());
+    reader.endArray();
+    assertFalse(reader.hasNext());
+    reader.endObject();
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  public void testSelectFields() throws Throwable
+  {
+    String json = "[{\"id\":1,\"name\":\"a\",\"tags\":[\"x\",{\"y\":[1,2]}],\"meta\":{\"z\":{}}},{\"meta\":[],\"id\":9007199254740993}]";
+    JsonReader reader = reader(json);
+    List<Long> ids = new ArrayList<Long>();
+
+    reader.beginArray();
+    while(reader.hasNext()) {
+      reader.beginObject();
+      while(reader.hasNext()) {
+        if(reader.nextName().equals("id")) {
+          ids.add(reader.nextLong());
+        }
+        else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+    reader.endArray();
+
+    assertEquals(2, ids.size());
+    assertEquals(1L, (long)ids.get(0));
+    assertEquals(9007199254740993L, (long)ids.get(1));
+  }
+
+  public void testSkipPropertyName() throws Throwable
+  {
+    JsonReader reader = reader("{\"skipped\":{\"a\":[1,2,3]},\"value\":1.5}");
+    reader.beginObject();
+    reader.skipValue();
+    assertEquals("value", reader.nextName());
+    assertEquals(1.5, reader.nextDouble());
+    reader.endObject();
+  }
+
+  public void testNextObject() throws Throwable
+  {
+    JsonReader reader = reader("{\"count\":2,\"people\":[{\"name\":\"John Doe\",\"age\":50},{\"name\":\"Jane Doe\",\"age\":40}],\"tail\":\"end\"}");
+    reader.beginObject();
+    assertEquals("count", reader.nextName());
+    assertEquals(Integer.valueOf(2), reader.nextObject(Integer.class));
+    assertEquals("people", reader.nextName());
+    reader.beginArray();
+    Person john = reader.nextObject(Person.class);
+    Person jane = reader.nextObject(Person.class);
+    reader.endArray();
+    assertEquals("tail", reader.nextName());
+    assertEquals("end", reader.nextObject(String.class));
+    reader.endObject();
+
+    assertEquals("John Doe", john.name);
+    assertEquals(50, john.age);
+    assertEquals("Jane Doe", jane.name);
+    assertEquals(40, jane.age);
+  }
+
+  public void testIterate() throws Throwable
+  {
+    String json = "[{\"name\":\"John Doe\",\"age\":50},null,{\"name\":\"Jane Doe\",\"age\":40}]";
+    Iterator<Person> iterator = JSON.iterate(new StringReader(json), Person.class);
+
+    assertTrue(iterator.hasNext());
+    assertEquals("John Doe", iterator.next().name);
+    assertTrue(iterator.hasNext());
+    assertNull(iterator.next());
+    assertEquals(40, iterator.next().age);
+    assertFalse(iterator.hasNext());
+    assertFalse(iterator.hasNext());
+  }
+
+  public void testStream() throws Throwable
+  {
+    String json = "[{\"name\":\"John Doe\",\"age\":50},{\"name\":\"Jane Doe\",\"age\":40},{\"name\":\"Baby Doe\",\"age\":1}]";
+    List<Person> persons = JSON.<Person> stream(new StringReader(json), Person.class).skip(1).collect(Collectors.<Person> toList());
+
+    assertEquals(2, persons.size());
+    assertEquals("Jane Doe", persons.get(0).name);
+    assertEquals(1, persons.get(1).age);
+
+    // stream is lazy; limit stops parsing before syntax error
+    assertEquals(1, JSON.stream(new StringReader("[1,2,fake]"), Integer.class).limit(1).count());
+    assertEquals(0, JSON.stream(new StringReader("[]"), Integer.class).count());
+  }
+
+  public void testIterateEmptyArray() throws Throwable
+  {
+    assertFalse(JSON.iterate(new StringReader("[]"), Person.class).hasNext());
+    assertFalse(JSON.iterate(new StringReader("null"), Person.class).hasNext());
+  }
+
+  public void testUnexpectedToken() throws Throwable
+  {
+    JsonReader reader = reader("[1]");
+    try {
+      reader.beginObject();
+      fail("Begin object on array start should throw JSON exception.");
+    }
+    catch(JsonException e) {
+    }
+  }
+
+  private static JsonReader reader(String json)
+  {
+    return new JsonReader(new StringReader(json));
+  }
+
+  private static class Person
+  {
+    String name;
+    int age;
+  }
+}
@@ -0,0 +1,103 @@
+package js.tools.commons.json;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+public class JsonWriterUnitTest extends TestCase
+{
+  public void testObject() throws Throwable
+  {
+    StringWriter stringWriter = new StringWriter();
+    JsonWriter writer = new JsonWriter(stringWriter);
+    writer.beginObject();
+    writer.name("name").value("John \"Doe\"\n");
+    writer.name("age").value(50);
+    writer.name("weight").value(80.5);
+    writer.name("married").value(true);
+    writer.name("spouse").nullValue();
+    writer.name("birthday").value(new Date(0));
+    writer.name("kids").beginArray().endArray();
+    writer.name("tags").value(Arrays.asList("a", "b"));
+    writer.endObject();
+    writer.flush();
+
+    assertEquals("{\"name\":\"John \\\"Doe\\\"\\n\",\"age\":50,\"weight\":80.5,\"married\":true,\"spouse\":null,\"birthday\":\"1970-01-01T00:00:00Z\",\"kids\":[],\"tags\":[\"a\",\"b\"]}", stringWriter.toString());
+  }
+
+  public void testArrayOfObjects() throws Throwable
+  {
+    StringWriter stringWriter = new StringWriter();
+    JsonWriter writer = new JsonWriter(stringWriter);
+    writer.beginArray();
+    for(int i = 0; i < 3; ++i) {
+      writer.beginObject().name("id").value(i).endObject();
+    }
+    writer.endArray();
+    writer.close();
+
+    assertEquals("[{\"id\":0},{\"id\":1},{\"id\":2}]", stringWriter.toString());
+    assertEquals(3, ((Object[])JSON.parse(new StringReader(stringWriter.toString()), Object[].class)).length);
+  }
+
+  public void testFlushThreshold() throws Throwable
+  {
+    CountingWriter countingWriter = new CountingWriter();
+    JsonWriter writer = new JsonWriter(countingWriter, 16);
+    writer.beginArray();
+    writer.value("0123456789");
+    assertEquals(0, countingWriter.flushes);
+    writer.value("0123456789");
+    assertTrue(countingWriter.flushes > 0);
+    assertTrue(countingWriter.builder.length() >= 16);
+    writer.endArray();
+    writer.flush();
+    assertEquals("[\"0123456789\",\"0123456789\"]", countingWriter.builder.toString());
+  }
+
+  public void testNestingProblem() throws Throwable
+  {
+    JsonWriter writer = new JsonWriter(new StringWriter());
+    writer.beginObject();
+    try {
+      writer.value("value without name");
+      fail("Value without name should throw JSON exception.");
+    }
+    catch(JsonException e) {
+    }
+    try {
+      writer.endArray();
+      fail("Closing array inside object should throw JSON exception.");
+    }
+    catch(JsonException e) {
+    }
+  }
+
+  private static class CountingWriter extends Writer
+  {
+    private StringBuilder builder = new StringBuilder();
+    private int flushes;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException
+    {
+      builder.append(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+      ++flushes;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+    }
+  }
+}
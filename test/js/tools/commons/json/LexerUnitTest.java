@@ -1,6 +1,8 @@
 package js.tools.commons.json;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
@@ -423,9 +425,14 @@ public class LexerUnitTest extends TestCase
    * @throws ClassNotFoundException
    */
   private static TokenValue[] exercise(String json) throws Exception
+  {
+    return exercise(new StringReader(json));
+  }
+
+  private static TokenValue[] exercise(Reader reader) throws Exception
   {
     List<TokenValue> tokens = new ArrayList<TokenValue>();
-    Object lexer = Classes.newInstance("js.tools.commons.json.Lexer", new StringReader(json));
+    Object lexer = Classes.newInstance("js.tools.commons.json.Lexer", reader);
     try {
       for(;;) {
         Object token = Classes.invoke(lexer, "read");
@@ -440,6 +447,54 @@ public class LexerUnitTest extends TestCase
     return (TokenValue[])tokens.toArray(new TokenValue[tokens.size()]);
   }
 
+  public void testBufferBoundaries() throws Exception
+  {
+    // trickle reader returns a single character per read so that every token spans character reader buffer refills
+    String json = "{\"name\":\"John \\\"Doe\\\"\\u00A9\\\\\",\"age\" : 50 ,\"aliases\":[jd, \"j\\\\d\"]}";
+    TokenValue[] tokens = exercise(new TrickleReader(json));
+
+    assertEquals(17, tokens.length);
+    assertEquals(NAME, tokens[1].token);
+    assertEquals("name", tokens[1].value);
+    assertEquals(VALUE, tokens[3].token);
+    assertEquals("John \"Doe\"\u00A9\\", tokens[3].value);
+    assertEquals(NAME, tokens[5].token);
+    assertEquals("age", tokens[5].value);
+    assertEquals(VALUE, tokens[7].token);
+    assertEquals("50", tokens[7].value);
+    assertEquals(ITEM, tokens[12].token);
+    assertEquals("jd", tokens[12].value);
+    assertEquals(ITEM, tokens[14].token);
+    assertEquals("j\\d", tokens[14].value);
+    assertEquals(RIGHT_BRACE, tokens[16].token);
+  }
+
+  private static class TrickleReader extends Reader
+  {
+    private final String json;
+    private int index;
+
+    TrickleReader(String json)
+    {
+      this.json = json;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException
+    {
+      if(index == json.length()) {
+        return -1;
+      }
+      buffer[offset] = json.charAt(index++);
+      return 1;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+    }
+  }
+
   private static enum Token
   {
     NAME;
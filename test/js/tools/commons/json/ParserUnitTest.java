@@ -1,11 +1,29 @@
 package js.tools.commons.json;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import js.tools.commons.util.Classes;
 import js.tools.commons.util.GAType;
@@ -91,6 +109,28 @@ public class ParserUnitTest extends TestCase
     assertEquals(50, person.age);
   }
 
+  public void testMissingFields() throws Throwable
+  {
+    String json = "{\"name\":\"John Doe\",\"address\":{\"city\":\"Iasi\",\"zip\":[1,2]},\"aliases\":[\"jd\"],\"nick-name\":\"JD\",\"age\":50}";
+    for(int i = 0; i < 2; ++i) {
+      // second iteration uses cached class binding
+      Person person = exercise(json, Person.class);
+      assertNotNull(person);
+      assertEquals("John Doe", person.name);
+      assertEquals(50, person.age);
+    }
+  }
+
+  public void testUnknownPropertiesNotCached() throws Throwable
+  {
+    int count = ClassBinding.get(Person.class).getPropertiesCount();
+    for(int i = 0; i < 1000; ++i) {
+      Person person = exercise("{\"name\":\"John Doe\",\"unknown-" + i + "\":" + i + "}", Person.class);
+      assertEquals("John Doe", person.name);
+    }
+    assertEquals(count, ClassBinding.get(Person.class).getPropertiesCount());
+  }
+
   public void testNestedObjects() throws Throwable
   {
     String json = "{\"name\":\"Baby.NET\",\"leader\":{\"name\":\"John Doe\"}}";
@@ -388,6 +428,129 @@ public class ParserUnitTest extends TestCase
     assertEquals("alias", user.aliases[0]);
   }
 
+  public void testUtf8Stream() throws Throwable
+  {
+    // leading byte order mark, two, three and four bytes UTF-8 sequences
+    String json = "\uFEFF{\"name\":\"Baby.NET\u00A9 \u20AC \uD83D\uDE00\",\"leader\":{\"name\":\"Ana-Mar\u00EDa\"}}";
+    StringBuilder builder = new StringBuilder(json.substring(0, json.length() - 2));
+    for(int i = 0; i < 10000; ++i) {
+      builder.append(' ');
+    }
+    builder.append("}}");
+
+    ByteArrayInputStream stream = new ByteArrayInputStream(builder.toString().getBytes("UTF-8"));
+    Organization organization = Classes.invoke(parser(), "parse", stream, Organization.class);
+    assertNotNull(organization);
+    assertEquals("Baby.NET\u00A9 \u20AC \uD83D\uDE00", organization.name);
+    assertEquals("Ana-Mar\u00EDa", organization.leader.name);
+  }
+
+  public void testUtf8TruncatedSequence() throws Throwable
+  {
+    // truncated sequence at stream end is replaced and following bytes are still decoded
+    assertEquals("\uFFFD\"}", read(new byte[]
+    {
+        (byte)0xF0, '"', '}'
+    }));
+    assertEquals("x\uFFFD\"}", read(new byte[]
+    {
+        'x', (byte)0xF0, (byte)0x9F, '"', '}'
+    }));
+    assertEquals("x\uFFFD", read(new byte[]
+    {
+        'x', (byte)0xF0, (byte)0x9F, (byte)0x98
+    }));
+
+    byte[] json = "{\"name\":\"Baby.NET\"}".getBytes("UTF-8");
+    json[json.length - 3] = (byte)0xE2;
+    Organization organization = Classes.invoke(parser(), "parse", new ByteArrayInputStream(json), Organization.class);
+    assertEquals("Baby.NE\uFFFD", organization.name);
+  }
+
+  private static String read(byte[] bytes) throws Throwable
+  {
+    Utf8Reader reader = new Utf8Reader(new ByteArrayInputStream(bytes));
+    StringBuilder builder = new StringBuilder();
+    for(int c = reader.read(); c != -1; c = reader.read()) {
+      builder.append((char)c);
+    }
+    reader.close();
+    return builder.toString();
+  }
+
+  public void testLargeArrayOfIntegers() throws Throwable
+  {
+    // values are sliced from lexer buffer window; large array ensures some values span buffer refills
+    StringBuilder json = new StringBuilder("[");
+    for(int i = 0; i < 10000; ++i) {
+      if(i > 0) {
+        json.append(',');
+      }
+      json.append(i * 1001 - 5000000);
+    }
+    json.append(']');
+
+    int[] array = exercise(json.toString(), int[].class);
+    assertEquals(10000, array.length);
+    for(int i = 0; i < array.length; ++i) {
+      assertEquals(i * 1001 - 5000000, array[i]);
+    }
+  }
+
+  public void testNumericValues() throws Throwable
+  {
+    assertEquals(0.1, exercise("0.1", double.class));
+    assertEquals(-1.2345e-10, exercise("-1.2345e-10", Double.class));
+    assertEquals(1.7976931348623157E308, exercise("1.7976931348623157E308", double.class));
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(exercise("-0.0", double.class)));
+    assertEquals(9007199254740993L, (long)exercise("9007199254740993", long.class));
+    assertEquals(123, (int)exercise("123.00", int.class));
+    assertEquals(16, (int)exercise("\"0x10\"", int.class));
+    assertEquals(0, (int)exercise("\"\"", int.class));
+    assertEquals(2.5F, exercise("2.5", float.class));
+    // big decimal is exact, not affected by binary floating point
+    assertEquals(new BigDecimal("0.1"), exercise("0.1", BigDecimal.class));
+    assertEquals(new BigDecimal("12345678901234567890.123456789"), exercise("12345678901234567890.123456789", BigDecimal.class));
+  }
+
+  public void testPrimitiveArrays() throws Throwable
+  {
+    long[] longs = exercise("[9007199254740993,-1,\"0x10\"]", long[].class);
+    assertEquals(3, longs.length);
+    assertEquals(9007199254740993L, longs[0]);
+    assertEquals(16L, longs[2]);
+
+    double[] doubles = exercise("[0.1,-2.5e-3,1e300,7]", double[].class);
+    assertEquals(4, doubles.length);
+    assertEquals(0.1, doubles[0]);
+    assertEquals(1e300, doubles[2]);
+    assertEquals(7.0, doubles[3]);
+
+    short[] shorts = exercise("[1,-2,300]", short[].class);
+    assertEquals(300, shorts[2]);
+    byte[] bytes = exercise("[]", byte[].class);
+    assertEquals(0, bytes.length);
+
+    int[][] matrix = exercise("[[1,2],[3,4,5]]", int[][].class);
+    assertEquals(2, matrix[0].length);
+    assertEquals(5, matrix[1][2]);
+  }
+
+  public void testDateValue() throws Throwable
+  {
+    Date date = exercise("\"1964-03-15T14:30:00Z\"", Date.class);
+    assertEquals(-182943000000L, date.getTime());
+    // fraction of second and zone offset
+    Timestamp timestamp = exercise("\"1964-03-15T16:30:00.250+02:00\"", Timestamp.class);
+    assertEquals(-182942999750L, timestamp.getTime());
+    java.sql.Date sqlDate = exercise("\"1964-03-15T14:30:00\"", java.sql.Date.class);
+    assertEquals(-182943000000L, sqlDate.getTime());
+    // date before Gregorian calendar adoption is processed by legacy parser
+    Date julianDate = exercise("\"1582-10-04T00:00:00Z\"", Date.class);
+    assertEquals(-12219379200000L, julianDate.getTime());
+    assertNull(exercise("\"\"", Date.class));
+  }
+
   public void testEnum() throws Throwable
   {
     String json = "\"LIGER\"";
@@ -422,6 +585,137 @@ public class ParserUnitTest extends TestCase
     assertEquals(Cats.TIGON, cats[1]);
   }
 
+  public void testCollectionFactories() throws Throwable
+  {
+    LinkedHashMap<String, Integer> linkedMap = exercise("{\"z\":1,\"a\":2,\"m\":3}", new GType(LinkedHashMap.class, String.class, Integer.class));
+    assertEquals("[z, a, m]", linkedMap.keySet().toString());
+
+    ConcurrentMap<String, Integer> concurrentMap = exercise("{\"a\":1}", new GType(ConcurrentMap.class, String.class, Integer.class));
+    assertTrue(concurrentMap instanceof ConcurrentHashMap);
+    assertEquals(1, (int)concurrentMap.get("a"));
+
+    Deque<Integer> deque = exercise("[1,2,3]", new GType(Deque.class, Integer.class));
+    assertTrue(deque instanceof ArrayDeque);
+    assertEquals(3, (int)deque.peekLast());
+
+    EnumSet<Cats> enumSet = exercise("[\"TIGON\"]", new GType(EnumSet.class, Cats.class));
+    assertEquals(EnumSet.of(Cats.TIGON), enumSet);
+
+    EnumMap<Cats, String> enumMap = exercise("{\"LIGER\":\"liger\"}", new GType(EnumMap.class, Cats.class, String.class));
+    assertEquals("liger", enumMap.get(Cats.LIGER));
+
+    // pre-sized instances, when expected size is known
+    assertTrue(CollectionFactories.get(HashMap.class).newInstance(null, 1000) instanceof HashMap);
+    assertTrue(CollectionFactories.get(TreeMap.class).newInstance(null, 1000) instanceof TreeMap);
+
+    CollectionFactory builtinFactory = CollectionFactories.get(SortedSet.class);
+    CollectionFactories.register(SortedSet.class, new CollectionFactory()
+    {
+      @Override
+      public Object newInstance(ParameterizedType type, int expectedSize)
+      {
+        return new TreeSet<Object>(Collections.reverseOrder());
+      }
+    });
+    try {
+      SortedSet<Integer> sortedSet = exercise("[1,3,2]", new GType(SortedSet.class, Integer.class));
+      assertEquals("[3, 2, 1]", sortedSet.toString());
+    }
+    finally {
+      CollectionFactories.register(SortedSet.class, builtinFactory);
+    }
+    SortedSet<Integer> sortedSet = exercise("[1,3,2]", new GType(SortedSet.class, Integer.class));
+    assertEquals("[1, 2, 3]", sortedSet.toString());
+  }
+
+  public void testRegisteredConverter() throws Throwable
+  {
+    Converter.register(UUID.class, new ScalarConverter<UUID>()
+    {
+      @Override
+      public UUID asObject(CharSequence value, Type type)
+      {
+        return UUID.fromString(value.toString());
+      }
+
+      @Override
+      public String asString(UUID value)
+      {
+        return value.toString();
+      }
+    });
+    Converter.register(BigInteger.class, new ScalarConverter<BigInteger>()
+    {
+      @Override
+      public BigInteger asObject(CharSequence value, Type type)
+      {
+        return new BigInteger(value.toString());
+      }
+
+      @Override
+      public String asString(BigInteger value)
+      {
+        return value.toString();
+      }
+    });
+
+    try {
+      UUID uuid = exercise("\"123e4567-e89b-12d3-a456-426614174000\"", UUID.class);
+      assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), uuid);
+
+      // registered types are accepted both quoted and as JSON numbers
+      Account account = exercise("{\"id\":\"123e4567-e89b-12d3-a456-426614174000\",\"balance\":123456789012345678901234567890}", Account.class);
+      assertEquals(uuid, account.id);
+      assertEquals(new BigInteger("123456789012345678901234567890"), account.balance);
+
+      BigInteger[] numbers = exercise("[\"1\",2,\"-3\"]", BigInteger[].class);
+      assertEquals(3, numbers.length);
+      assertEquals(BigInteger.valueOf(-3), numbers[2]);
+    }
+    finally {
+      Converter.unregister(UUID.class);
+      Converter.unregister(BigInteger.class);
+    }
+  }
+
+  public void testUnregisterConverter() throws Throwable
+  {
+    Converter.register(Level.class, new EnumConverter<Level>(Level.class, true, true));
+    assertTrue(Converter.isRegistered(Level.class));
+    assertEquals(Level.HIGH, exercise("\"high\"", Level.class));
+
+    // built-in enumeration converter is case sensitive
+    Converter.unregister(Level.class);
+    assertFalse(Converter.isRegistered(Level.class));
+    assertEquals(Level.HIGH, exercise("\"HIGH\"", Level.class));
+    try {
+      exercise("\"high\"", Level.class);
+      fail("Built-in enumeration converter should reject lower case constant.");
+    }
+    catch(JsonException expected) {}
+  }
+
+  public void testEnumConverterOptions() throws Throwable
+  {
+    Converter.register(Level.class, new EnumConverter<Level>(Level.class, true, true));
+    try {
+      assertEquals(Level.HIGH, exercise("\"high\"", Level.class));
+      assertEquals(Level.MEDIUM, exercise("1", Level.class));
+      Level[] levels = exercise("[0,\"Medium\",\"HIGH\"]", Level[].class);
+      assertEquals(Level.LOW, levels[0]);
+      assertEquals(Level.MEDIUM, levels[1]);
+      assertEquals(Level.HIGH, levels[2]);
+      try {
+        exercise("\"SEVERE\"", Level.class);
+        fail("Not existing enumeration constant should throw exception.");
+      }
+      catch(JsonException expected) {}
+    }
+    finally {
+      Converter.unregister(Level.class);
+    }
+  }
+
   // ----------------------------------------------------
 
   private static <T> T exercise(String json, Class<T> clazz) throws Throwable
@@ -496,6 +790,12 @@ public class ParserUnitTest extends TestCase
     }
   }
 
+  private static class Account
+  {
+    UUID id;
+    BigInteger balance;
+  }
+
   private static class User
   {
     String[] aliases;
@@ -505,4 +805,9 @@ public class ParserUnitTest extends TestCase
   {
     LIGER, TIGON
   }
+
+  private static enum Level
+  {
+    LOW, MEDIUM, HIGH
+  }
 }
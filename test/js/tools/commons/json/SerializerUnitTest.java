@@ -1,6 +1,7 @@
 package js.tools.commons.json;
 
 import java.io.StringWriter;
+import java.lang.reflect.Type;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -8,6 +9,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.UUID;
 
 import js.tools.commons.util.Classes;
 import junit.framework.TestCase;
@@ -37,6 +39,32 @@ public class SerializerUnitTest extends TestCase {
 		assertEquals("\"1964-03-15T14:30:00Z\"", exercise(df.parse("1964-03-15 14:30:00.000")));
 	}
 
+	public void testNumbers() throws Throwable {
+		assertEquals("[0,-7,123456789,-9223372036854775808,1.0,-2.5,1.0E7,-0.0,1.5E-5,2.0]", exercise(new Object[] { 0, (byte) -7, 123456789, Long.MIN_VALUE, 1.0, -2.5, 1.0E7, -0.0, 1.5E-5, 2.0F }));
+	}
+
+	public void testPrimitiveArrays() throws Throwable {
+		assertEquals("[1,-2,2147483647]", exercise(new int[] { 1, -2, Integer.MAX_VALUE }));
+		assertEquals("[-9223372036854775808,0]", exercise(new long[] { Long.MIN_VALUE, 0 }));
+		assertEquals("[0.1,-0.0,1.0E300]", exercise(new double[] { 0.1, -0.0, 1e300 }));
+		assertEquals("[0.5,3.0]", exercise(new float[] { 0.5F, 3F }));
+		assertEquals("[-1,2]", exercise(new short[] { -1, 2 }));
+		assertEquals("[-128,127]", exercise(new byte[] { -128, 127 }));
+		assertEquals("[true,false]", exercise(new boolean[] { true, false }));
+		assertEquals("[]", exercise(new int[0]));
+		assertEquals("[[1],[2,3]]", exercise(new int[][] { { 1 }, { 2, 3 } }));
+	}
+
+	public void testDateEdges() throws Throwable {
+		DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		df.setTimeZone(TimeZone.getTimeZone("UTC"));
+		assertEquals("\"2000-02-29T23:59:59Z\"", exercise(df.parse("2000-02-29 23:59:59.999")));
+		assertEquals("\"1969-12-31T23:59:59Z\"", exercise(df.parse("1969-12-31 23:59:59.500")));
+		assertEquals("\"1582-10-15T00:00:00Z\"", exercise(df.parse("1582-10-15 00:00:00.000")));
+		// Julian calendar dates are processed by calendar based logic
+		assertEquals("\"1582-10-04T00:00:00Z\"", exercise(df.parse("1582-10-04 00:00:00.000")));
+	}
+
 	public void testFlatObject() throws Throwable {
 		Person person = new Person("John Doe");
 		assertEquals("{\"name\":\"John Doe\",\"state\":\"ALIVE\"}", exercise(person));
@@ -92,6 +120,72 @@ public class SerializerUnitTest extends TestCase {
 		assertEquals("{\"text\":\"message text\"}", exercise(new Message()));
 	}
 
+	public void testPrimitiveFields() throws Throwable {
+		Primitives primitives = new Primitives();
+		String expected = "{\"flag\":true,\"small\":-7,\"count\":123,\"big\":9007199254740993,\"ratio\":0.5,\"amount\":-12.25,\"text\":null,\"boxed\":42}";
+		assertEquals(expected, exercise(primitives));
+		// second serialization uses cached class serializer
+		assertEquals(expected, exercise(primitives));
+	}
+
+	public void testCircularDependency() throws Throwable {
+		Node root = new Node("root");
+		root.next = new Node("child");
+		root.next.next = root;
+		assertEquals("{\"name\":\"root\",\"next\":{\"name\":\"child\",\"next\":null}}", exercise(root));
+	}
+
+	/** Circular dependencies are tracked by identity; equal but distinct values, and shared values, are serialized. */
+	public void testEqualValuesAreNotCircular() throws Throwable {
+		Node root = new Node("node");
+		root.next = new Node("node");
+		assertEquals("{\"name\":\"node\",\"next\":{\"name\":\"node\",\"next\":null}}", exercise(root));
+
+		Node shared = new Node("shared");
+		assertEquals("[{\"name\":\"shared\",\"next\":null},{\"name\":\"shared\",\"next\":null}]", exercise(new Node[] { shared, shared }));
+	}
+
+	public void testDisabledCycleTracking() throws Throwable {
+		Node root = new Node("root");
+		root.next = new Node("child");
+		StringWriter writer = new StringWriter();
+		JSON.stringify(writer, root, false);
+		assertEquals("{\"name\":\"root\",\"next\":{\"name\":\"child\",\"next\":null}}", writer.toString());
+	}
+
+	public void testRegisteredConverter() throws Throwable {
+		Converter.register(UUID.class, new ScalarConverter<UUID>() {
+			@Override
+			public UUID asObject(CharSequence value, Type type) {
+				return UUID.fromString(value.toString());
+			}
+
+			@Override
+			public String asString(UUID value) {
+				return value.toString();
+			}
+		});
+		try {
+			UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+			assertEquals("\"123e4567-e89b-12d3-a456-426614174000\"", exercise(uuid));
+			assertEquals("[\"123e4567-e89b-12d3-a456-426614174000\",null]", exercise(new UUID[] { uuid, null }));
+		} finally {
+			Converter.unregister(UUID.class);
+		}
+	}
+
+	public void testEnum() throws Throwable {
+		assertEquals("[\"NONE\",\"DEAD\"]", exercise(new State[] { State.NONE, State.DEAD }));
+		// constant with body is instance of an anonymous subclass
+		assertEquals("\"SQUARE\"", exercise(Shape.SQUARE));
+		Converter.register(Shape.class, new EnumConverter<Shape>(Shape.class, false, true));
+		try {
+			assertEquals("[0,1]", exercise(new Shape[] { Shape.CIRCLE, Shape.SQUARE }));
+		} finally {
+			Converter.unregister(Shape.class);
+		}
+	}
+
 	private static String exercise(Object value) throws Throwable {
 		Object serializer = Classes.newInstance("js.tools.commons.json.Serializer");
 		StringWriter writer = new StringWriter();
@@ -144,7 +238,46 @@ public class SerializerUnitTest extends TestCase {
 		}
 	}
 
+	private static class Primitives {
+		boolean flag = true;
+		short small = -7;
+		int count = 123;
+		long big = 9007199254740993L;
+		float ratio = 0.5F;
+		double amount = -12.25;
+		String text;
+		Integer boxed = 42;
+	}
+
+	private static class Node {
+		String name;
+		Node next;
+
+		Node(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Node && name.equals(((Node) obj).name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+	}
+
 	private static enum State {
 		NONE, ALIVE, DEAD
 	}
+
+	private static enum Shape {
+		CIRCLE, SQUARE {
+			@Override
+			public String toString() {
+				return "square";
+			}
+		}
+	}
 }
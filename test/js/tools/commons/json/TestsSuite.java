@@ -9,8 +9,11 @@ public class TestsSuite extends TestCase
   {
     TestSuite suite = new TestSuite();
     suite.addTestSuite(LexerUnitTest.class);
+    suite.addTestSuite(JsonReaderUnitTest.class);
     suite.addTestSuite(ParserUnitTest.class);
     suite.addTestSuite(SerializerUnitTest.class);
+    suite.addTestSuite(JsonWriterUnitTest.class);
+    suite.addTestSuite(BinaryJSONUnitTest.class);
     return suite;
   }
 }
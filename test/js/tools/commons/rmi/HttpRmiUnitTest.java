@@ -1,11 +1,33 @@
 package js.tools.commons.rmi;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import js.tools.commons.BugError;
+import js.tools.commons.json.BinaryJSON;
 import js.tools.commons.rmi.MockConnectionFactory.OpenConnectionListener;
 import js.tools.commons.util.Classes;
 import js.tools.commons.util.GType;
@@ -112,8 +134,7 @@ public class HttpRmiUnitTest extends TestCase implements OpenConnectionListener
       }
     });
 
-    Object argumentsEncoder = Classes.getFieldValue(rmi, "argumentsWriter");
-    String boundary = Classes.getFieldValue(argumentsEncoder, "boundary");
+    String boundary = boundary(connection.getRequestContentType());
 
     assertTrue(value);
     assertEquals("http://localhost/test/js/tools/commons/rmi/HttpRmiUnitTest$Service/method.rmi", connection.getURL().toExternalForm());
@@ -136,6 +157,605 @@ public class HttpRmiUnitTest extends TestCase implements OpenConnectionListener
     assertEquals(String.format(expectedRequestBody, boundary), connection.getRequestBody());
   }
 
+  public void testBinaryRequest() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setBinary(true);
+    rmi.setReturnType(Notification.class);
+
+    Notification response = new Notification();
+    response.id = 1964;
+    response.text = "message";
+    ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+    BinaryJSON.stringify(responseStream, response);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = BinaryJSON.CONTENT_TYPE;
+    factory.responseBytes = responseStream.toByteArray();
+
+    Notification notification = rmi.invoke("method", 1, "text");
+
+    assertNotNull(notification);
+    assertEquals(1964, notification.id);
+    assertEquals("message", notification.text);
+    assertEquals(BinaryJSON.CONTENT_TYPE, connection.getRequestContentType());
+    assertTrue(connection.getRequestProperty("Accept").startsWith(BinaryJSON.CONTENT_TYPE));
+
+    Object[] arguments = BinaryJSON.parse(new ByteArrayInputStream(connection.getRequestBytes()), Object[].class);
+    assertEquals(2, arguments.length);
+    assertEquals("1", arguments[0]);
+    assertEquals("text", arguments[1]);
+  }
+
+  public void testBinaryRemoteException() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setExceptions(IOException.class);
+
+    ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+    BinaryJSON.stringify(responseStream, new RemoteException(new IOException("server exception")));
+
+    factory.responseStatusCode = 500;
+    factory.responseContentType = BinaryJSON.CONTENT_TYPE;
+    factory.responseBytes = responseStream.toByteArray();
+
+    try {
+      rmi.invoke("method");
+    }
+    catch(IOException e) {
+      assertEquals("server exception", e.getMessage());
+      return;
+    }
+    fail("Binary encoded remote exception should rise checked exception.");
+  }
+
+  public void testPooledConnections() throws Throwable
+  {
+    PooledConnectionFactory pool = new PooledConnectionFactory(factory, 1, 60000, 50);
+    rmi = new HttpRmi(pool, "http://localhost/test/", Service.class);
+    rmi.setReturnType(Boolean.class);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "true";
+
+    for(int i = 0; i < 3; ++i) {
+      // per host limit is one connection so that every transaction should release its connection
+      boolean value = rmi.invoke("method", 1, 2);
+      assertTrue(value);
+      assertEquals(0, pool.getLeasedCount());
+    }
+
+    factory.responseStatusCode = 500;
+    factory.responseBody = "{\"cause\":\"java.io.IOException\",\"message\":\"Error message.\"}";
+    try {
+      rmi.invoke("method", 1, 2);
+      fail("Server response 500 should rise exception.");
+    }
+    catch(BugError expected) {}
+    assertEquals(0, pool.getLeasedCount());
+
+    URL url = new URL("http://localhost/test/method.rmi");
+    HttpURLConnection connection = pool.openConnection(url);
+    try {
+      pool.openConnection(new URL("http://localhost:80/test/other.rmi"));
+      fail("Per host limit should reject second connection.");
+    }
+    catch(IOException expected) {}
+
+    // other host has its own limit
+    HttpURLConnection otherConnection = pool.openConnection(new URL("http://127.0.0.1/test/method.rmi"));
+    assertEquals(2, pool.getLeasedCount());
+    assertEquals(2, pool.getHostsCount());
+
+    pool.releaseConnection(connection, true);
+    pool.releaseConnection(otherConnection, false);
+    // release is idempotent
+    pool.releaseConnection(connection, true);
+    assertEquals(0, pool.getLeasedCount());
+    pool.releaseConnection(pool.openConnection(url), true);
+
+    pool.close();
+    assertEquals(0, pool.getHostsCount());
+    try {
+      pool.openConnection(url);
+      fail("Closed pool should reject connections.");
+    }
+    catch(IOException expected) {}
+  }
+
+  public void testPooledConnectionsIdleEviction() throws Throwable
+  {
+    // idle timeout is short so that hosts are evicted while other threads are acquiring connections
+    final PooledConnectionFactory pool = new PooledConnectionFactory(new MockConnectionFactory(null), 1, 1, 10000);
+    final URL url = new URL("http://localhost/test/method.rmi");
+    final AtomicInteger inUse = new AtomicInteger();
+    final AtomicInteger maxInUse = new AtomicInteger();
+    final Queue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for(int i = 0; i < 8; ++i) {
+      threads.add(new Thread()
+      {
+        @Override
+        public void run()
+        {
+          try {
+            for(int j = 0; j < 500; ++j) {
+              HttpURLConnection connection = pool.openConnection(url);
+              int count = inUse.incrementAndGet();
+              if(count > maxInUse.get()) {
+                maxInUse.set(count);
+              }
+              Thread.yield();
+              inUse.decrementAndGet();
+              pool.releaseConnection(connection, false);
+              if(j % 50 == 0) {
+                Thread.sleep(2);
+              }
+            }
+          }
+          catch(Throwable t) {
+            failures.add(t);
+          }
+        }
+      });
+    }
+    for(Thread thread : threads) {
+      thread.start();
+    }
+    for(Thread thread : threads) {
+      thread.join();
+    }
+
+    assertTrue(failures.toString(), failures.isEmpty());
+    // per host limit should hold even if host was evicted and recreated meanwhile
+    assertEquals(1, maxInUse.get());
+    assertEquals(0, pool.getLeasedCount());
+    pool.close();
+  }
+
+  public void testPooledStreamResponse() throws Throwable
+  {
+    PooledConnectionFactory pool = new PooledConnectionFactory(factory, 1, 60000, 50);
+    rmi = new HttpRmi(pool, "http://localhost/test/", Service.class);
+    rmi.setReturnType(InputStream.class);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/octet-stream";
+    factory.responseBody = "stream";
+
+    InputStream stream = rmi.invoke("method");
+    // returned stream is owned by caller and connection is still in use
+    assertEquals(1, pool.getLeasedCount());
+    assertEquals('s', stream.read());
+    stream.close();
+    assertEquals(0, pool.getLeasedCount());
+  }
+
+  public void testInvokeAsync() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setReturnType(Boolean.class);
+    rmi.setReadTimeout(5000);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "true";
+
+    Future<Boolean> future = rmi.invokeAsync("method", 1, 2);
+    assertTrue(future.get(10, TimeUnit.SECONDS));
+    assertEquals("[1,2]", connection.getRequestBody());
+    assertEquals(5000, connection.getReadTimeout());
+  }
+
+  public void testInvokeAsyncExecutor() throws Throwable
+  {
+    final AtomicInteger executions = new AtomicInteger();
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setExecutor(new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        executions.incrementAndGet();
+        command.run();
+      }
+    });
+
+    factory.responseStatusCode = 404;
+    factory.responseContentType = null;
+    factory.responseBody = null;
+
+    Future<Object> future = rmi.invokeAsync("method");
+    assertEquals(1, executions.get());
+    assertTrue(future.isDone());
+    try {
+      future.get();
+      fail("Server response 404 should complete future exceptionally.");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof RmiException);
+    }
+  }
+
+  public void testInvokeAsyncConcurrentArguments() throws Throwable
+  {
+    final Queue<MockHttpURLConnection> connections = new ConcurrentLinkedQueue<MockHttpURLConnection>();
+    factory = new MockConnectionFactory(new OpenConnectionListener()
+    {
+      @Override
+      public void onConnectionOpened(MockHttpURLConnection connection)
+      {
+        connections.add(connection);
+      }
+    });
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "true";
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+      rmi.setReturnType(Boolean.class);
+      rmi.setExecutor(executor);
+
+      List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+      for(int i = 0; i < 60; ++i) {
+        switch(i % 3) {
+        case 0:
+          futures.add(rmi.<Boolean> invokeAsync("method", i, i));
+          break;
+
+        case 1:
+          futures.add(rmi.<Boolean> invokeAsync("method", stream("stream" + i)));
+          break;
+
+        case 2:
+          futures.add(rmi.<Boolean> invokeAsync("method", i, stream("stream" + i)));
+          break;
+        }
+      }
+      for(Future<Boolean> future : futures) {
+        assertTrue(future.get(10, TimeUnit.SECONDS));
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    // every request body should be encoded by the writer matching its own content type and arguments
+    assertEquals(60, connections.size());
+    Set<Integer> indices = new HashSet<Integer>();
+    for(MockHttpURLConnection connection : connections) {
+      String contentType = connection.getRequestContentType();
+      String body = connection.getRequestBody();
+      Matcher matcher;
+      if("application/json".equals(contentType)) {
+        matcher = Pattern.compile("\\[(\\d+),\\1\\]").matcher(body);
+        assertTrue(body, matcher.matches());
+        assertEquals(0, Integer.parseInt(matcher.group(1)) % 3);
+      }
+      else if("application/octet-stream".equals(contentType)) {
+        matcher = Pattern.compile("stream(\\d+)").matcher(body);
+        assertTrue(body, matcher.matches());
+        assertEquals(1, Integer.parseInt(matcher.group(1)) % 3);
+      }
+      else {
+        String boundary = boundary(contentType);
+        matcher = Pattern.compile("(?s).*--" + Pattern.quote(boundary) + ".*\r\n(\\d+)\r\n.*\r\nstream\\1\r\n--" + Pattern.quote(boundary) + "--").matcher(body);
+        assertTrue(body, matcher.matches());
+        assertEquals(2, Integer.parseInt(matcher.group(1)) % 3);
+      }
+      assertTrue(indices.add(Integer.parseInt(matcher.group(1))));
+    }
+    assertEquals(60, indices.size());
+  }
+
+  public void testBatch() throws Throwable
+  {
+    HttpRmi service = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    service.setReturnType(Boolean.class);
+    HttpRmi repository = new HttpRmi(factory, "http://localhost/test/", Repository.class);
+    repository.setReturnType(String.class);
+    repository.setExceptions(IOException.class);
+
+    HttpRmiBatch batch = new HttpRmiBatch(factory, "http://localhost/test");
+    batch.setMaxSize(3);
+    batch.setMaxDelay(60000);
+    batch.setExecutor(new Executor()
+    {
+      @Override
+      public void execute(Runnable command)
+      {
+        command.run();
+      }
+    });
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "[{\"value\":true},{\"value\":\"John Doe\"},{\"exception\":{\"cause\":\"java.io.IOException\",\"message\":\"server exception\"}}]";
+
+    Future<Boolean> first = batch.invoke(service, "method", 1, 2);
+    Future<String> second = batch.invoke(repository, "getName", 1964);
+    assertNull(connection);
+    assertFalse(first.isDone());
+
+    // third invocation closes size window and batch is sent on direct executor
+    Future<String> third = batch.invoke(repository, "getName");
+    assertTrue(first.get());
+    assertEquals("John Doe", second.get());
+    try {
+      third.get();
+      fail("Remote exception should complete future exceptionally.");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+      assertEquals("server exception", e.getCause().getMessage());
+    }
+
+    assertEquals("http://localhost/test/batch.rmi", connection.getURL().toExternalForm());
+    assertEquals("POST", connection.getRequestMethod());
+    assertEquals("application/json", connection.getRequestContentType());
+    String body = "[{\"class\":\"js.tools.commons.rmi.HttpRmiUnitTest$Service\",\"method\":\"method\",\"args\":[1,2]}," + //
+        "{\"class\":\"js.tools.commons.rmi.HttpRmiUnitTest$Repository\",\"method\":\"getName\",\"args\":[1964]}," + //
+        "{\"class\":\"js.tools.commons.rmi.HttpRmiUnitTest$Repository\",\"method\":\"getName\",\"args\":[]}]";
+    assertEquals(body, connection.getRequestBody());
+  }
+
+  public void testBatchTimeWindow() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setReturnType(Integer.class);
+
+    HttpRmiBatch batch = new HttpRmiBatch(factory, "http://localhost/test/");
+    batch.setMaxDelay(20);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "[{\"value\":1964},{\"value\":null}]";
+
+    Future<Integer> first = batch.invoke(rmi, "method");
+    Future<Integer> second = batch.invoke(rmi, "method");
+    assertEquals(1964, (int)first.get(10, TimeUnit.SECONDS));
+    assertNull(second.get(10, TimeUnit.SECONDS));
+    batch.close();
+  }
+
+  public void testBatchFlush() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    HttpRmiBatch batch = new HttpRmiBatch(factory, "http://localhost/test/");
+    batch.setMaxDelay(60000);
+
+    factory.responseStatusCode = 404;
+    factory.responseContentType = null;
+    factory.responseBody = null;
+
+    Future<Object> first = batch.invoke(rmi, "method");
+    Future<Object> second = batch.invoke(rmi, "method");
+    batch.close();
+    assertTrue(first.isDone());
+    assertTrue(second.isDone());
+    try {
+      second.get();
+      fail("Server response 404 should complete all batch futures exceptionally.");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof RmiException);
+    }
+
+    try {
+      batch.invoke(rmi, "method");
+      fail("Closed batch should reject invocations.");
+    }
+    catch(IllegalStateException expected) {}
+  }
+
+  public void testBatchConfiguration() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setReturnType(Boolean.class);
+    HttpRmiBatch batch = new HttpRmiBatch(factory, "http://localhost/test/");
+    batch.setMaxDelay(60000);
+    batch.setConnectionTimeout(1000);
+    batch.setReadTimeout(5000);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "[{\"value\":true}]";
+
+    Future<Boolean> future = batch.invoke(rmi, "method", 1, 2);
+    batch.flush();
+    assertTrue(future.get());
+    assertEquals(1000, connection.getConnectTimeout());
+    assertEquals(5000, connection.getReadTimeout());
+
+    try {
+      batch.invoke(rmi, "method", 1, stream("stream"));
+      fail("Stream argument should rise illegal argument.");
+    }
+    catch(IllegalArgumentException expected) {}
+    try {
+      batch.setReadTimeout(-1);
+      fail("Negative read timeout should rise illegal argument.");
+    }
+    catch(IllegalArgumentException expected) {}
+    batch.close();
+  }
+
+  public void testProxy() throws Throwable
+  {
+    RemoteService service = HttpRmi.createProxy(factory, RemoteService.class, "http://localhost/test/");
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "true";
+    assertTrue(service.method(1, 2));
+    assertEquals("http://localhost/test/js/tools/commons/rmi/HttpRmiUnitTest$RemoteService/method.rmi", connection.getURL().toExternalForm());
+    assertEquals("POST", connection.getRequestMethod());
+    assertEquals("application/json", connection.getRequestContentType());
+    assertEquals("[1,2]", connection.getRequestBody());
+
+    factory.responseBody = "[\"John Doe\",\"Jane Doe\"]";
+    List<String> names = service.getNames();
+    assertEquals(2, names.size());
+    assertEquals("Jane Doe", names.get(1));
+    assertEquals("http://localhost/test/js/tools/commons/rmi/HttpRmiUnitTest$RemoteService/getNames.rmi", connection.getURL().toExternalForm());
+
+    factory.responseStatusCode = 204;
+    factory.responseBody = null;
+    service.ping();
+
+    assertTrue(service.equals(service));
+    assertFalse(service.equals(HttpRmi.createProxy(factory, RemoteService.class, "http://localhost/test/")));
+    assertEquals(System.identityHashCode(service), service.hashCode());
+    assertEquals("HTTP-RMI proxy for js.tools.commons.rmi.HttpRmiUnitTest$RemoteService", service.toString());
+  }
+
+  public void testProxyExceptions() throws Throwable
+  {
+    RemoteService service = HttpRmi.createProxy(factory, RemoteService.class, "http://localhost/test/");
+
+    factory.responseStatusCode = 500;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "{\"cause\":\"java.io.IOException\",\"message\":\"server exception\"}";
+    try {
+      service.getName();
+      fail("Declared remote exception should be rethrown by proxy.");
+    }
+    catch(IOException e) {
+      assertEquals("server exception", e.getMessage());
+    }
+
+    // exception not declared by method signature is replaced by bug error
+    try {
+      service.ping();
+      fail("Not declared remote exception should rise bug error.");
+    }
+    catch(BugError expected) {}
+
+    factory.responseStatusCode = 404;
+    factory.responseContentType = null;
+    factory.responseBody = null;
+    try {
+      service.getName();
+      fail("Server response 404 should rise RMI exception.");
+    }
+    catch(RmiException expected) {}
+
+    try {
+      HttpRmi.createProxy(factory, Notification.class, "http://localhost/test/");
+      fail("Proxy creation for not interface class should rise illegal argument.");
+    }
+    catch(IllegalArgumentException expected) {}
+
+    try {
+      new HttpRmi(factory, "http://localhost/test/", Service.class).createProxy(RemoteService.class);
+      fail("Proxy creation for other remote interface should rise illegal argument.");
+    }
+    catch(IllegalArgumentException expected) {}
+  }
+
+  public void testConfiguredProxy() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", RemoteService.class);
+    rmi.setBinary(true);
+    rmi.setConnectionTimeout(1000);
+    rmi.setReadTimeout(5000);
+    RemoteService service = rmi.createProxy(RemoteService.class);
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseBody = "true";
+    assertTrue(service.method(1, 2));
+    assertEquals("http://localhost/test/js/tools/commons/rmi/HttpRmiUnitTest$RemoteService/method.rmi", connection.getURL().toExternalForm());
+    assertEquals(BinaryJSON.CONTENT_TYPE, connection.getRequestContentType());
+    assertTrue(connection.getRequestProperty("Accept").startsWith(BinaryJSON.CONTENT_TYPE));
+    assertEquals(1000, connection.getConnectTimeout());
+    assertEquals(5000, connection.getReadTimeout());
+
+    rmi = new HttpRmi(factory, "http://localhost/test/", RemoteService.class);
+    rmi.setCompressionThreshold(0);
+    service = rmi.createProxy(RemoteService.class);
+
+    assertTrue(service.method(1, 2));
+    assertEquals("gzip", connection.getRequestProperty("Content-Encoding"));
+    assertEquals("[1,2]", new String(gunzip(connection.getRequestBytes()), "UTF-8"));
+  }
+
+  public void testCompressedResponse() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setReturnType(new GType(List.class, String.class));
+
+    factory.responseStatusCode = 200;
+    factory.responseContentType = "application/json";
+    factory.responseContentEncoding = "gzip";
+    factory.responseBytes = gzip("[\"index.htm\",\"index.css\"]".getBytes("UTF-8"));
+
+    List<String> strings = rmi.invoke("method");
+    assertEquals(2, strings.size());
+    assertEquals("index.css", strings.get(1));
+    assertEquals("gzip, deflate", connection.getRequestProperty("Accept-Encoding"));
+
+    factory.responseContentEncoding = "deflate";
+    factory.responseBytes = deflate("[\"index.js\"]".getBytes("UTF-8"));
+    strings = rmi.invoke("method");
+    assertEquals(1, strings.size());
+    assertEquals("index.js", strings.get(0));
+
+    rmi.setReturnType(InputStream.class);
+    factory.responseContentType = "application/octet-stream";
+    factory.responseContentEncoding = "gzip";
+    factory.responseBytes = gzip("stream".getBytes("UTF-8"));
+    InputStream stream = rmi.invoke("method");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for(int b = stream.read(); b != -1; b = stream.read()) {
+      bytes.write(b);
+    }
+    stream.close();
+    assertEquals("stream", bytes.toString("UTF-8"));
+  }
+
+  public void testCompressedRemoteException() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setExceptions(IOException.class);
+
+    factory.responseStatusCode = 500;
+    factory.responseContentType = "application/json";
+    factory.responseContentEncoding = "gzip";
+    factory.responseBytes = gzip("{\"cause\":\"java.io.IOException\",\"message\":\"server exception\"}".getBytes("UTF-8"));
+
+    try {
+      rmi.invoke("method");
+      fail("Compressed remote exception should rise checked exception.");
+    }
+    catch(IOException e) {
+      assertEquals("server exception", e.getMessage());
+    }
+  }
+
+  public void testCompressedRequest() throws Throwable
+  {
+    rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
+    rmi.setCompressionThreshold(16);
+
+    factory.responseStatusCode = 204;
+    factory.responseContentType = null;
+
+    // request body below threshold is sent as it is
+    rmi.invoke("method", 1, 2);
+    assertNull(connection.getRequestProperty("Content-Encoding"));
+    assertEquals("[1,2]", connection.getRequestBody());
+
+    rmi.invoke("method", "John Doe", "Jane Doe");
+    assertEquals("gzip", connection.getRequestProperty("Content-Encoding"));
+    assertEquals("application/json", connection.getRequestContentType());
+    assertEquals("[\"John Doe\",\"Jane Doe\"]", new String(gunzip(connection.getRequestBytes()), "UTF-8"));
+  }
+
   public void testStringsListResponse() throws Exception {
     rmi = new HttpRmi(factory, "http://localhost/test/", Service.class);
     rmi.setReturnType(new GType(List.class, String.class));
@@ -339,10 +959,76 @@ public class HttpRmiUnitTest extends TestCase implements OpenConnectionListener
     fail("Server response 567 should rise RMI exception.");
   }
 
+  // ------------------------------------------------------
+  // UTILITY METHODS
+
+  private static byte[] gzip(byte[] bytes) throws IOException
+  {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    OutputStream stream = new GZIPOutputStream(buffer);
+    stream.write(bytes);
+    stream.close();
+    return buffer.toByteArray();
+  }
+
+  private static byte[] deflate(byte[] bytes) throws IOException
+  {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    OutputStream stream = new DeflaterOutputStream(buffer);
+    stream.write(bytes);
+    stream.close();
+    return buffer.toByteArray();
+  }
+
+  private static byte[] gunzip(byte[] bytes) throws IOException
+  {
+    InputStream stream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    for(int b = stream.read(); b != -1; b = stream.read()) {
+      buffer.write(b);
+    }
+    stream.close();
+    return buffer.toByteArray();
+  }
+
+  private static StreamHandler<OutputStream> stream(final String content)
+  {
+    return new StreamHandler<OutputStream>(OutputStream.class)
+    {
+      @Override
+      protected void handle(OutputStream outputStream) throws IOException
+      {
+        outputStream.write(content.getBytes("UTF-8"));
+      }
+    };
+  }
+
+  private static String boundary(String contentType)
+  {
+    Matcher matcher = Pattern.compile("multipart/mixed; boundary=\"([^\"]+)\"").matcher(contentType);
+    assertTrue(contentType, matcher.matches());
+    return matcher.group(1);
+  }
+
   // ------------------------------------------------------
   // FIXTURE
 
   private static interface Service
   {
   }
+
+  private static interface Repository
+  {
+  }
+
+  private static interface RemoteService
+  {
+    boolean method(int a, int b);
+
+    String getName() throws IOException;
+
+    List<String> getNames();
+
+    void ping();
+  }
 }
@@ -12,7 +12,9 @@ public class MockConnectionFactory implements ConnectionFactory
 {
   public int responseStatusCode;
   public String responseContentType;
+  public String responseContentEncoding;
   public String responseBody;
+  public byte[] responseBytes;
 
   private OpenConnectionListener listener;
 
@@ -28,7 +30,9 @@ public class MockConnectionFactory implements ConnectionFactory
     MockHttpURLConnection connection = new MockHttpURLConnection(url);
     connection.setResponseStatusCode(responseStatusCode);
     connection.setResponseContentType(responseContentType);
+    connection.setResponseContentEncoding(responseContentEncoding);
     connection.setResponseBody(responseBody);
+    connection.setResponseBytes(responseBytes);
     if(listener != null) {
       listener.onConnectionOpened(connection);
     }
@@ -19,7 +19,9 @@ public class MockHttpURLConnection extends HttpURLConnection {
 	private ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 	private int responseStatusCode;
 	private String responseContentType;
+	private String responseContentEncoding;
 	private String responseBody;
+	private byte[] responseBytes;
 
 	public MockHttpURLConnection(URL url) {
 		super(url);
@@ -33,6 +35,10 @@ public class MockHttpURLConnection extends HttpURLConnection {
 		return outputStream.toString();
 	}
 
+	public byte[] getRequestBytes() {
+		return outputStream.toByteArray();
+	}
+
 	public int getResponseStatusCode() {
 		return responseStatusCode;
 	}
@@ -49,6 +55,10 @@ public class MockHttpURLConnection extends HttpURLConnection {
 		this.responseContentType = responseContentType;
 	}
 
+	public void setResponseContentEncoding(String responseContentEncoding) {
+		this.responseContentEncoding = responseContentEncoding;
+	}
+
 	public void setResponseBody(String responseBody) {
 		this.responseBody = responseBody;
 	}
@@ -57,11 +67,20 @@ public class MockHttpURLConnection extends HttpURLConnection {
 		return responseBody;
 	}
 
+	public void setResponseBytes(byte[] responseBytes) {
+		this.responseBytes = responseBytes;
+	}
+
 	@Override
 	public String getContentType() {
 		return responseContentType;
 	}
 
+	@Override
+	public String getContentEncoding() {
+		return responseContentEncoding;
+	}
+
 	@Override
 	public OutputStream getOutputStream() throws IOException {
 		return outputStream;
@@ -74,6 +93,9 @@ public class MockHttpURLConnection extends HttpURLConnection {
 
 	@Override
 	public InputStream getInputStream() throws IOException {
+		if (responseBytes != null) {
+			return new ByteArrayInputStream(responseBytes);
+		}
 		if (responseBody == null) {
 			throw new BugError("Request input stream from a mock connection without response body.");
 		}
@@ -7,6 +7,7 @@ import java.io.Writer;
 import java.lang.reflect.Type;
 import java.util.Date;
 
+import js.tools.commons.BugError;
 import js.tools.commons.NoSuchBeingException;
 import junit.framework.TestCase;
 
@@ -63,6 +64,40 @@ public class ClassesUnitTest extends TestCase
     catch(NoSuchBeingException ignore) {}
   }
 
+  public void testNewInstanceCachedConstructors() throws ClassNotFoundException
+  {
+    InnerInterface arg = new InnerClass();
+    // second iteration uses cached constructors
+    for(int i = 0; i < 2; ++i) {
+      assertTrue(Classes.newInstance(InnerClass.class) instanceof InnerClass);
+      assertTrue(Classes.newInstance(InnerClass.class, arg) instanceof InnerClass);
+      assertTrue(Classes.newInstance(InnerClass.class, arg, "string") instanceof InnerClass);
+      try {
+        Classes.newInstance(InnerClass.class, "string");
+        TestCase.fail("Missing expected exception.");
+      }
+      catch(NoSuchBeingException ignore) {}
+      try {
+        Classes.newInstance(InnerInterface.class);
+        TestCase.fail("Missing expected exception.");
+      }
+      catch(BugError ignore) {}
+    }
+  }
+
+  public void testNewInstanceVarargsConstructor() throws ClassNotFoundException
+  {
+    // varargs constructor receives arguments array as it is
+    for(int i = 0; i < 2; ++i) {
+      VarargsClass object = Classes.newInstance(VarargsClass.class, (Object)new String[]
+      {
+          "x", "y"
+      });
+      assertEquals(2, object.values.length);
+      assertEquals("y", object.values[1]);
+    }
+  }
+
   public void testGetFieldValue()
   {
     InnerClass object = new InnerClass();
@@ -76,6 +111,81 @@ public class ClassesUnitTest extends TestCase
     assertEquals("value", object.string);
   }
 
+  public void testCachedFieldAccessors() throws Exception
+  {
+    InnerClass object = new InnerClass();
+    // second iteration uses cached accessors, including missing field
+    for(int i = 0; i < 2; ++i) {
+      Classes.setFieldValue(object, "string", "value" + i);
+      assertEquals("value" + i, Classes.getFieldValue(object, "string"));
+      Classes.setFieldValue(InnerClass.class, "counter", i);
+      assertEquals(i, (int)Classes.<Integer> getFieldValue(InnerClass.class, "counter"));
+      try {
+        Classes.getFieldValue(object, "missingField");
+        TestCase.fail("Missing expected exception.");
+      }
+      catch(NoSuchBeingException ignore) {}
+    }
+    try {
+      Classes.setFieldValue(object, "string", 123);
+      TestCase.fail("Missing expected exception.");
+    }
+    catch(IllegalArgumentException ignore) {}
+  }
+
+  public void testInvokeCachedMethods() throws Exception
+  {
+    InnerClass object = new InnerClass();
+    for(int i = 0; i < 2; ++i) {
+      assertEquals((Object)3, Classes.invoke(object, "addInts", 1, 2));
+      assertEquals((Object)5, Classes.invoke(object, "addNumbers", 2, 3.0));
+      assertNull(Classes.invoke(object, "method", null, 1));
+      assertEquals((Object)7, Classes.invoke(InnerClass.class, "addStatic", 3, 4));
+      try {
+        Classes.invoke(object, "fail");
+        TestCase.fail("Missing expected exception.");
+      }
+      catch(IOException expected) {
+        assertEquals("fail", expected.getMessage());
+      }
+      try {
+        Classes.invoke(object, "missingMethod");
+        TestCase.fail("Missing expected exception.");
+      }
+      catch(NoSuchBeingException ignore) {}
+    }
+  }
+
+  public void testInvokeArgumentsMismatch() throws Exception
+  {
+    InnerClass object = new InnerClass();
+    // null for primitive parameter is illegal argument, as with reflexive method invocation
+    try {
+      Classes.invoke(object, "addInts", 1, null);
+      TestCase.fail("Missing expected exception.");
+    }
+    catch(IllegalArgumentException ignore) {}
+    try {
+      Classes.invoke(InnerClass.class, "addStatic", null, 4);
+      TestCase.fail("Missing expected exception.");
+    }
+    catch(IllegalArgumentException ignore) {}
+
+    // arguments of other type than cached method parameters are illegal argument, not class cast
+    ClassMembers.MethodAccessor method = ClassMembers.get(InnerClass.class).getMethod("addInts", new Object[]
+    {
+        1, 2
+    });
+    try {
+      method.invoke(object, new Object[]
+      {
+          1, "2"
+      });
+      TestCase.fail("Missing expected exception.");
+    }
+    catch(IllegalArgumentException ignore) {}
+  }
+
   public void testInvoke() throws Exception
   {
     InnerClass object = new InnerClass();
@@ -119,6 +229,7 @@ public class ClassesUnitTest extends TestCase
 
   public static class InnerClass implements InnerInterface
   {
+    private static int counter;
     private String string = "string";
 
     public InnerClass()
@@ -151,10 +262,30 @@ public class ClassesUnitTest extends TestCase
     void method(String name, int age)
     {
     }
+
+    void fail() throws IOException
+    {
+      throw new IOException("fail");
+    }
+
+    static Integer addStatic(int i1, int i2)
+    {
+      return i1 + i2;
+    }
   }
 
   public static class SuperClass extends InnerClass
   {
 
   }
+
+  public static class VarargsClass
+  {
+    private final String[] values;
+
+    public VarargsClass(String... values)
+    {
+      this.values = values;
+    }
+  }
 }
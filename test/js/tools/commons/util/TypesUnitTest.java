@@ -1,5 +1,6 @@
 package js.tools.commons.util;
 
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -237,6 +238,29 @@ public class TypesUnitTest extends TestCase
     assertFalse(Types.isMap(""));
   }
 
+  public void testParameterizedTypes()
+  {
+    Type list = new GType(List.class, String.class);
+    assertTrue(Types.isCollection(list));
+    assertTrue(Types.isArrayLike(list));
+    assertFalse(Types.isMap(list));
+    assertFalse(Types.isArray(list));
+    assertFalse(Types.isPrimitiveLike(list));
+
+    Type map = new GType(Map.class, String.class, Integer.class);
+    assertTrue(Types.isMap(map));
+    assertFalse(Types.isCollection(map));
+
+    // kinds not based on class hierarchy are not inherited from raw class
+    assertFalse(Types.isEnum(new GType(Order.class)));
+    assertFalse(Types.isNumber(new GType(Integer.class)));
+
+    Type genericArray = new GAType(String.class);
+    assertTrue(Types.isArray(genericArray));
+    assertTrue(Types.isArrayLike(genericArray));
+    assertFalse(Types.isNumber(genericArray));
+  }
+
   public void testAsIterable()
   {
     Iterator<?> it = Types.asIterable(new int[]